@@ -0,0 +1,60 @@
+package me.kermx.seedBags.benchmark;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import be.seeseemelk.mockbukkit.WorldMock;
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import me.kermx.seedBags.SeedBagUtil;
+import me.kermx.seedBags.SeedBags;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataType;
+
+/**
+ * A MockBukkit server with the SeedBags plugin loaded, shared by the benchmarks.
+ */
+final class BenchmarkServer {
+    final ServerMock server;
+    final SeedBags plugin;
+    final WorldMock world;
+
+    private BenchmarkServer(ServerMock server, SeedBags plugin, WorldMock world) {
+        this.server = server;
+        this.plugin = plugin;
+        this.world = world;
+    }
+
+    /**
+     * Start a mock server and enable the plugin, which also initializes its data keys.
+     */
+    static BenchmarkServer start() {
+        ServerMock server = MockBukkit.mock();
+        SeedBags plugin = MockBukkit.load(SeedBags.class);
+        WorldMock world = server.addSimpleWorld("world");
+        return new BenchmarkServer(server, plugin, world);
+    }
+
+    PlayerMock addPlayer() {
+        PlayerMock player = server.addPlayer();
+        player.teleport(world.getSpawnLocation());
+        return player;
+    }
+
+    void stop() {
+        MockBukkit.unmock();
+    }
+
+    /**
+     * Build a seed bag the same way /getseedbag does.
+     */
+    static ItemStack createSeedBag(Material seedType, int seedCount) {
+        ItemStack seedBag = new ItemStack(Material.PAPER);
+        ItemMeta meta = seedBag.getItemMeta();
+        meta.getPersistentDataContainer().set(SeedBags.SEED_TYPE_KEY, PersistentDataType.STRING, seedType.toString());
+        meta.getPersistentDataContainer().set(SeedBags.SEED_COUNT_KEY, PersistentDataType.INTEGER, seedCount);
+        seedBag.setItemMeta(meta);
+        SeedBagUtil.updateSeedBagMeta(seedBag);
+        return seedBag;
+    }
+}
@@ -0,0 +1,110 @@
+package me.kermx.seedBags.benchmark;
+
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import me.kermx.seedBags.PlantingScheduler;
+import me.kermx.seedBags.SeedBagAccumulator;
+import me.kermx.seedBags.SeedBagIndex;
+import me.kermx.seedBags.SeedBagListener;
+import me.kermx.seedBags.SeedBagStats;
+import me.kermx.seedBags.SeedBagTransfer;
+import me.kermx.seedBags.SeedBagUtil;
+import me.kermx.seedBags.VanillaItemStackerAdapter;
+import org.bukkit.Material;
+import org.bukkit.entity.Item;
+import org.bukkit.event.entity.EntityPickupItemEvent;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Item pickup through SeedBagListener, which drives addSeedsToBags, with the
+ * seed bag in the last storage slot behind a varying number of filled slots.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PickupBenchmark {
+    private static final int BAG_SLOT = 35;
+    private static final int RESET_AFTER = 100_000;
+
+    @Param({"0", "18", "35"})
+    public int filledSlots;
+
+    @Param({"false", "true"})
+    public boolean coalesce;
+
+    private BenchmarkServer fixture;
+    private PlayerMock player;
+    private SeedBagListener listener;
+    private SeedBagAccumulator accumulator;
+    private Item seedItem;
+    private Item otherItem;
+    private int absorbed;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = BenchmarkServer.start();
+        player = fixture.addPlayer();
+        for (int slot = 0; slot < filledSlots; slot++) {
+            player.getInventory().setItem(slot, new ItemStack(Material.COBBLESTONE, 64));
+        }
+        player.getInventory().setItem(BAG_SLOT, BenchmarkServer.createSeedBag(Material.WHEAT_SEEDS, 0));
+
+        SeedBagIndex index = new SeedBagIndex(fixture.plugin, false);
+        accumulator = coalesce ? new SeedBagAccumulator(fixture.plugin, fixture.plugin.getSeedBagScheduler()) : null;
+        SeedBagStats stats = new SeedBagStats(false);
+        PlantingScheduler scheduler = new PlantingScheduler(fixture.plugin, fixture.plugin.getSeedBagScheduler(), index, accumulator, stats, null);
+        listener = new SeedBagListener(fixture.plugin, new VanillaItemStackerAdapter(), index, accumulator, scheduler,
+                new SeedBagTransfer(index, accumulator), null, stats);
+
+        seedItem = fixture.world.dropItem(player.getLocation(), new ItemStack(Material.WHEAT_SEEDS, 1));
+        otherItem = fixture.world.dropItem(player.getLocation(), new ItemStack(Material.COBBLESTONE, 1));
+    }
+
+    @Setup(Level.Invocation)
+    public void emptyBag() {
+        // Keep the bag from filling up without paying for a reset on every call
+        if (++absorbed >= RESET_AFTER) {
+            absorbed = 0;
+            if (accumulator != null) {
+                accumulator.flushAll();
+            }
+            SeedBagUtil.setSeedCount(player.getInventory().getItem(BAG_SLOT), 0);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.stop();
+    }
+
+    @Benchmark
+    public boolean pickupSeeds() {
+        EntityPickupItemEvent event = new EntityPickupItemEvent(player, seedItem, 0);
+        listener.onItemPickup(event);
+        return event.isCancelled();
+    }
+
+    @Benchmark
+    public boolean pickupOtherItem() {
+        EntityPickupItemEvent event = new EntityPickupItemEvent(player, otherItem, 0);
+        listener.onItemPickup(event);
+        return event.isCancelled();
+    }
+}
@@ -0,0 +1,97 @@
+package me.kermx.seedBags.benchmark;
+
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import me.kermx.seedBags.PlantingScheduler;
+import me.kermx.seedBags.SeedBagIndex;
+import me.kermx.seedBags.SeedBagStats;
+import me.kermx.seedBags.SeedBagUtil;
+import me.kermx.seedBags.SeedBags;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A single seed bag right-click planting the default 5x5 area over different farmland layouts.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlantingBenchmark {
+    private static final int RADIUS = 2;
+    private static final int SOIL_Y = 64;
+
+    /**
+     * FULL: every cell is farmland. CHECKERBOARD: every other cell. EDGE: only the outer ring.
+     */
+    @Param({"FULL", "CHECKERBOARD", "EDGE"})
+    public String layout;
+
+    private BenchmarkServer fixture;
+    private PlayerMock player;
+    private PlantingScheduler scheduler;
+    private Block clickedBlock;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = BenchmarkServer.start();
+        player = fixture.addPlayer();
+        player.getInventory().setItem(0, BenchmarkServer.createSeedBag(Material.WHEAT_SEEDS, SeedBags.MAX_SEEDS));
+        scheduler = new PlantingScheduler(fixture.plugin, fixture.plugin.getSeedBagScheduler(), new SeedBagIndex(fixture.plugin, false), null,
+                new SeedBagStats(false), null);
+
+        for (int dx = -RADIUS; dx <= RADIUS; dx++) {
+            for (int dz = -RADIUS; dz <= RADIUS; dz++) {
+                boolean farmland = switch (layout) {
+                    case "CHECKERBOARD" -> ((dx + dz) & 1) == 0;
+                    case "EDGE" -> Math.abs(dx) == RADIUS || Math.abs(dz) == RADIUS;
+                    default -> true;
+                };
+                fixture.world.getBlockAt(dx, SOIL_Y, dz).setType(farmland ? Material.FARMLAND : Material.DIRT);
+            }
+        }
+        // The clicked block must be farmland for the interact handler to get this far
+        clickedBlock = fixture.world.getBlockAt(0, SOIL_Y, 0);
+        clickedBlock.setType(Material.FARMLAND);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearCrops() {
+        for (int dx = -RADIUS; dx <= RADIUS; dx++) {
+            for (int dz = -RADIUS; dz <= RADIUS; dz++) {
+                fixture.world.getBlockAt(dx, SOIL_Y + 1, dz).setType(Material.AIR);
+            }
+        }
+        ItemStack seedBag = player.getInventory().getItem(0);
+        if (SeedBagUtil.getSeedCount(seedBag) < 1000) {
+            SeedBagUtil.setSeedCount(seedBag, SeedBags.MAX_SEEDS);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.stop();
+    }
+
+    @Benchmark
+    public void plantSeeds() {
+        scheduler.plant(player, clickedBlock, player.getInventory().getItem(0), 0);
+    }
+}
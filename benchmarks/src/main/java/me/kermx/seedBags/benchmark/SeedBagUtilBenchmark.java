@@ -0,0 +1,81 @@
+package me.kermx.seedBags.benchmark;
+
+import me.kermx.seedBags.SeedBagUtil;
+import me.kermx.seedBags.SeedBags;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Seed bag recognition and meta updates, run for every slot scan and every count change.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SeedBagUtilBenchmark {
+    private BenchmarkServer fixture;
+    private ItemStack seedBag;
+    private ItemStack plainPaper;
+    private ItemStack seeds;
+    private int seedCount;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = BenchmarkServer.start();
+        seedBag = BenchmarkServer.createSeedBag(Material.WHEAT_SEEDS, 0);
+        plainPaper = new ItemStack(Material.PAPER);
+        seeds = new ItemStack(Material.WHEAT_SEEDS, 64);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.stop();
+    }
+
+    @Benchmark
+    public boolean isSeedBagMatching() {
+        return SeedBagUtil.isSeedBag(seedBag, fixture.plugin, Material.WHEAT_SEEDS);
+    }
+
+    @Benchmark
+    public boolean isSeedBagOtherType() {
+        return SeedBagUtil.isSeedBag(seedBag, fixture.plugin, Material.CARROT);
+    }
+
+    @Benchmark
+    public boolean isSeedBagPlainPaper() {
+        return SeedBagUtil.isSeedBag(plainPaper, fixture.plugin, Material.WHEAT_SEEDS);
+    }
+
+    @Benchmark
+    public boolean isSeedBagNotPaper() {
+        return SeedBagUtil.isSeedBag(seeds, fixture.plugin, Material.WHEAT_SEEDS);
+    }
+
+    @Benchmark
+    public void updateSeedBagMeta() {
+        SeedBagUtil.updateSeedBagMeta(seedBag);
+    }
+
+    @Benchmark
+    public void setSeedCount() {
+        seedCount = (seedCount + 1) % SeedBags.MAX_SEEDS;
+        SeedBagUtil.setSeedCount(seedBag, seedCount);
+    }
+}
@@ -0,0 +1,232 @@
+package me.kermx.seedBags.loadtest;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import be.seeseemelk.mockbukkit.WorldMock;
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import me.kermx.seedBags.SeedBagUtil;
+import me.kermx.seedBags.SeedBags;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.entity.Item;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.entity.EntityPickupItemEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataType;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Simulates a busy farm on a MockBukkit server with the plugin enabled: every tick
+ * the simulated players pick up a mix of seed drops through the real event pipeline,
+ * plant from their bags at a fixed rate, and the scheduler runs one tick. The cost of
+ * each tick is recorded and compared against a saved baseline.
+ * Drops are spawned and crops are cleared before the clock starts, so only the
+ * plugin's own work is measured. The same seed gives the same sequence of drops.
+ * RoseStacker cannot run on MockBukkit, so its merged drops are modelled as single
+ * item entities carrying a large stack.
+ */
+public final class FarmLoadTest {
+    private static final int SOIL_Y = 64;
+    private static final int RADIUS = 2;
+    private static final int PLAYER_SPACING = 8;
+    private static final int WHEAT_BAG_SLOT = 0;
+    private static final int CARROT_BAG_SLOT = 20;
+
+    private final LoadTestOptions options;
+    private final Random random;
+    private ServerMock server;
+    private WorldMock world;
+    private final List<PlayerMock> players = new ArrayList<>();
+
+    private FarmLoadTest(LoadTestOptions options) {
+        this.options = options;
+        this.random = new Random(options.seed());
+    }
+
+    public static void main(String[] args) throws IOException {
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LoadTestOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+        if (options.help()) {
+            System.out.println(LoadTestOptions.USAGE);
+            return;
+        }
+
+        TickReport report = new FarmLoadTest(options).run();
+        System.out.println(options.describe());
+        System.out.println(report.describe());
+
+        Path baselineFile = options.baseline();
+        if (options.saveBaseline()) {
+            report.save(baselineFile, options);
+            System.out.println("Saved baseline to " + baselineFile);
+            return;
+        }
+        if (!Files.exists(baselineFile)) {
+            System.out.println("No baseline at " + baselineFile + "; run with --save-baseline to record one.");
+            return;
+        }
+        TickReport.Comparison comparison = report.compare(baselineFile, options);
+        for (String line : comparison.lines()) {
+            System.out.println(line);
+        }
+        if (comparison.regressed()) {
+            System.exit(1);
+        }
+    }
+
+    private TickReport run() {
+        server = MockBukkit.mock();
+        try {
+            MockBukkit.load(SeedBags.class);
+            world = server.addSimpleWorld("farm");
+            for (int i = 0; i < options.players(); i++) {
+                players.add(addFarmer(i));
+            }
+
+            for (int tick = 0; tick < options.warmupTicks(); tick++) {
+                runTick(tick);
+            }
+            TickReport report = new TickReport(options.ticks());
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            for (int tick = 0; tick < options.ticks(); tick++) {
+                long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+                long nanos = runTick(options.warmupTicks() + tick);
+                report.record(nanos, threads.getCurrentThreadAllocatedBytes() - allocatedBefore);
+            }
+            return report;
+        } finally {
+            MockBukkit.unmock();
+        }
+    }
+
+    /**
+     * Give a simulated player a wheat bag in the hotbar, a carrot bag in the main
+     * inventory and a patch of farmland to plant.
+     */
+    private PlayerMock addFarmer(int index) {
+        PlayerMock player = server.addPlayer();
+        int x = index * PLAYER_SPACING;
+        for (int dx = -RADIUS; dx <= RADIUS; dx++) {
+            for (int dz = -RADIUS; dz <= RADIUS; dz++) {
+                world.getBlockAt(x + dx, SOIL_Y, dz).setType(Material.FARMLAND);
+            }
+        }
+        player.teleport(new Location(world, x + 0.5, SOIL_Y + 1, 0.5));
+        player.getInventory().setItem(WHEAT_BAG_SLOT, createSeedBag(Material.WHEAT_SEEDS, SeedBags.MAX_SEEDS / 4));
+        player.getInventory().setItem(CARROT_BAG_SLOT, createSeedBag(Material.CARROT, 0));
+        player.getInventory().setHeldItemSlot(WHEAT_BAG_SLOT);
+        return player;
+    }
+
+    /**
+     * Run one simulated tick.
+     *
+     * @return The time spent in the plugin's event handlers and scheduled tasks.
+     */
+    private long runTick(int tick) {
+        // World work the plugin does not pay for on a real server
+        List<Item> drops = spawnDrops();
+        List<PlayerMock> planters = new ArrayList<>();
+        for (int i = 0; i < players.size(); i++) {
+            if (options.plantEvery() > 0 && (tick + i) % options.plantEvery() == 0) {
+                PlayerMock player = players.get(i);
+                clearCrops(player);
+                planters.add(player);
+            }
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < drops.size(); i++) {
+            PlayerMock player = players.get(i % players.size());
+            server.getPluginManager().callEvent(new EntityPickupItemEvent(player, drops.get(i), 0));
+        }
+        for (PlayerMock player : planters) {
+            Block soil = world.getBlockAt(player.getLocation().getBlockX(), SOIL_Y, player.getLocation().getBlockZ());
+            server.getPluginManager().callEvent(new PlayerInteractEvent(player, Action.RIGHT_CLICK_BLOCK,
+                    player.getInventory().getItemInMainHand(), soil, BlockFace.UP));
+        }
+        server.getScheduler().performOneTick();
+        long nanos = System.nanoTime() - start;
+
+        // Drops rejected by full bags would otherwise pile up across ticks
+        for (Item drop : drops) {
+            if (drop.isValid()) {
+                drop.remove();
+            }
+        }
+        refillBags();
+        return nanos;
+    }
+
+    /**
+     * Spawn this tick's drops next to their players: mostly wheat and carrots, some
+     * stone that every bag rejects, and a share of merged stacks.
+     */
+    private List<Item> spawnDrops() {
+        List<Item> drops = new ArrayList<>(options.dropsPerTick());
+        for (int i = 0; i < options.dropsPerTick(); i++) {
+            PlayerMock player = players.get(i % players.size());
+            double kind = random.nextDouble();
+            Material material = kind < 0.1 ? Material.COBBLESTONE : kind < 0.6 ? Material.WHEAT_SEEDS : Material.CARROT;
+            int amount = random.nextDouble() < options.stackedShare() ? 2 + random.nextInt(63) : 1;
+            drops.add(world.dropItem(player.getLocation(), new ItemStack(material, amount)));
+        }
+        return drops;
+    }
+
+    private void clearCrops(PlayerMock player) {
+        int x = player.getLocation().getBlockX();
+        for (int dx = -RADIUS; dx <= RADIUS; dx++) {
+            for (int dz = -RADIUS; dz <= RADIUS; dz++) {
+                world.getBlockAt(x + dx, SOIL_Y + 1, dz).setType(Material.AIR);
+            }
+        }
+    }
+
+    /**
+     * Keep the bags between a quarter and three quarters full so neither pickups
+     * nor planting run into a full or empty bag during long runs.
+     */
+    private void refillBags() {
+        for (PlayerMock player : players) {
+            for (int slot : new int[]{WHEAT_BAG_SLOT, CARROT_BAG_SLOT}) {
+                ItemStack seedBag = player.getInventory().getItem(slot);
+                int seedCount = SeedBagUtil.getSeedCount(seedBag);
+                if (seedCount < 1000 || seedCount > SeedBags.MAX_SEEDS * 3 / 4) {
+                    SeedBagUtil.setSeedCount(seedBag, SeedBags.MAX_SEEDS / 4);
+                }
+            }
+        }
+    }
+
+    /**
+     * Build a seed bag the same way /getseedbag does.
+     */
+    static ItemStack createSeedBag(Material seedType, int seedCount) {
+        ItemStack seedBag = new ItemStack(Material.PAPER);
+        ItemMeta meta = seedBag.getItemMeta();
+        meta.getPersistentDataContainer().set(SeedBags.SEED_TYPE_KEY, PersistentDataType.STRING, seedType.toString());
+        meta.getPersistentDataContainer().set(SeedBags.SEED_COUNT_KEY, PersistentDataType.INTEGER, seedCount);
+        seedBag.setItemMeta(meta);
+        SeedBagUtil.updateSeedBagMeta(seedBag);
+        return seedBag;
+    }
+}
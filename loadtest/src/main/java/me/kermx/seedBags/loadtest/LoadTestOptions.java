@@ -0,0 +1,117 @@
+package me.kermx.seedBags.loadtest;
+
+import java.nio.file.Path;
+
+/**
+ * Command line options of the farm load test.
+ *
+ * @param players       The number of simulated players.
+ * @param dropsPerTick  The number of seed drops spawned per tick, shared by all players.
+ * @param stackedShare  The share of drops that are merged stacks rather than single items.
+ * @param plantEvery    Every player plants once every this many ticks; 0 disables planting.
+ * @param warmupTicks   The number of unmeasured ticks run first.
+ * @param ticks         The number of measured ticks.
+ * @param seed          The random seed for the drop sequence.
+ * @param baseline      The baseline file to compare against or save to.
+ * @param tolerance     The allowed relative increase over the baseline before a regression is reported.
+ * @param saveBaseline  Whether to save this run as the new baseline instead of comparing.
+ * @param help          Whether only the usage was asked for.
+ */
+record LoadTestOptions(int players, int dropsPerTick, double stackedShare, int plantEvery, int warmupTicks, int ticks,
+                       long seed, Path baseline, double tolerance, boolean saveBaseline, boolean help) {
+
+    static final String USAGE = """
+            Usage: java -jar loadtest.jar [options]
+              --players <n>         simulated players (default 100)
+              --drops <n>           seed drops per tick, shared by all players (default 400)
+              --stacked <0..1>      share of drops that are merged stacks (default 0.3)
+              --plant-every <n>     ticks between plants per player, 0 for none (default 20)
+              --warmup <n>          unmeasured ticks (default 200)
+              --ticks <n>           measured ticks (default 1000)
+              --seed <n>            random seed (default 42)
+              --baseline <file>     baseline file (default baseline.properties)
+              --tolerance <0..>     allowed increase over the baseline (default 0.25)
+              --save-baseline       save this run as the baseline instead of comparing
+              -help                 show this message""";
+
+    static LoadTestOptions parse(String[] args) {
+        int players = 100;
+        int drops = 400;
+        double stacked = 0.3;
+        int plantEvery = 20;
+        int warmup = 200;
+        int ticks = 1000;
+        long seed = 42L;
+        Path baseline = Path.of("baseline.properties");
+        double tolerance = 0.25;
+        boolean saveBaseline = false;
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "-help", "--help" -> {
+                    return new LoadTestOptions(players, drops, stacked, plantEvery, warmup, ticks, seed, baseline,
+                            tolerance, false, true);
+                }
+                case "--save-baseline" -> saveBaseline = true;
+                case "--players" -> players = positive(arg, value(args, ++i, arg));
+                case "--drops" -> drops = Math.max(0, parseInt(arg, value(args, ++i, arg)));
+                case "--stacked" -> stacked = Math.min(1.0, Math.max(0.0, parseDouble(arg, value(args, ++i, arg))));
+                case "--plant-every" -> plantEvery = Math.max(0, parseInt(arg, value(args, ++i, arg)));
+                case "--warmup" -> warmup = Math.max(0, parseInt(arg, value(args, ++i, arg)));
+                case "--ticks" -> ticks = positive(arg, value(args, ++i, arg));
+                case "--seed" -> seed = parseInt(arg, value(args, ++i, arg));
+                case "--baseline" -> baseline = Path.of(value(args, ++i, arg));
+                case "--tolerance" -> tolerance = Math.max(0.0, parseDouble(arg, value(args, ++i, arg)));
+                default -> throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        return new LoadTestOptions(players, drops, stacked, plantEvery, warmup, ticks, seed, baseline, tolerance,
+                saveBaseline, false);
+    }
+
+    /**
+     * @return A one line description of the simulated scenario.
+     */
+    String describe() {
+        return "Scenario: " + scenario();
+    }
+
+    /**
+     * @return The options that change what is measured; baselines are only comparable if these match.
+     */
+    String scenario() {
+        return players + " players, " + dropsPerTick + " drops/tick, " + stackedShare + " stacked, plant every "
+                + plantEvery + " ticks, " + ticks + " ticks, seed " + seed;
+    }
+
+    private static String value(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + option);
+        }
+        return args[index];
+    }
+
+    private static int positive(String option, String value) {
+        int parsed = parseInt(option, value);
+        if (parsed <= 0) {
+            throw new IllegalArgumentException(option + " must be positive");
+        }
+        return parsed;
+    }
+
+    private static int parseInt(String option, String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for " + option + ": " + value);
+        }
+    }
+
+    private static double parseDouble(String option, String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for " + option + ": " + value);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package me.kermx.seedBags.loadtest;
+
+import me.kermx.seedBags.SeedBagRecorder;
+import org.bukkit.Material;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Streams the records of a {@link SeedBagRecorder} log one at a time, so recordings
+ * of any length replay in constant memory. Material ordinals are mapped back through
+ * the log's own name table, so a log replays on a server version whose material
+ * order differs; materials this version does not know read as null.
+ */
+final class RecordingReader implements Closeable {
+    private final DataInputStream in;
+    private final Material[] materials;
+    private final long startMillis;
+
+    RecordingReader(Path file) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024));
+        if (in.readInt() != SeedBagRecorder.MAGIC) {
+            in.close();
+            throw new IOException(file + " is not a seed bag recording");
+        }
+        short version = in.readShort();
+        if (version != SeedBagRecorder.VERSION) {
+            in.close();
+            throw new IOException(file + " has recording version " + version + ", expected " + SeedBagRecorder.VERSION);
+        }
+        this.startMillis = in.readLong();
+        this.materials = new Material[in.readShort() & 0xFFFF];
+        for (int i = 0; i < materials.length; i++) {
+            byte[] name = new byte[in.readShort() & 0xFFFF];
+            in.readFully(name);
+            materials[i] = Material.getMaterial(new String(name, StandardCharsets.US_ASCII));
+        }
+    }
+
+    long startMillis() {
+        return startMillis;
+    }
+
+    /**
+     * Read the next record, skipping record types this reader does not know.
+     *
+     * @return The record, or null at the end of the log.
+     */
+    Event next() throws IOException {
+        while (true) {
+            int type;
+            try {
+                type = in.readByte();
+            } catch (EOFException e) {
+                return null;
+            }
+            int length = in.readInt();
+            switch (type) {
+                case SeedBagRecorder.PICKUP -> {
+                    return readPickup();
+                }
+                case SeedBagRecorder.INTERACT -> {
+                    return readInteract();
+                }
+                default -> in.skipNBytes(length);
+            }
+        }
+    }
+
+    private Pickup readPickup() throws IOException {
+        long nanos = in.readLong();
+        int player = in.readInt();
+        Material material = material(in.readShort());
+        int amount = in.readInt();
+        boolean stacked = (in.readByte() & SeedBagRecorder.FLAG_STACKED) != 0;
+        Bag[] bags = new Bag[in.readByte() & 0xFF];
+        for (int i = 0; i < bags.length; i++) {
+            bags[i] = new Bag(in.readByte() & 0xFF, in.readByte() != 0, material, in.readInt());
+        }
+        return new Pickup(nanos, player, material, amount, stacked, bags);
+    }
+
+    private Interact readInteract() throws IOException {
+        long nanos = in.readLong();
+        int player = in.readInt();
+        int flags = in.readByte();
+        int slot = in.readByte() & 0xFF;
+        Material seedType = material(in.readShort());
+        boolean universal = in.readByte() != 0;
+        int count = in.readInt();
+        int y = in.readInt();
+        int radius = in.readByte() & 0xFF;
+        int size = radius * 2 + 1;
+        Material[] soil = new Material[size * size];
+        Material[] above = new Material[size * size];
+        for (int i = 0; i < soil.length; i++) {
+            soil[i] = material(in.readShort());
+            above[i] = material(in.readShort());
+        }
+        return new Interact(nanos, player, (flags & SeedBagRecorder.FLAG_SNEAKING) != 0,
+                (flags & SeedBagRecorder.FLAG_OFF_HAND) != 0, new Bag(slot, universal, seedType, count), y, radius, soil, above);
+    }
+
+    private Material material(short ordinal) {
+        return ordinal < 0 || ordinal >= materials.length ? null : materials[ordinal];
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * A recorded event.
+     */
+    sealed interface Event permits Pickup, Interact {
+        /**
+         * @return The time since the start of the recording.
+         */
+        long nanos();
+
+        /**
+         * @return The player's id within the recording.
+         */
+        int player();
+    }
+
+    /**
+     * A seed bag as the recorder found it.
+     *
+     * @param slot      The inventory slot.
+     * @param universal Whether it is a universal bag.
+     * @param seedType  The seed type counted; the active seed of a universal bag.
+     * @param count     The count of that seed type.
+     */
+    record Bag(int slot, boolean universal, Material seedType, int count) {
+    }
+
+    /**
+     * A recorded pickup.
+     *
+     * @param nanos    The time since the start of the recording.
+     * @param player   The player's id within the recording.
+     * @param material The picked up material, or null if unknown to this version.
+     * @param amount   The number of items, including every item of a stacked drop.
+     * @param stacked  Whether an item stacker plugin had merged the drop.
+     * @param bags     The player's bags that hold the material.
+     */
+    record Pickup(long nanos, int player, Material material, int amount, boolean stacked, Bag[] bags) implements Event {
+    }
+
+    /**
+     * A recorded right-click on a block with a seed bag.
+     *
+     * @param nanos    The time since the start of the recording.
+     * @param player   The player's id within the recording.
+     * @param sneaking Whether the player was sneaking.
+     * @param offHand  Whether the bag was in the off hand.
+     * @param bag      The clicked bag.
+     * @param y        The Y of the clicked block.
+     * @param radius   The planting radius when recorded.
+     * @param soil     The block types at the clicked Y, row by row over X then Z; null where unknown.
+     * @param above    The block types above them.
+     */
+    record Interact(long nanos, int player, boolean sneaking, boolean offHand, Bag bag, int y, int radius,
+                    Material[] soil, Material[] above) implements Event {
+    }
+}
@@ -0,0 +1,132 @@
+package me.kermx.seedBags.loadtest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * The measured cost of every tick of a load test run, and its comparison against a
+ * baseline. The p50, p99 and allocation figures gate regressions; the maximum is
+ * reported but too noisy to gate on.
+ */
+final class TickReport {
+    private static final String P50 = "p50.micros";
+    private static final String P99 = "p99.micros";
+    private static final String MAX = "max.micros";
+    private static final String ALLOCATED = "allocated.bytes.per.tick";
+    private static final String SCENARIO = "scenario";
+
+    private final long[] tickNanos;
+    private int ticks;
+    private long allocatedBytes;
+
+    TickReport(int capacity) {
+        this.tickNanos = new long[capacity];
+    }
+
+    void record(long nanos, long allocated) {
+        tickNanos[ticks++] = nanos;
+        allocatedBytes += allocated;
+    }
+
+    double percentileMicros(double percentile) {
+        long[] sorted = Arrays.copyOf(tickNanos, ticks);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1000.0;
+    }
+
+    double maxMicros() {
+        return percentileMicros(100);
+    }
+
+    long allocatedBytesPerTick() {
+        return allocatedBytes / Math.max(1, ticks);
+    }
+
+    String describe() {
+        return String.format(Locale.ROOT, "Tick cost: p50=%.1fus p99=%.1fus max=%.1fus, allocated %d bytes total (%d per tick)",
+                percentileMicros(50), percentileMicros(99), maxMicros(), allocatedBytes, allocatedBytesPerTick());
+    }
+
+    void save(Path file, LoadTestOptions options) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(SCENARIO, options.scenario());
+        properties.setProperty(P50, format(percentileMicros(50)));
+        properties.setProperty(P99, format(percentileMicros(99)));
+        properties.setProperty(MAX, format(maxMicros()));
+        properties.setProperty(ALLOCATED, Long.toString(allocatedBytesPerTick()));
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            properties.store(writer, "SeedBags farm load test baseline");
+        }
+    }
+
+    /**
+     * Compare this run against a saved baseline.
+     *
+     * @param file    The baseline file.
+     * @param options The options of this run.
+     * @return One line per metric and whether any gated metric regressed.
+     */
+    Comparison compare(Path file, LoadTestOptions options) throws IOException {
+        Properties baseline = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            baseline.load(reader);
+        }
+        List<String> lines = new ArrayList<>();
+        String baselineScenario = baseline.getProperty(SCENARIO, "");
+        if (!baselineScenario.equals(options.scenario())) {
+            lines.add("Warning: the baseline was recorded for a different scenario (" + baselineScenario + ")");
+        }
+        boolean regressed = false;
+        regressed |= compare(lines, "p50", parse(baseline, P50), percentileMicros(50), "us", options.tolerance(), true);
+        regressed |= compare(lines, "p99", parse(baseline, P99), percentileMicros(99), "us", options.tolerance(), true);
+        compare(lines, "max", parse(baseline, MAX), maxMicros(), "us", options.tolerance(), false);
+        regressed |= compare(lines, "allocated/tick", parse(baseline, ALLOCATED), allocatedBytesPerTick(), " bytes",
+                options.tolerance(), true);
+        lines.add(regressed ? "REGRESSION against " + file : "No regression against " + file);
+        return new Comparison(lines, regressed);
+    }
+
+    private static boolean compare(List<String> lines, String name, double baseline, double current, String unit,
+                                   double tolerance, boolean gated) {
+        if (Double.isNaN(baseline)) {
+            lines.add(name + ": no baseline value");
+            return false;
+        }
+        double change = baseline == 0 ? 0 : (current - baseline) / baseline;
+        boolean regressed = gated && current > baseline * (1 + tolerance);
+        lines.add(String.format(Locale.ROOT, "%s: %.1f%s vs baseline %.1f%s (%+.1f%%)%s", name, current, unit, baseline, unit,
+                change * 100, regressed ? " REGRESSED" : gated ? "" : " (not gated)"));
+        return regressed;
+    }
+
+    private static double parse(Properties properties, String key) {
+        try {
+            return Double.parseDouble(properties.getProperty(key, "NaN"));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.1f", value);
+    }
+
+    /**
+     * The outcome of a baseline comparison.
+     *
+     * @param lines     One line per metric.
+     * @param regressed Whether a gated metric exceeded the baseline by more than the tolerance.
+     */
+    record Comparison(List<String> lines, boolean regressed) {
+    }
+}
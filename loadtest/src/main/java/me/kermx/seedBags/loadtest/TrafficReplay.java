@@ -0,0 +1,265 @@
+package me.kermx.seedBags.loadtest;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import be.seeseemelk.mockbukkit.WorldMock;
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import me.kermx.seedBags.SeedBagUtil;
+import me.kermx.seedBags.SeedBags;
+import me.kermx.seedBags.SeedCounts;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.entity.Item;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.entity.EntityPickupItemEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataType;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Replays a traffic log written by /seedbags record through the plugin's listeners on
+ * a MockBukkit server, and reports throughput and per-event latency.
+ * Every recorded player gets a simulated player with their own patch of world. Before
+ * each event its recorded state is restored untimed: the bags it lists are put back
+ * when the replayed inventory no longer matches, and the blocks of a planting click
+ * are set to the recorded types. Only the event handlers and the scheduler ticks
+ * between events are timed. Recorded time is replayed as ticks of 50ms, skipping
+ * long idle gaps, so work the plugin defers to the next tick is measured too.
+ * <p>
+ * Run with {@code java -cp loadtest.jar me.kermx.seedBags.loadtest.TrafficReplay <recording> [--max-idle-ticks <n>]}.
+ */
+public final class TrafficReplay {
+    private static final long TICK_NANOS = 50_000_000L;
+    private static final int PLAYER_SPACING = 160;
+    private static final String USAGE = "Usage: java -cp loadtest.jar me.kermx.seedBags.loadtest.TrafficReplay <recording> [--max-idle-ticks <n>]";
+
+    private final int maxIdleTicks;
+    private ServerMock server;
+    private WorldMock world;
+    private final List<PlayerMock> players = new ArrayList<>();
+    private final Samples pickupNanos = new Samples();
+    private final Samples interactNanos = new Samples();
+    private final Samples tickNanos = new Samples();
+    private long tick;
+
+    private TrafficReplay(int maxIdleTicks) {
+        this.maxIdleTicks = maxIdleTicks;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0 || args[0].equals("-help") || args[0].equals("--help")) {
+            System.out.println(USAGE);
+            return;
+        }
+        int maxIdleTicks = 40;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--max-idle-ticks") && i + 1 < args.length) {
+                try {
+                    maxIdleTicks = Math.max(0, Integer.parseInt(args[++i]));
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid number for --max-idle-ticks: " + args[i]);
+                    System.exit(2);
+                }
+            } else {
+                System.err.println("Unknown option " + args[i]);
+                System.err.println(USAGE);
+                System.exit(2);
+            }
+        }
+        new TrafficReplay(maxIdleTicks).run(Path.of(args[0]));
+    }
+
+    private void run(Path file) throws IOException {
+        server = MockBukkit.mock();
+        try (RecordingReader reader = new RecordingReader(file)) {
+            MockBukkit.load(SeedBags.class);
+            world = server.addSimpleWorld("replay");
+            long wallStart = System.nanoTime();
+            long lastNanos = 0L;
+            RecordingReader.Event event;
+            while ((event = reader.next()) != null) {
+                advanceTo(event.nanos() / TICK_NANOS);
+                lastNanos = event.nanos();
+                PlayerMock player = getPlayer(event.player());
+                if (event instanceof RecordingReader.Pickup pickup) {
+                    replayPickup(player, pickup);
+                } else if (event instanceof RecordingReader.Interact interact) {
+                    replayInteract(player, interact);
+                }
+            }
+            // Let deferred work finish
+            advanceTo(tick + 2);
+            report(file, lastNanos, System.nanoTime() - wallStart);
+        } finally {
+            MockBukkit.unmock();
+        }
+    }
+
+    /**
+     * Run scheduler ticks up to the given tick, at most the idle cap of them.
+     */
+    private void advanceTo(long targetTick) {
+        long ticks = Math.min(targetTick - tick, maxIdleTicks);
+        for (long i = 0; i < ticks; i++) {
+            long start = System.nanoTime();
+            server.getScheduler().performOneTick();
+            tickNanos.add(System.nanoTime() - start);
+        }
+        tick = Math.max(tick, targetTick);
+    }
+
+    private PlayerMock getPlayer(int id) {
+        while (players.size() <= id) {
+            PlayerMock player = server.addPlayer();
+            player.teleport(new Location(world, players.size() * PLAYER_SPACING + 0.5, 65, 0.5));
+            players.add(player);
+        }
+        return players.get(id);
+    }
+
+    private void replayPickup(PlayerMock player, RecordingReader.Pickup pickup) {
+        if (pickup.material() == null || pickup.amount() <= 0) {
+            return;
+        }
+        for (RecordingReader.Bag bag : pickup.bags()) {
+            restoreBag(player.getInventory(), bag);
+        }
+        Item drop = world.dropItem(player.getLocation(), new ItemStack(pickup.material(), pickup.amount()));
+
+        long start = System.nanoTime();
+        server.getPluginManager().callEvent(new EntityPickupItemEvent(player, drop, 0));
+        pickupNanos.add(System.nanoTime() - start);
+
+        if (drop.isValid()) {
+            drop.remove();
+        }
+    }
+
+    private void replayInteract(PlayerMock player, RecordingReader.Interact interact) {
+        RecordingReader.Bag bag = interact.bag();
+        if (bag.seedType() == null) {
+            return;
+        }
+        PlayerInventory inventory = player.getInventory();
+        restoreBag(inventory, bag);
+        if (!interact.offHand() && bag.slot() < 9) {
+            inventory.setHeldItemSlot(bag.slot());
+        }
+        player.setSneaking(interact.sneaking());
+
+        int originX = player.getLocation().getBlockX();
+        int originZ = player.getLocation().getBlockZ();
+        int radius = interact.radius();
+        int size = radius * 2 + 1;
+        for (int i = 0; i < interact.soil().length; i++) {
+            if (interact.soil()[i] == null || interact.above()[i] == null) {
+                continue;
+            }
+            Block block = world.getBlockAt(originX + i / size - radius, interact.y(), originZ + i % size - radius);
+            block.setType(interact.soil()[i]);
+            block.getRelative(0, 1, 0).setType(interact.above()[i]);
+        }
+        Block clicked = world.getBlockAt(originX, interact.y(), originZ);
+        EquipmentSlot hand = interact.offHand() ? EquipmentSlot.OFF_HAND : EquipmentSlot.HAND;
+
+        long start = System.nanoTime();
+        server.getPluginManager().callEvent(new PlayerInteractEvent(player, Action.RIGHT_CLICK_BLOCK,
+                inventory.getItem(bag.slot()), clicked, BlockFace.UP, hand));
+        interactNanos.add(System.nanoTime() - start);
+    }
+
+    /**
+     * Put a recorded bag back unless the replayed inventory already holds a bag of the
+     * same kind in its slot, whose count has then evolved through the replay itself.
+     */
+    private static void restoreBag(PlayerInventory inventory, RecordingReader.Bag recorded) {
+        ItemStack current = inventory.getItem(recorded.slot());
+        boolean matches = recorded.universal()
+                ? SeedBagUtil.isUniversal(current)
+                : !SeedBagUtil.isUniversal(current) && SeedBagUtil.getSeedType(current) == recorded.seedType();
+        if (!matches) {
+            inventory.setItem(recorded.slot(), recorded.universal()
+                    ? createUniversalBag(recorded.seedType(), recorded.count())
+                    : FarmLoadTest.createSeedBag(recorded.seedType(), recorded.count()));
+        }
+    }
+
+    /**
+     * Build a universal bag holding the given count of one seed type, which is also its active seed.
+     */
+    private static ItemStack createUniversalBag(Material seedType, int seedCount) {
+        SeedCounts counts = new SeedCounts();
+        counts.set(seedType, seedCount);
+        ItemStack seedBag = new ItemStack(Material.PAPER);
+        ItemMeta meta = seedBag.getItemMeta();
+        meta.getPersistentDataContainer().set(SeedBags.SEED_TYPE_KEY, PersistentDataType.STRING, seedType.toString());
+        meta.getPersistentDataContainer().set(SeedBags.SEED_COUNTS_KEY, PersistentDataType.BYTE_ARRAY, counts.encode());
+        seedBag.setItemMeta(meta);
+        SeedBagUtil.updateSeedBagMeta(seedBag);
+        return seedBag;
+    }
+
+    private void report(Path file, long recordedNanos, long wallNanos) {
+        long handlerNanos = pickupNanos.total() + interactNanos.total() + tickNanos.total();
+        int events = pickupNanos.size() + interactNanos.size();
+        System.out.println("Replayed " + file + ": " + events + " events from " + players.size() + " players, "
+                + String.format(Locale.ROOT, "%.1fs recorded, %.1fs wall time", recordedNanos / 1e9, wallNanos / 1e9));
+        System.out.println(String.format(Locale.ROOT, "Throughput: %.0f events/s of plugin time (%.1fms in handlers and ticks)",
+                events / Math.max(handlerNanos / 1e9, 1e-9), handlerNanos / 1e6));
+        System.out.println(pickupNanos.describe("Pickups"));
+        System.out.println(interactNanos.describe("Interacts"));
+        System.out.println(tickNanos.describe("Ticks"));
+    }
+
+    /**
+     * Growable list of nanosecond samples.
+     */
+    private static final class Samples {
+        private long[] values = new long[1024];
+        private int size;
+        private long total;
+
+        private void add(long nanos) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = nanos;
+            total += nanos;
+        }
+
+        private int size() {
+            return size;
+        }
+
+        private long total() {
+            return total;
+        }
+
+        private String describe(String name) {
+            if (size == 0) {
+                return name + ": none";
+            }
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            return String.format(Locale.ROOT, "%s: %d, p50=%.1fus p99=%.1fus max=%.1fus", name, size,
+                    percentile(sorted, 50) / 1000.0, percentile(sorted, 99) / 1000.0, sorted[size - 1] / 1000.0);
+        }
+
+        private static long percentile(long[] sorted, double percentile) {
+            int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package me.kermx.seedBags.loadtest;
+
+import me.kermx.seedBags.SeedBagScheduler;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link SeedBagScheduler} that behaves like Folia's: the world is cut into square
+ * regions, each owned by one of four region threads, with a separate global thread
+ * and an async pool. Neighbouring regions have different owners, so the four regions
+ * around any region corner are run by four different threads.
+ * Every task is counted until it has run, so a test can wait for the scheduler to go
+ * quiet, and anything a task throws is kept for the test to report.
+ */
+final class RegionScheduler implements SeedBagScheduler {
+    static final int REGION_CHUNKS = 2;
+    // Short ticks, so jobs spread over many ticks still finish quickly
+    private static final long MILLIS_PER_TICK = 2L;
+
+    private final ExecutorService[] regions = new ExecutorService[4];
+    private final Thread[] regionThreads = new Thread[4];
+    private final ScheduledExecutorService global;
+    private final ExecutorService async = Executors.newFixedThreadPool(2, daemon("Async"));
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicInteger timers = new AtomicInteger();
+    private final List<Throwable> failures = new CopyOnWriteArrayList<>();
+
+    RegionScheduler() throws InterruptedException, ExecutionException {
+        for (int i = 0; i < regions.length; i++) {
+            int index = i;
+            regions[i] = Executors.newSingleThreadExecutor(daemon("Region-" + i));
+            regions[i].submit(() -> regionThreads[index] = Thread.currentThread()).get();
+        }
+        global = Executors.newSingleThreadScheduledExecutor(daemon("Global"));
+    }
+
+    /**
+     * @return The index of the region thread owning the chunk.
+     */
+    static int ownerOf(int chunkX, int chunkZ) {
+        int regionX = Math.floorDiv(chunkX, REGION_CHUNKS);
+        int regionZ = Math.floorDiv(chunkZ, REGION_CHUNKS);
+        return Math.floorMod(regionX, 2) + 2 * Math.floorMod(regionZ, 2);
+    }
+
+    @Override
+    public boolean isRegionThreaded() {
+        return true;
+    }
+
+    @Override
+    public boolean isOwnedByCurrentThread(World world, int chunkX, int chunkZ) {
+        return Thread.currentThread() == regionThreads[ownerOf(chunkX, chunkZ)];
+    }
+
+    @Override
+    public void runAtChunk(World world, int chunkX, int chunkZ, Runnable task) {
+        if (isOwnedByCurrentThread(world, chunkX, chunkZ)) {
+            task.run();
+        } else {
+            submit(regions[ownerOf(chunkX, chunkZ)], task);
+        }
+    }
+
+    @Override
+    public void runAtChunkNextTick(World world, int chunkX, int chunkZ, Runnable task) {
+        submit(regions[ownerOf(chunkX, chunkZ)], task);
+    }
+
+    @Override
+    public void runForEntity(Entity entity, Runnable task) {
+        runForEntity(entity, task, () -> { });
+    }
+
+    @Override
+    public void runForEntity(Entity entity, Runnable task, Runnable retired) {
+        if (!entity.isValid()) {
+            retired.run();
+        } else if (ownsEntity(entity)) {
+            task.run();
+        } else {
+            runForEntityNextTick(entity, task);
+        }
+    }
+
+    @Override
+    public void runForEntityNextTick(Entity entity, Runnable task) {
+        submit(regions[entityOwner(entity)], task);
+    }
+
+    @Override
+    public void runGlobal(Runnable task) {
+        submit(global, task);
+    }
+
+    @Override
+    public Task runGlobalTimer(Runnable task, long delayTicks, long periodTicks) {
+        timers.incrementAndGet();
+        ScheduledFuture<?> future = global.scheduleAtFixedRate(() -> guard(task), Math.max(1L, delayTicks) * MILLIS_PER_TICK,
+                Math.max(1L, periodTicks) * MILLIS_PER_TICK, TimeUnit.MILLISECONDS);
+        return timer(future);
+    }
+
+    @Override
+    public void runAsync(Runnable task) {
+        submit(async, task);
+    }
+
+    @Override
+    public Task runAsyncTimer(Runnable task, long delayTicks, long periodTicks) {
+        timers.incrementAndGet();
+        ScheduledFuture<?> future = global.scheduleAtFixedRate(() -> async.execute(() -> guard(task)),
+                Math.max(1L, delayTicks) * MILLIS_PER_TICK, Math.max(1L, periodTicks) * MILLIS_PER_TICK, TimeUnit.MILLISECONDS);
+        return timer(future);
+    }
+
+    /**
+     * Check whether the current thread owns the entity, which is the thread owning
+     * the chunk it stands in.
+     */
+    boolean ownsEntity(Entity entity) {
+        return Thread.currentThread() == regionThreads[entityOwner(entity)];
+    }
+
+    /**
+     * Wait until no task is queued or running and no timer is left.
+     *
+     * @param timeoutMillis How long to wait at most.
+     * @return False if the scheduler was still busy when the time ran out.
+     */
+    boolean awaitQuiet(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        int quietChecks = 0;
+        while (System.currentTimeMillis() < deadline) {
+            if (pending.get() == 0 && timers.get() == 0) {
+                // Seen quiet twice a few ticks apart, so nothing was between hand-offs
+                if (++quietChecks == 2) {
+                    return true;
+                }
+            } else {
+                quietChecks = 0;
+            }
+            Thread.sleep(MILLIS_PER_TICK * 5);
+        }
+        return false;
+    }
+
+    List<Throwable> getFailures() {
+        return failures;
+    }
+
+    void shutdown() {
+        for (ExecutorService region : regions) {
+            region.shutdownNow();
+        }
+        global.shutdownNow();
+        async.shutdownNow();
+    }
+
+    private int entityOwner(Entity entity) {
+        return ownerOf(entity.getLocation().getBlockX() >> 4, entity.getLocation().getBlockZ() >> 4);
+    }
+
+    private void submit(ExecutorService executor, Runnable task) {
+        pending.incrementAndGet();
+        executor.execute(() -> {
+            try {
+                guard(task);
+            } finally {
+                pending.decrementAndGet();
+            }
+        });
+    }
+
+    private void guard(Runnable task) {
+        try {
+            task.run();
+        } catch (Throwable t) {
+            failures.add(t);
+        }
+    }
+
+    private Task timer(ScheduledFuture<?> future) {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        return () -> {
+            if (cancelled.compareAndSet(false, true)) {
+                future.cancel(false);
+                timers.decrementAndGet();
+            }
+        };
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "SeedBags-" + name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,314 @@
+package me.kermx.seedBags.loadtest;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import be.seeseemelk.mockbukkit.WorldMock;
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import me.kermx.seedBags.PlantingScheduler;
+import me.kermx.seedBags.SeedBagIndex;
+import me.kermx.seedBags.SeedBagStats;
+import me.kermx.seedBags.SeedBagUtil;
+import me.kermx.seedBags.SeedBags;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives planting through {@link RegionScheduler}, so areas are planned, planted and
+ * committed on several owner threads at once, with every area crossing region borders.
+ * After each round the seeds taken from the bags must match the crops in the world.
+ * MockBukkit's world is not thread safe when blocks or chunks are created, so every
+ * block and chunk the plugin can reach is created before the threads start; after
+ * that the region threads only change blocks of the chunks they own.
+ */
+class RegionThreadingTest {
+    private static final int SOIL_Y = 4;
+    private static final int REGION_BLOCKS = RegionScheduler.REGION_CHUNKS * 16;
+    // Chunks -1 to 2 on both axes hold the field and the dirt around it
+    private static final int MIN_CHUNK = -1;
+    private static final int MAX_CHUNK = 2;
+    private static final int FIELD_MIN = MIN_CHUNK * 16 + 2;
+    private static final int FIELD_MAX = (MAX_CHUNK + 1) * 16 - 3;
+    private static final int BAG_SLOT = 0;
+    private static final int ROUNDS = 8;
+    private static final long ROUND_TIMEOUT_MILLIS = 30_000L;
+
+    private ServerMock server;
+    private SeedBags plugin;
+    private WorldMock world;
+    private RegionScheduler scheduler;
+    private final Random random = new Random(7L);
+
+    @BeforeEach
+    void start() throws Exception {
+        server = MockBukkit.mock();
+        plugin = MockBukkit.load(SeedBags.class);
+        world = new WorldMock(Material.AIR, 0, 16, 0);
+        server.addWorld(world);
+        for (int chunkX = MIN_CHUNK; chunkX <= MAX_CHUNK; chunkX++) {
+            for (int chunkZ = MIN_CHUNK; chunkZ <= MAX_CHUNK; chunkZ++) {
+                for (int x = chunkX * 16; x < chunkX * 16 + 16; x++) {
+                    for (int z = chunkZ * 16; z < chunkZ * 16 + 16; z++) {
+                        for (int y = world.getMinHeight(); y < world.getMaxHeight(); y++) {
+                            world.getBlockAt(x, y, z).setType(y == SOIL_Y ? soilAt(x, z) : Material.AIR);
+                        }
+                    }
+                }
+                world.getChunkAt(chunkX, chunkZ).getChunkSnapshot(false, false, false);
+            }
+        }
+        scheduler = new RegionScheduler();
+    }
+
+    @AfterEach
+    void stop() {
+        scheduler.shutdown();
+        MockBukkit.unmock();
+    }
+
+    /**
+     * Large areas around region corners, planted in small slices under a tight time
+     * budget, so batches are requeued and bags committed many times per job. Pairs of
+     * players share a corner, so their areas overlap.
+     */
+    @Test
+    void plantsSquareAreasAcrossRegionCorners() throws Exception {
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("radius", 6);
+        config.set("blocks-per-tick", 24);
+        config.set("max-micros-per-tick", 50);
+        config.set("block-place-events", "never");
+        PlantingScheduler planting = createPlanting(config);
+
+        List<PlayerMock> players = addPlayers(8);
+        for (int round = 0; round < ROUNDS; round++) {
+            boolean ample = round % 2 == 0;
+            List<int[]> clicks = new ArrayList<>();
+            for (int i = 0; i < players.size(); i++) {
+                int[] corner = corner(i / 2);
+                clicks.add(new int[]{corner[0] + jitter(), corner[1] + jitter()});
+            }
+            int[] before = plantRound(planting, players, clicks, ample ? 1000 : 40 + random.nextInt(100));
+            if (ample) {
+                assertEveryCellPlanted(clicks, 6);
+            }
+            assertSeedsMatchCrops(players, clicks, 6, before);
+        }
+    }
+
+    /**
+     * Small areas: those inside the player's own region are planted inline in the
+     * click, those over a region corner go through the planning path, both at once.
+     */
+    @Test
+    void plantsSmallAreasInlineAndAcrossCorners() throws Exception {
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("radius", 2);
+        config.set("inline-cells", 25);
+        config.set("block-place-events", "never");
+        PlantingScheduler planting = createPlanting(config);
+
+        List<PlayerMock> players = addPlayers(8);
+        for (int round = 0; round < ROUNDS; round++) {
+            List<int[]> clicks = new ArrayList<>();
+            for (int i = 0; i < players.size(); i++) {
+                int[] corner = corner(i % 4);
+                // Even players straddle the corner, odd ones stay inside one region
+                int offset = i % 2 == 0 ? 0 : 8;
+                clicks.add(new int[]{corner[0] + offset, corner[1] + offset});
+            }
+            int[] before = plantRound(planting, players, clicks, 10 + random.nextInt(30));
+            assertSeedsMatchCrops(players, clicks, 2, before);
+        }
+    }
+
+    /**
+     * Flood fills over one field spanning four regions, started from different
+     * regions at the same time, so fills and their jobs compete for the same cells.
+     */
+    @Test
+    void floodsFieldAcrossRegionCorners() throws Exception {
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("mode", "flood");
+        config.set("flood.max-cells", 4096);
+        config.set("blocks-per-tick", 64);
+        config.set("max-micros-per-tick", 200);
+        config.set("block-place-events", "never");
+        PlantingScheduler planting = createPlanting(config);
+
+        List<PlayerMock> players = addPlayers(4);
+        for (int round = 0; round < ROUNDS / 2; round++) {
+            List<int[]> clicks = new ArrayList<>();
+            for (int i = 0; i < players.size(); i++) {
+                // One start in each of the four regions around the corner at 0, 0
+                clicks.add(new int[]{i % 2 == 0 ? -8 : 8, i < 2 ? -8 : 8});
+            }
+            int[] before = plantRound(planting, players, clicks, 200 + random.nextInt(400));
+            int crops = countCrops(FIELD_MIN, FIELD_MAX, FIELD_MIN, FIELD_MAX);
+            assertEquals(totalTaken(players, before), crops, "seeds taken from the bags against crops in the field");
+            assertBagsNeverNegative(players);
+        }
+    }
+
+    private PlantingScheduler createPlanting(YamlConfiguration config) {
+        return new PlantingScheduler(plugin, scheduler, new SeedBagIndex(plugin, false), null, new SeedBagStats(false), config);
+    }
+
+    private List<PlayerMock> addPlayers(int count) {
+        List<PlayerMock> players = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            players.add(server.addPlayer());
+        }
+        return players;
+    }
+
+    /**
+     * Clear the crops, give every player a fresh bag and a place to stand, let them all
+     * click at once from their own threads and wait until every job is done.
+     *
+     * @return The seed count of each player's bag before the round.
+     */
+    private int[] plantRound(PlantingScheduler planting, List<PlayerMock> players, List<int[]> clicks, int seeds)
+            throws InterruptedException {
+        for (int x = FIELD_MIN; x <= FIELD_MAX; x++) {
+            for (int z = FIELD_MIN; z <= FIELD_MAX; z++) {
+                world.getBlockAt(x, SOIL_Y + 1, z).setType(Material.AIR);
+            }
+        }
+        int[] before = new int[players.size()];
+        for (int i = 0; i < players.size(); i++) {
+            PlayerMock player = players.get(i);
+            int[] click = clicks.get(i);
+            before[i] = seeds + i;
+            player.getInventory().setItem(BAG_SLOT, createSeedBag(Material.WHEAT_SEEDS, before[i]));
+            player.teleport(new Location(world, click[0] + 0.5, SOIL_Y + 1, click[1] + 0.5));
+        }
+
+        for (int i = 0; i < players.size(); i++) {
+            PlayerMock player = players.get(i);
+            int[] click = clicks.get(i);
+            scheduler.runForEntity(player, () -> planting.plant(player, world.getBlockAt(click[0], SOIL_Y, click[1]),
+                    player.getInventory().getItem(BAG_SLOT), BAG_SLOT));
+        }
+        assertTrue(scheduler.awaitQuiet(ROUND_TIMEOUT_MILLIS), "planting did not finish");
+        assertEquals(List.of(), scheduler.getFailures(), "tasks failed on the scheduler threads");
+        return before;
+    }
+
+    private void assertSeedsMatchCrops(List<PlayerMock> players, List<int[]> clicks, int radius, int[] before) {
+        int minX = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int minZ = Integer.MAX_VALUE;
+        int maxZ = Integer.MIN_VALUE;
+        for (int[] click : clicks) {
+            minX = Math.min(minX, click[0] - radius);
+            maxX = Math.max(maxX, click[0] + radius);
+            minZ = Math.min(minZ, click[1] - radius);
+            maxZ = Math.max(maxZ, click[1] + radius);
+        }
+        assertEquals(totalTaken(players, before), countCrops(minX, maxX, minZ, maxZ),
+                "seeds taken from the bags against crops in the areas");
+        assertBagsNeverNegative(players);
+        int area = (radius * 2 + 1) * (radius * 2 + 1);
+        for (int i = 0; i < players.size(); i++) {
+            int taken = before[i] - seedCount(players.get(i));
+            assertTrue(taken <= area, "player " + i + " was charged " + taken + " seeds for an area of " + area);
+        }
+    }
+
+    /**
+     * With enough seeds in every bag, no soil cell of any area may be left bare.
+     */
+    private void assertEveryCellPlanted(List<int[]> clicks, int radius) {
+        for (int[] click : clicks) {
+            for (int x = click[0] - radius; x <= click[0] + radius; x++) {
+                for (int z = click[1] - radius; z <= click[1] + radius; z++) {
+                    if (world.getBlockAt(x, SOIL_Y, z).getType() == Material.FARMLAND) {
+                        assertEquals(Material.WHEAT, world.getBlockAt(x, SOIL_Y + 1, z).getType(),
+                                "crop at " + x + ", " + z);
+                    }
+                }
+            }
+        }
+    }
+
+    private void assertBagsNeverNegative(List<PlayerMock> players) {
+        for (PlayerMock player : players) {
+            assertTrue(seedCount(player) >= 0, "negative seed count for " + player.getName());
+        }
+    }
+
+    private int totalTaken(List<PlayerMock> players, int[] before) {
+        int taken = 0;
+        for (int i = 0; i < players.size(); i++) {
+            taken += before[i] - seedCount(players.get(i));
+        }
+        return taken;
+    }
+
+    private int countCrops(int minX, int maxX, int minZ, int maxZ) {
+        int crops = 0;
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                if (world.getBlockAt(x, SOIL_Y + 1, z).getType() == Material.WHEAT) {
+                    crops++;
+                }
+            }
+        }
+        return crops;
+    }
+
+    private static int seedCount(PlayerMock player) {
+        ItemStack seedBag = player.getInventory().getItem(BAG_SLOT);
+        return SeedBagUtil.getSeedCount(player, seedBag, Material.WHEAT_SEEDS);
+    }
+
+    /**
+     * @return One of the four region corners inside the field.
+     */
+    private static int[] corner(int index) {
+        return new int[]{(index % 2) * REGION_BLOCKS, (index / 2 % 2) * REGION_BLOCKS};
+    }
+
+    private int jitter() {
+        return random.nextInt(7) - 3;
+    }
+
+    /**
+     * Build a seed bag the same way /getseedbag does. Kept here rather than shared
+     * with the load test, as the root build compiles these tests on their own.
+     */
+    private static ItemStack createSeedBag(Material seedType, int seedCount) {
+        ItemStack seedBag = new ItemStack(Material.PAPER);
+        ItemMeta meta = seedBag.getItemMeta();
+        meta.getPersistentDataContainer().set(SeedBags.SEED_TYPE_KEY, PersistentDataType.STRING, seedType.toString());
+        meta.getPersistentDataContainer().set(SeedBags.SEED_COUNT_KEY, PersistentDataType.INTEGER, seedCount);
+        seedBag.setItemMeta(meta);
+        SeedBagUtil.updateSeedBagMeta(seedBag);
+        return seedBag;
+    }
+
+    /**
+     * Farmland over the field with a few scattered dirt holes; dirt around it, so a
+     * flood fill never leaves the prepared chunks.
+     */
+    private static Material soilAt(int x, int z) {
+        if (x < FIELD_MIN || x > FIELD_MAX || z < FIELD_MIN || z > FIELD_MAX) {
+            return Material.DIRT;
+        }
+        return Math.floorMod(x * 7 + z * 13, 23) == 0 ? Material.DIRT : Material.FARMLAND;
+    }
+}
@@ -0,0 +1,339 @@
+package me.kermx.seedBags;
+
+import me.kermx.seedBags.SeedRegistry.SeedDefinition;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.Ageable;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Harvests the fully grown crops around a crop clicked with a seed bag, in the same
+ * area as planting: the square of the planting radius, or in flood mode the connected
+ * field. Drops are computed from the crop's loot instead of breaking the block, so no
+ * item entity is ever spawned: seeds go straight into the matching bags, each touched
+ * bag written once for the whole harvest, and everything else goes into the inventory.
+ * With replanting on, one seed of each crop's own drops is kept back and the crop is
+ * reset to age 0 in a single block change; a crop that dropped no seed is replanted
+ * from the seeds of the rest of the harvest, or left standing if there are none.
+ * Melon and pumpkin stems are not harvested, as their produce grows as a separate block.
+ * The harvest runs inside the click and only covers chunks the clicking thread owns;
+ * the area is bounded by the planting radius or flood size and by a crop cap.
+ */
+public class AreaHarvester {
+    // Same level first, then a step up, then a step down
+    private static final int[] FLOOD_STEPS = {0, 1, -1};
+    // The X and Z offsets of the four horizontal neighbours of a crop
+    private static final int[][] SIDES = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    // Crops whose produce grows next to them; breaking or resetting them harvests nothing
+    private static final Set<Material> STEMS = EnumSet.of(Material.MELON_STEM, Material.PUMPKIN_STEM,
+            Material.ATTACHED_MELON_STEM, Material.ATTACHED_PUMPKIN_STEM);
+
+    private final Plugin plugin;
+    private final SeedBagScheduler scheduler;
+    private final PlantingScheduler plantingScheduler;
+    private final SeedBagTransfer transfer;
+    private final SeedBagStats stats;
+    private final boolean replant;
+    private final int maxCrops;
+    private final ProtectionEvents breakEvents;
+
+    /**
+     * Constructor for AreaHarvester.
+     *
+     * @param plugin            The main plugin instance.
+     * @param scheduler         The scheduler that tells which chunks the current thread owns.
+     * @param plantingScheduler The planting scheduler, whose area settings the harvest follows.
+     * @param transfer          The bulk transfer that stores harvested seeds in the bags.
+     * @param stats             The hot path statistics.
+     * @param config            The "harvest" configuration section, may be null.
+     */
+    public AreaHarvester(Plugin plugin, SeedBagScheduler scheduler, PlantingScheduler plantingScheduler,
+                         SeedBagTransfer transfer, SeedBagStats stats, ConfigurationSection config) {
+        this.plugin = plugin;
+        this.scheduler = scheduler;
+        this.plantingScheduler = plantingScheduler;
+        this.transfer = transfer;
+        this.stats = stats;
+        this.replant = config == null || config.getBoolean("replant", true);
+        this.maxCrops = Math.max(1, config == null ? 1024 : config.getInt("max-crops", 1024));
+        this.breakEvents = ProtectionEvents.fromConfig(config == null ? null : config.getString("block-break-events"));
+    }
+
+    /**
+     * Check whether a block is a registered crop that can be harvested.
+     *
+     * @param block The clicked block.
+     * @return True if the block is the crop of a registered seed type and not a stem.
+     */
+    public boolean isCrop(Block block) {
+        Material type = block.getType();
+        return !STEMS.contains(type) && SeedRegistry.get().getByCrop(type) != null;
+    }
+
+    /**
+     * Harvest the fully grown crops of the area around the clicked crop.
+     *
+     * @param player      The player harvesting.
+     * @param clickedCrop The crop block that was clicked.
+     */
+    public void harvest(Player player, Block clickedCrop) {
+        List<Block> crops = plantingScheduler.isFloodFill() ? findField(clickedCrop) : findSquare(clickedCrop);
+        if (crops.isEmpty()) {
+            player.sendMessage("No fully grown crops to harvest!");
+            return;
+        }
+
+        SeedRegistry registry = SeedRegistry.get();
+        boolean fireBreakEvents = breakEvents.shouldFire(BlockBreakEvent.getHandlerList(), plugin);
+        ItemStack tool = player.getInventory().getItemInMainHand();
+        Map<Material, Integer> seeds = new EnumMap<>(Material.class);
+        Map<Material, Integer> produce = new EnumMap<>(Material.class);
+        List<ItemStack> specialDrops = new ArrayList<>();
+        List<Block> seedless = new ArrayList<>();
+        List<Collection<ItemStack>> seedlessDrops = new ArrayList<>();
+        int harvested = 0;
+        int replanted = 0;
+        for (Block crop : crops) {
+            SeedDefinition seed = registry.getByCrop(crop.getType());
+            if (seed == null || (fireBreakEvents && !mayBreak(player, crop))) {
+                continue;
+            }
+            Collection<ItemStack> drops = crop.getDrops(tool, player);
+            if (!replant) {
+                collect(drops, seeds, produce, specialDrops);
+                crop.setType(Material.AIR);
+                harvested++;
+            } else if (keepSeed(drops, seed.seedType())) {
+                collect(drops, seeds, produce, specialDrops);
+                resetAge(crop);
+                replanted++;
+                harvested++;
+            } else {
+                // Replanted from the other crops' seeds once they are all in
+                seedless.add(crop);
+                seedlessDrops.add(drops);
+            }
+        }
+        for (int i = 0; i < seedless.size(); i++) {
+            Block crop = seedless.get(i);
+            if (!takeSeed(seeds, registry.getByCrop(crop.getType()).seedType())) {
+                // Nothing to replant it with, so it stays as it is
+                continue;
+            }
+            collect(seedlessDrops.get(i), seeds, produce, specialDrops);
+            resetAge(crop);
+            replanted++;
+            harvested++;
+        }
+        if (harvested == 0) {
+            player.sendMessage("You cannot harvest here!");
+            return;
+        }
+
+        int seedsDropped = 0;
+        for (int amount : seeds.values()) {
+            seedsDropped += amount;
+        }
+        Map<Material, Integer> leftovers = seeds.isEmpty() ? seeds : transfer.store(player, seeds);
+        int seedsStored = seedsDropped;
+        for (Map.Entry<Material, Integer> entry : leftovers.entrySet()) {
+            seedsStored -= entry.getValue();
+            produce.merge(entry.getKey(), entry.getValue(), Integer::sum);
+        }
+        giveItems(player, produce, specialDrops);
+        stats.recordHarvest(harvested, seedsStored);
+        stats.recordSeedsPlanted(replanted);
+    }
+
+    /**
+     * Find the fully grown crops in the square of the planting radius, at the level of the clicked crop.
+     */
+    private List<Block> findSquare(Block clickedCrop) {
+        World world = clickedCrop.getWorld();
+        int radius = plantingScheduler.getRadius();
+        List<Block> crops = new ArrayList<>();
+        for (int dx = -radius; dx <= radius && crops.size() < maxCrops; dx++) {
+            for (int dz = -radius; dz <= radius && crops.size() < maxCrops; dz++) {
+                int x = clickedCrop.getX() + dx;
+                int z = clickedCrop.getZ() + dz;
+                if (!isAccessible(world, x >> 4, z >> 4)) {
+                    continue;
+                }
+                Block block = world.getBlockAt(x, clickedCrop.getY(), z);
+                if (isCrop(block) && isFullyGrown(block)) {
+                    crops.add(block);
+                }
+            }
+        }
+        return crops;
+    }
+
+    /**
+     * Find the fully grown crops of the field connected to the clicked crop, walking
+     * over crops of any age and following the planting flood's Y tolerance. Stops at
+     * the flood's cell limit or the crop cap.
+     */
+    private List<Block> findField(Block clickedCrop) {
+        World world = clickedCrop.getWorld();
+        int yTolerance = plantingScheduler.getFloodYTolerance();
+        int maxCells = plantingScheduler.getFloodMaxCells();
+        List<Block> crops = new ArrayList<>();
+        BlockPositionSet visited = new BlockPositionSet();
+        ArrayDeque<Block> queue = new ArrayDeque<>();
+        visited.add(BlockPositionSet.pack(clickedCrop.getX(), clickedCrop.getY(), clickedCrop.getZ()));
+        queue.add(clickedCrop);
+        while (!queue.isEmpty() && crops.size() < maxCrops) {
+            Block crop = queue.poll();
+            if (isFullyGrown(crop)) {
+                crops.add(crop);
+            }
+            for (int[] side : SIDES) {
+                int x = crop.getX() + side[0];
+                int z = crop.getZ() + side[1];
+                if (visited.size() >= maxCells || !isAccessible(world, x >> 4, z >> 4)) {
+                    continue;
+                }
+                for (int dy : FLOOD_STEPS) {
+                    int y = crop.getY() + dy;
+                    if (Math.abs(dy) > yTolerance || y < world.getMinHeight() || y >= world.getMaxHeight()) {
+                        continue;
+                    }
+                    Block neighbour = world.getBlockAt(x, y, z);
+                    if (isCrop(neighbour)) {
+                        if (visited.add(BlockPositionSet.pack(x, y, z))) {
+                            queue.add(neighbour);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+        return crops;
+    }
+
+    private boolean isAccessible(World world, int chunkX, int chunkZ) {
+        return world.isChunkLoaded(chunkX, chunkZ) && scheduler.isOwnedByCurrentThread(world, chunkX, chunkZ);
+    }
+
+    /**
+     * Sort a crop's drops into seeds, plain produce and items with meta.
+     */
+    private static void collect(Collection<ItemStack> drops, Map<Material, Integer> seeds, Map<Material, Integer> produce,
+                                List<ItemStack> specialDrops) {
+        SeedRegistry registry = SeedRegistry.get();
+        for (ItemStack drop : drops) {
+            int amount = drop.getAmount();
+            if (amount <= 0 || drop.getType().isAir()) {
+                continue;
+            }
+            if (drop.hasItemMeta()) {
+                specialDrops.add(drop.clone());
+            } else if (registry.isSeed(drop.getType())) {
+                seeds.merge(drop.getType(), amount, Integer::sum);
+            } else {
+                produce.merge(drop.getType(), amount, Integer::sum);
+            }
+        }
+    }
+
+    /**
+     * Take one plain seed out of a crop's drops to replant it with.
+     *
+     * @return True if the drops held a seed.
+     */
+    private static boolean keepSeed(Collection<ItemStack> drops, Material seedType) {
+        for (ItemStack drop : drops) {
+            if (drop.getType() == seedType && drop.getAmount() > 0 && !drop.hasItemMeta()) {
+                drop.setAmount(drop.getAmount() - 1);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Take one seed out of the seeds harvested so far.
+     *
+     * @return True if there was a seed of the type.
+     */
+    private static boolean takeSeed(Map<Material, Integer> seeds, Material seedType) {
+        Integer amount = seeds.get(seedType);
+        if (amount == null) {
+            return false;
+        }
+        if (amount == 1) {
+            seeds.remove(seedType);
+        } else {
+            seeds.put(seedType, amount - 1);
+        }
+        return true;
+    }
+
+    /**
+     * Reset a grown crop straight back to age 0, without going through air.
+     */
+    private static void resetAge(Block crop) {
+        Ageable ageable = (Ageable) crop.getBlockData();
+        ageable.setAge(0);
+        crop.setBlockData(ageable);
+    }
+
+    private static boolean isFullyGrown(Block block) {
+        return block.getBlockData() instanceof Ageable ageable && ageable.getAge() >= ageable.getMaximumAge();
+    }
+
+    /**
+     * Ask protection plugins whether the player may break the crop.
+     */
+    private static boolean mayBreak(Player player, Block crop) {
+        HarvestBreakEvent event = new HarvestBreakEvent(crop, player);
+        Bukkit.getPluginManager().callEvent(event);
+        return !event.isCancelled();
+    }
+
+    /**
+     * Put the harvested items into the inventory in one go and drop what does not fit at the player's feet.
+     */
+    private static void giveItems(Player player, Map<Material, Integer> items, List<ItemStack> specialDrops) {
+        List<ItemStack> stacks = new ArrayList<>(specialDrops);
+        for (Map.Entry<Material, Integer> entry : items.entrySet()) {
+            stacks.add(new ItemStack(entry.getKey(), entry.getValue()));
+        }
+        if (stacks.isEmpty()) {
+            return;
+        }
+        PlayerInventory inventory = player.getInventory();
+        Map<Integer, ItemStack> remaining = inventory.addItem(stacks.toArray(new ItemStack[0]));
+        for (ItemStack rem : remaining.values()) {
+            player.getWorld().dropItemNaturally(player.getLocation(), rem);
+        }
+    }
+
+    /**
+     * The BlockBreakEvent fired for each crop of an area harvest, so protection plugins
+     * can deny it. Nothing is dropped and the plugin's own break handling ignores it.
+     */
+    static final class HarvestBreakEvent extends BlockBreakEvent {
+        private HarvestBreakEvent(Block block, Player player) {
+            super(block, player);
+            setDropItems(false);
+            setExpToDrop(0);
+        }
+    }
+}
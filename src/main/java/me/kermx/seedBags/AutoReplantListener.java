@@ -0,0 +1,189 @@
+package me.kermx.seedBags;
+
+import me.kermx.seedBags.SeedRegistry.SeedDefinition;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.Ageable;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Replants fully grown crops from the harvesting player's seed bags.
+ * The seed of a crop is found through the {@link SeedRegistry}'s crop lookup.
+ * In same-update mode the harvest is done by the plugin: the drops are spawned and
+ * the crop is reset to age 0 in a single block change, so the block never turns to
+ * air. Otherwise the broken crops are collected and replanted at the start of the
+ * player's next tick. Seeds are taken through the pickup accumulator when it is
+ * enabled, so every bag is written at most once per tick however many crops are
+ * replanted.
+ */
+public class AutoReplantListener implements Listener {
+    private final SeedBagScheduler scheduler;
+    private final PlantingScheduler plantingScheduler;
+    private final SeedBagIndex bagIndex;
+    private final SeedBagAccumulator accumulator;
+    private final SeedBagStats stats;
+    private final boolean sameUpdate;
+    private final Map<UUID, List<PendingCrop>> pendingCrops = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for AutoReplantListener.
+     *
+     * @param scheduler         The scheduler used for deferred replanting.
+     * @param plantingScheduler The planting scheduler, which plants deferred crops with the usual events.
+     * @param bagIndex          The per-player seed bag slot index.
+     * @param accumulator       The accumulator batching bag writes, or null to write every replant immediately.
+     * @param stats             The hot path statistics.
+     * @param config            The "replant" configuration section, may be null.
+     */
+    public AutoReplantListener(SeedBagScheduler scheduler, PlantingScheduler plantingScheduler, SeedBagIndex bagIndex,
+                               SeedBagAccumulator accumulator, SeedBagStats stats, ConfigurationSection config) {
+        this.scheduler = scheduler;
+        this.plantingScheduler = plantingScheduler;
+        this.bagIndex = bagIndex;
+        this.accumulator = accumulator;
+        this.stats = stats;
+        this.sameUpdate = config == null || config.getBoolean("same-update", true);
+    }
+
+    /**
+     * Replant a fully grown crop broken by a player carrying a matching seed bag.
+     *
+     * @param event The BlockBreakEvent.
+     */
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        if (event instanceof AreaHarvester.HarvestBreakEvent) {
+            // An area harvest replants by itself
+            return;
+        }
+        Block block = event.getBlock();
+        SeedDefinition seed = SeedRegistry.get().getByCrop(block.getType());
+        if (seed == null || !(block.getBlockData() instanceof Ageable ageable)
+                || ageable.getAge() < ageable.getMaximumAge()) {
+            return;
+        }
+        Player player = event.getPlayer();
+        Material seedType = seed.seedType();
+        if (!bagIndex.hasAnyBag(player) || bagIndex.getBagSlots(player, seedType).length == 0) {
+            return;
+        }
+
+        if (!sameUpdate) {
+            List<PendingCrop> crops = pendingCrops.get(player.getUniqueId());
+            if (crops == null) {
+                crops = new ArrayList<>();
+                pendingCrops.put(player.getUniqueId(), crops);
+                scheduler.runForEntityNextTick(player, () -> replantPending(player));
+            }
+            crops.add(new PendingCrop(block, seed));
+            return;
+        }
+
+        if (takeSeed(player, seedType) < 0) {
+            return;
+        }
+        // Harvest by hand so the crop goes straight back to age 0 instead of through air
+        event.setCancelled(true);
+        ItemStack tool = player.getInventory().getItemInMainHand();
+        for (ItemStack drop : block.getDrops(tool, player)) {
+            block.getWorld().dropItemNaturally(block.getLocation(), drop);
+        }
+        ageable.setAge(0);
+        block.setBlockData(ageable);
+        stats.recordSeedsPlanted(1);
+    }
+
+    /**
+     * Replant the crops the player broke during the previous tick.
+     */
+    private void replantPending(Player player) {
+        List<PendingCrop> crops = pendingCrops.remove(player.getUniqueId());
+        if (crops == null) {
+            return;
+        }
+        PlayerInventory inventory = player.getInventory();
+        int replanted = 0;
+        for (PendingCrop crop : crops) {
+            Block soil = crop.block().getRelative(0, -1, 0);
+            if (soil.getWorld() != player.getWorld()
+                    || !scheduler.isOwnedByCurrentThread(soil.getWorld(), soil.getX() >> 4, soil.getZ() >> 4)) {
+                continue;
+            }
+            Material seedType = crop.seed().seedType();
+            int slot = takeSeed(player, seedType);
+            if (slot < 0) {
+                continue;
+            }
+            if (plantingScheduler.plantCell(player, soil, crop.seed(), inventory.getItem(slot))) {
+                replanted++;
+            } else {
+                returnSeed(player, slot, seedType);
+            }
+        }
+        stats.recordSeedsPlanted(replanted);
+    }
+
+    /**
+     * Take one seed of the given type from the first of the player's bags that has one.
+     *
+     * @return The slot of the bag the seed was taken from, or -1 if every bag is empty.
+     */
+    private int takeSeed(Player player, Material seedType) {
+        PlayerInventory inventory = player.getInventory();
+        for (int slot : bagIndex.getBagSlots(player, seedType)) {
+            ItemStack bag = inventory.getItem(slot);
+            if (bag == null) {
+                continue;
+            }
+            if (accumulator != null) {
+                if (accumulator.withdraw(player, slot, bag, seedType, 1) > 0) {
+                    return slot;
+                }
+            } else {
+                int seedCount = SeedBagUtil.getSeedCount(player, bag, seedType);
+                if (seedCount > 0) {
+                    SeedBagUtil.setSeedCount(player, slot, bag, seedType, seedCount - 1);
+                    return slot;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Put back a seed taken for a crop that could not be replanted.
+     */
+    private void returnSeed(Player player, int slot, Material seedType) {
+        ItemStack bag = player.getInventory().getItem(slot);
+        if (accumulator != null) {
+            accumulator.deposit(player, slot, bag, seedType, 1);
+        } else {
+            SeedBagUtil.addSeedCount(player, slot, bag, seedType, 1);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        pendingCrops.remove(event.getPlayer().getUniqueId());
+    }
+
+    /**
+     * A crop broken this tick, waiting to be replanted.
+     */
+    private record PendingCrop(Block block, SeedDefinition seed) {
+    }
+}
@@ -0,0 +1,76 @@
+package me.kermx.seedBags;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing hash set of block positions packed into longs, so a flood fill
+ * or field walk over thousands of blocks does not box a Long per visited block.
+ * The packing keeps 26 bits each for X and Z and 12 bits for Y, which covers every
+ * position inside the world border and the world's height.
+ */
+final class BlockPositionSet {
+    // No packed position in the world border maps to this value
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] table = newTable(256);
+    private int size;
+
+    /**
+     * @return True if the position was not in the set yet.
+     */
+    boolean add(long position) {
+        if (size * 2 >= table.length) {
+            long[] old = table;
+            table = newTable(old.length * 2);
+            for (long entry : old) {
+                if (entry != EMPTY) {
+                    insert(entry);
+                }
+            }
+        }
+        if (insert(position)) {
+            size++;
+            return true;
+        }
+        return false;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private boolean insert(long position) {
+        int mask = table.length - 1;
+        int index = Long.hashCode(position * 0x9E3779B97F4A7C15L) & mask;
+        while (table[index] != EMPTY) {
+            if (table[index] == position) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        table[index] = position;
+        return true;
+    }
+
+    private static long[] newTable(int capacity) {
+        long[] table = new long[capacity];
+        Arrays.fill(table, EMPTY);
+        return table;
+    }
+
+    static long pack(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    static int unpackX(long position) {
+        return (int) (position >> 38);
+    }
+
+    static int unpackY(long position) {
+        return (int) (position << 52 >> 52);
+    }
+
+    static int unpackZ(long position) {
+        return (int) (position << 26 >> 38);
+    }
+}
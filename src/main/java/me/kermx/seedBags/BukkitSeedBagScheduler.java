@@ -0,0 +1,93 @@
+package me.kermx.seedBags;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * {@link SeedBagScheduler} for servers with a single main thread.
+ */
+public class BukkitSeedBagScheduler implements SeedBagScheduler {
+    private final Plugin plugin;
+
+    /**
+     * Constructor for BukkitSeedBagScheduler.
+     *
+     * @param plugin The main plugin instance.
+     */
+    public BukkitSeedBagScheduler(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean isRegionThreaded() {
+        return false;
+    }
+
+    @Override
+    public boolean isOwnedByCurrentThread(World world, int chunkX, int chunkZ) {
+        return Bukkit.isPrimaryThread();
+    }
+
+    @Override
+    public void runAtChunk(World world, int chunkX, int chunkZ, Runnable task) {
+        runOnMainThread(task);
+    }
+
+    @Override
+    public void runAtChunkNextTick(World world, int chunkX, int chunkZ, Runnable task) {
+        Bukkit.getScheduler().runTask(plugin, task);
+    }
+
+    @Override
+    public void runForEntity(Entity entity, Runnable task) {
+        runOnMainThread(task);
+    }
+
+    @Override
+    public void runForEntity(Entity entity, Runnable task, Runnable retired) {
+        // Tasks on the main thread are never dropped
+        runOnMainThread(task);
+    }
+
+    @Override
+    public void runForEntityNextTick(Entity entity, Runnable task) {
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            if (entity.isValid()) {
+                task.run();
+            }
+        });
+    }
+
+    @Override
+    public void runGlobal(Runnable task) {
+        Bukkit.getScheduler().runTask(plugin, task);
+    }
+
+    @Override
+    public Task runGlobalTimer(Runnable task, long delayTicks, long periodTicks) {
+        BukkitTask bukkitTask = Bukkit.getScheduler().runTaskTimer(plugin, task, delayTicks, periodTicks);
+        return bukkitTask::cancel;
+    }
+
+    @Override
+    public void runAsync(Runnable task) {
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, task);
+    }
+
+    @Override
+    public Task runAsyncTimer(Runnable task, long delayTicks, long periodTicks) {
+        BukkitTask bukkitTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, task, delayTicks, periodTicks);
+        return bukkitTask::cancel;
+    }
+
+    private void runOnMainThread(Runnable task) {
+        if (Bukkit.isPrimaryThread()) {
+            task.run();
+        } else {
+            Bukkit.getScheduler().runTask(plugin, task);
+        }
+    }
+}
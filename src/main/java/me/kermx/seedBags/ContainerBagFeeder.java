@@ -0,0 +1,337 @@
+package me.kermx.seedBags;
+
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.inventory.InventoryMoveItemEvent;
+import org.bukkit.event.inventory.InventoryPickupItemEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lets seed bags stored in containers take in the seeds that hoppers and other
+ * automation move into the container. Seed arrivals only mark the container; at the
+ * start of the next tick its contents are read once, loose seeds are moved into
+ * matching bags and each touched bag is written once, however many items arrived.
+ * Containers without a bag are remembered, so their arrivals are rejected without a
+ * scan until a player or hopper moves a bag into them. A server-wide cap on container
+ * scans per tick keeps hopper-heavy chunks cheap; containers over the cap wait for
+ * the next tick.
+ * A container's state is only touched by the thread that owns its chunk.
+ */
+public class ContainerBagFeeder implements Listener {
+    private static final int[] NO_BAGS = new int[0];
+
+    private final SeedBagScheduler scheduler;
+    private final SeedBagStats stats;
+    private final int scansPerTick;
+    private final AtomicInteger scansLeft = new AtomicInteger();
+    private final Map<ChunkKey, Map<BlockPos, FeedState>> containers = new ConcurrentHashMap<>();
+    private SeedBagScheduler.Task task;
+
+    /**
+     * Constructor for ContainerBagFeeder.
+     *
+     * @param scheduler The scheduler used for container flushes.
+     * @param stats     The hot path statistics.
+     * @param config    The "containers" configuration section, may be null.
+     */
+    public ContainerBagFeeder(SeedBagScheduler scheduler, SeedBagStats stats, ConfigurationSection config) {
+        this.scheduler = scheduler;
+        this.stats = stats;
+        this.scansPerTick = config == null ? 64 : Math.max(1, config.getInt("scans-per-tick", 64));
+    }
+
+    public void start() {
+        if (task == null) {
+            scansLeft.set(scansPerTick);
+            task = scheduler.runGlobalTimer(() -> scansLeft.set(scansPerTick), 1L, 1L);
+        }
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        containers.clear();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryMoveItem(InventoryMoveItemEvent event) {
+        Material material = event.getItem().getType();
+        if (material == Material.PAPER) {
+            // Possibly a seed bag moving between containers
+            invalidate(event.getSource());
+            invalidate(event.getDestination());
+        } else if (SeedRegistry.get().isSeed(material)) {
+            onSeedsArrived(event.getDestination());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryPickupItem(InventoryPickupItemEvent event) {
+        Material material = event.getItem().getItemStack().getType();
+        if (material == Material.PAPER) {
+            invalidate(event.getInventory());
+        } else if (SeedRegistry.get().isSeed(material)) {
+            onSeedsArrived(event.getInventory());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onInventoryClick(InventoryClickEvent event) {
+        invalidate(event.getView().getTopInventory());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onInventoryDrag(InventoryDragEvent event) {
+        invalidate(event.getView().getTopInventory());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        containers.remove(new ChunkKey(event.getWorld().getUID(), event.getChunk().getX(), event.getChunk().getZ()));
+    }
+
+    /**
+     * Schedule a flush of a container that seeds were just moved into, unless it is
+     * known to hold no seed bag or a flush is already pending.
+     */
+    private void onSeedsArrived(Inventory inventory) {
+        Location location = inventory.getLocation();
+        if (location == null || location.getWorld() == null) {
+            return;
+        }
+        World world = location.getWorld();
+        ChunkKey chunkKey = new ChunkKey(world.getUID(), location.getBlockX() >> 4, location.getBlockZ() >> 4);
+        FeedState state = containers.computeIfAbsent(chunkKey, key -> new HashMap<>())
+                .computeIfAbsent(new BlockPos(location.getBlockX(), location.getBlockY(), location.getBlockZ()),
+                        pos -> new FeedState());
+        if (state.bagSlots == NO_BAGS) {
+            return;
+        }
+        state.inventory = inventory;
+        if (!state.flushScheduled) {
+            state.flushScheduled = true;
+            scheduler.runAtChunkNextTick(world, chunkKey.chunkX(), chunkKey.chunkZ(), () -> flush(world, chunkKey, state));
+        }
+    }
+
+    private void invalidate(Inventory inventory) {
+        Location location = inventory.getLocation();
+        if (location == null || location.getWorld() == null) {
+            return;
+        }
+        Map<BlockPos, FeedState> states = containers.get(
+                new ChunkKey(location.getWorld().getUID(), location.getBlockX() >> 4, location.getBlockZ() >> 4));
+        if (states != null) {
+            FeedState state = states.get(new BlockPos(location.getBlockX(), location.getBlockY(), location.getBlockZ()));
+            if (state != null) {
+                state.bagSlots = null;
+            }
+        }
+    }
+
+    /**
+     * Move the loose seeds of a container into its bags, once the scan budget allows.
+     */
+    private void flush(World world, ChunkKey chunkKey, FeedState state) {
+        if (scansLeft.getAndDecrement() <= 0) {
+            scheduler.runAtChunkNextTick(world, chunkKey.chunkX(), chunkKey.chunkZ(), () -> flush(world, chunkKey, state));
+            return;
+        }
+        state.flushScheduled = false;
+        Inventory inventory = state.inventory;
+        state.inventory = null;
+        if (inventory == null || !world.isChunkLoaded(chunkKey.chunkX(), chunkKey.chunkZ())) {
+            return;
+        }
+
+        ItemStack[] contents = inventory.getContents();
+        if (state.bagSlots == null || !holdBags(contents, state.bagSlots)) {
+            state.bagSlots = findBags(contents);
+        }
+        if (state.bagSlots.length == 0) {
+            return;
+        }
+
+        SeedRegistry registry = SeedRegistry.get();
+        Map<Material, List<Integer>> looseSlots = new EnumMap<>(Material.class);
+        for (int slot = 0; slot < contents.length; slot++) {
+            ItemStack item = contents[slot];
+            if (item != null && registry.isSeed(item.getType()) && !item.hasItemMeta()) {
+                looseSlots.computeIfAbsent(item.getType(), type -> new ArrayList<>()).add(slot);
+            }
+        }
+        if (looseSlots.isEmpty()) {
+            return;
+        }
+
+        // Read every bag once; universal bags come after single bags for every seed type.
+        // In bank mode bags of one owner and seed type show the same balance, so only the
+        // first of them is fed.
+        BagCounts[] bags = new BagCounts[state.bagSlots.length];
+        Set<String> balances = new HashSet<>();
+        for (int i = 0; i < bags.length; i++) {
+            ItemStack seedBag = contents[state.bagSlots[i]];
+            UUID owner = SeedBagUtil.getBankOwner(seedBag);
+            if (owner == null || balances.add(owner + ":" + SeedBagUtil.getSeedType(seedBag))) {
+                bags[i] = BagCounts.read(seedBag);
+            }
+        }
+        int fed = 0;
+        for (Map.Entry<Material, List<Integer>> entry : looseSlots.entrySet()) {
+            Material seedType = entry.getKey();
+            int capacity = registry.getCapacity(seedType);
+            int loose = 0;
+            for (int slot : entry.getValue()) {
+                loose += contents[slot].getAmount();
+            }
+            int remaining = loose;
+            for (int pass = 0; pass < 2 && remaining > 0; pass++) {
+                for (BagCounts bag : bags) {
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    if (bag == null) {
+                        continue;
+                    }
+                    boolean matches = pass == 0 ? bag.seedType == seedType : bag.seedType == null;
+                    if (matches) {
+                        remaining -= bag.add(seedType, remaining, capacity);
+                    }
+                }
+            }
+            int deposited = loose - remaining;
+            List<Integer> slots = entry.getValue();
+            for (int i = slots.size() - 1; i >= 0 && deposited > 0; i--) {
+                int slot = slots.get(i);
+                ItemStack item = contents[slot];
+                int taken = Math.min(deposited, item.getAmount());
+                deposited -= taken;
+                fed += taken;
+                if (taken == item.getAmount()) {
+                    inventory.setItem(slot, null);
+                } else {
+                    item.setAmount(item.getAmount() - taken);
+                    inventory.setItem(slot, item);
+                }
+            }
+        }
+
+        for (int i = 0; i < bags.length; i++) {
+            BagCounts bag = bags[i];
+            if (bag == null || bag.updates.size() == 0) {
+                continue;
+            }
+            ItemStack seedBag = contents[state.bagSlots[i]];
+            if (bag.seedType == null) {
+                SeedBagUtil.setSeedCounts(seedBag, bag.updates);
+            } else {
+                SeedBagUtil.setSeedCount(seedBag, bag.updates.getCount(0));
+            }
+            inventory.setItem(state.bagSlots[i], seedBag);
+        }
+        stats.recordContainerFlush(fed);
+    }
+
+    private static int[] findBags(ItemStack[] contents) {
+        int[] slots = NO_BAGS;
+        for (int slot = 0; slot < contents.length; slot++) {
+            if (SeedBagUtil.getSeedType(contents[slot]) != null) {
+                slots = Arrays.copyOf(slots, slots.length + 1);
+                slots[slots.length - 1] = slot;
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * Cheap check that the remembered bag slots still hold paper, against changes
+     * made by other plugins without an event.
+     */
+    private static boolean holdBags(ItemStack[] contents, int[] bagSlots) {
+        for (int slot : bagSlots) {
+            if (slot >= contents.length || contents[slot] == null || contents[slot].getType() != Material.PAPER) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The seed counts of one bag in a container, and the counts to write back.
+     */
+    private static final class BagCounts {
+        // The seed type of a single bag; null for a universal bag
+        private final Material seedType;
+        private final SeedCounts counts;
+        private final SeedCounts updates = new SeedCounts();
+
+        private BagCounts(Material seedType, SeedCounts counts) {
+            this.seedType = seedType;
+            this.counts = counts;
+        }
+
+        private static BagCounts read(ItemStack seedBag) {
+            SeedCounts counts = SeedBagUtil.getSeedCounts(seedBag);
+            if (counts != null) {
+                return new BagCounts(null, counts);
+            }
+            Material seedType = SeedBagUtil.getSeedType(seedBag);
+            counts = new SeedCounts();
+            counts.set(seedType, SeedBagUtil.getSeedCount(seedBag));
+            return new BagCounts(seedType, counts);
+        }
+
+        /**
+         * @return The number of seeds added, up to the capacity of the seed type.
+         */
+        private int add(Material seedType, int amount, int capacity) {
+            int count = counts.get(seedType);
+            int seedsToAdd = Math.min(amount, capacity - count);
+            if (seedsToAdd <= 0) {
+                return 0;
+            }
+            counts.set(seedType, count + seedsToAdd);
+            updates.set(seedType, count + seedsToAdd);
+            return seedsToAdd;
+        }
+    }
+
+    /**
+     * Pending work and cached bag slots of one container.
+     */
+    private static final class FeedState {
+        // Slots holding seed bags; null until scanned or after a bag may have moved
+        private int[] bagSlots;
+        private Inventory inventory;
+        private boolean flushScheduled;
+    }
+
+    private record ChunkKey(UUID worldId, int chunkX, int chunkZ) {
+    }
+
+    private record BlockPos(int x, int y, int z) {
+    }
+}
@@ -0,0 +1,107 @@
+package me.kermx.seedBags;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * {@link SeedBankBackend} keeping one small file per player in a directory, for a
+ * single server or for servers on one machine sharing the directory. Every batch is a
+ * read-modify-write under an exclusive lock on a lock file next to the player's file,
+ * and the new balances are swapped in atomically, so concurrent servers and crashes
+ * never leave a half written balance.
+ */
+public class FileSeedBankBackend implements SeedBankBackend {
+    // Keys starting with this are bookkeeping, not seed types
+    private static final String SEQUENCE_PREFIX = "~seq.";
+
+    private final Path directory;
+
+    /**
+     * Constructor for FileSeedBankBackend.
+     *
+     * @param directory The directory holding the balance files.
+     */
+    public FileSeedBankBackend(Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public String getName() {
+        return "file " + directory;
+    }
+
+    @Override
+    public Map<String, Long> apply(UUID owner, String serverId, long sequence, Map<String, Long> deltas) throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve(owner + ".bank");
+        try (FileChannel lockChannel = FileChannel.open(directory.resolve(owner + ".lock"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock ignored = lockChannel.lock()) {
+            Properties balances = new Properties();
+            if (Files.exists(file)) {
+                balances.load(new StringReader(Files.readString(file, StandardCharsets.ISO_8859_1)));
+            }
+            String sequenceKey = SEQUENCE_PREFIX + serverId;
+            if (!deltas.isEmpty() && sequence > parse(balances.getProperty(sequenceKey))) {
+                for (Map.Entry<String, Long> delta : deltas.entrySet()) {
+                    long balance = parse(balances.getProperty(delta.getKey())) + delta.getValue();
+                    balances.setProperty(delta.getKey(), Long.toString(balance));
+                }
+                balances.setProperty(sequenceKey, Long.toString(sequence));
+                write(file, balances);
+            }
+            Map<String, Long> result = new HashMap<>();
+            for (String key : balances.stringPropertyNames()) {
+                if (!key.startsWith(SEQUENCE_PREFIX)) {
+                    result.put(key, parse(balances.getProperty(key)));
+                }
+            }
+            return result;
+        }
+    }
+
+    private static void write(Path file, Properties balances) throws IOException {
+        StringBuilder out = new StringBuilder();
+        for (String key : balances.stringPropertyNames()) {
+            out.append(key).append('=').append(balances.getProperty(key)).append('\n');
+        }
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(out.toString().getBytes(StandardCharsets.ISO_8859_1));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static long parse(String value) {
+        if (value == null) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    @Override
+    public void close() {
+        // Files are only open during a batch
+    }
+}
@@ -0,0 +1,99 @@
+package me.kermx.seedBags;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SeedBagScheduler} for Folia's region threads.
+ */
+public class FoliaSeedBagScheduler implements SeedBagScheduler {
+    private static final long MILLIS_PER_TICK = 50L;
+
+    private final Plugin plugin;
+
+    /**
+     * Constructor for FoliaSeedBagScheduler.
+     *
+     * @param plugin The main plugin instance.
+     */
+    public FoliaSeedBagScheduler(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean isRegionThreaded() {
+        return true;
+    }
+
+    @Override
+    public boolean isOwnedByCurrentThread(World world, int chunkX, int chunkZ) {
+        return Bukkit.isOwnedByCurrentRegion(world, chunkX, chunkZ);
+    }
+
+    @Override
+    public void runAtChunk(World world, int chunkX, int chunkZ, Runnable task) {
+        if (Bukkit.isOwnedByCurrentRegion(world, chunkX, chunkZ)) {
+            task.run();
+        } else {
+            Bukkit.getRegionScheduler().execute(plugin, world, chunkX, chunkZ, task);
+        }
+    }
+
+    @Override
+    public void runAtChunkNextTick(World world, int chunkX, int chunkZ, Runnable task) {
+        Bukkit.getRegionScheduler().run(plugin, world, chunkX, chunkZ, ignored -> task.run());
+    }
+
+    @Override
+    public void runForEntity(Entity entity, Runnable task) {
+        if (Bukkit.isOwnedByCurrentRegion(entity)) {
+            task.run();
+        } else {
+            entity.getScheduler().run(plugin, scheduledTask -> task.run(), null);
+        }
+    }
+
+    @Override
+    public void runForEntity(Entity entity, Runnable task, Runnable retired) {
+        if (Bukkit.isOwnedByCurrentRegion(entity)) {
+            task.run();
+        } else if (entity.getScheduler().run(plugin, scheduledTask -> task.run(), retired) == null) {
+            // Already removed; the scheduler does not call retired in that case
+            retired.run();
+        }
+    }
+
+    @Override
+    public void runForEntityNextTick(Entity entity, Runnable task) {
+        entity.getScheduler().run(plugin, scheduledTask -> task.run(), null);
+    }
+
+    @Override
+    public void runGlobal(Runnable task) {
+        Bukkit.getGlobalRegionScheduler().execute(plugin, task);
+    }
+
+    @Override
+    public Task runGlobalTimer(Runnable task, long delayTicks, long periodTicks) {
+        ScheduledTask scheduledTask = Bukkit.getGlobalRegionScheduler()
+                .runAtFixedRate(plugin, ignored -> task.run(), Math.max(1L, delayTicks), periodTicks);
+        return scheduledTask::cancel;
+    }
+
+    @Override
+    public void runAsync(Runnable task) {
+        Bukkit.getAsyncScheduler().runNow(plugin, ignored -> task.run());
+    }
+
+    @Override
+    public Task runAsyncTimer(Runnable task, long delayTicks, long periodTicks) {
+        ScheduledTask scheduledTask = Bukkit.getAsyncScheduler().runAtFixedRate(plugin, ignored -> task.run(),
+                Math.max(1L, delayTicks) * MILLIS_PER_TICK, periodTicks * MILLIS_PER_TICK, TimeUnit.MILLISECONDS);
+        return scheduledTask::cancel;
+    }
+}
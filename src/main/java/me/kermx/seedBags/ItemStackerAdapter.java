@@ -0,0 +1,76 @@
+package me.kermx.seedBags;
+
+import org.bukkit.entity.Item;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Locale;
+
+/**
+ * Reads and removes dropped item entities on behalf of whichever item stacker plugin
+ * owns them, so seed pickups absorb a whole stacked drop at once.
+ * One adapter is chosen at startup and never changes. Only the chosen implementation
+ * class is ever loaded, which keeps the pickup call site monomorphic so the JIT can
+ * inline it, and keeps the classes of missing stacker plugins from being resolved.
+ */
+public interface ItemStackerAdapter {
+
+    /**
+     * @return The name of the stacker source, shown in the statistics.
+     */
+    String getName();
+
+    /**
+     * Get the number of items an item entity stands for.
+     *
+     * @param item The item entity.
+     * @return The number of items, or 0 if the entity must be left to normal pickup.
+     */
+    int getAmount(Item item);
+
+    /**
+     * Remove an item entity whose items were all taken, including any stack the
+     * stacker keeps for it.
+     *
+     * @param item The item entity.
+     */
+    void remove(Item item);
+
+    /**
+     * Choose the adapter for this server.
+     *
+     * @param plugin     The main plugin instance.
+     * @param configured The "pickup.stacker" setting: auto, rosestacker, vanilla or none.
+     * @return The adapter to use for every pickup.
+     */
+    static ItemStackerAdapter create(Plugin plugin, String configured) {
+        boolean roseStacker = plugin.getServer().getPluginManager().isPluginEnabled("RoseStacker");
+        switch (configured == null ? "auto" : configured.toLowerCase(Locale.ROOT)) {
+            case "rosestacker" -> {
+                if (roseStacker) {
+                    return new RoseStackerItemAdapter();
+                }
+                plugin.getLogger().warning("pickup.stacker is rosestacker but RoseStacker is not enabled; using vanilla item stacks.");
+                return new VanillaItemStackerAdapter();
+            }
+            case "vanilla" -> {
+                return new VanillaItemStackerAdapter();
+            }
+            case "none" -> {
+                return new NoopItemStackerAdapter();
+            }
+            default -> {
+                if (roseStacker) {
+                    return new RoseStackerItemAdapter();
+                }
+                for (String unsupported : new String[]{"WildStacker", "UltimateStacker"}) {
+                    if (plugin.getServer().getPluginManager().isPluginEnabled(unsupported)) {
+                        // Their stacks hold more items than the entity shows; absorbing the entity would lose them
+                        plugin.getLogger().warning(unsupported + " is not supported; seed drops are left to its own pickup.");
+                        return new NoopItemStackerAdapter();
+                    }
+                }
+                return new VanillaItemStackerAdapter();
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package me.kermx.seedBags;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free log-linear histogram of nanosecond latencies.
+ * Each power of two is split into four sub-buckets, so recorded values are
+ * accurate to within 25%, and recording is a couple of bit operations and one
+ * atomic increment.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(64 * SUB_BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Record a single latency.
+     *
+     * @param nanos The latency in nanoseconds.
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        buckets.incrementAndGet(bucketOf(nanos));
+        count.incrementAndGet();
+        total.addAndGet(nanos);
+        long currentMax = max.get();
+        while (nanos > currentMax && !max.compareAndSet(currentMax, nanos)) {
+            currentMax = max.get();
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public long getMean() {
+        long samples = count.get();
+        return samples == 0 ? 0 : total.get() / samples;
+    }
+
+    /**
+     * Get the value at the given percentile.
+     *
+     * @param percentile The percentile, between 0 and 100.
+     * @return The upper bound of the bucket holding that percentile, in nanoseconds.
+     */
+    public long getPercentile(double percentile) {
+        long samples = count.get();
+        if (samples == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(samples * percentile / 100.0));
+        long seen = 0;
+        for (int bucket = 0; bucket < buckets.length(); bucket++) {
+            seen += buckets.get(bucket);
+            if (seen >= target) {
+                return Math.min(upperBoundOf(bucket), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    public void reset() {
+        for (int bucket = 0; bucket < buckets.length(); bucket++) {
+            buckets.set(bucket, 0);
+        }
+        count.set(0);
+        total.set(0);
+        max.set(0);
+    }
+
+    private static int bucketOf(long value) {
+        int magnitude = 64 - Long.numberOfLeadingZeros(value);
+        if (magnitude <= SUB_BUCKET_BITS) {
+            return (int) value;
+        }
+        int subBucket = (int) (value >>> (magnitude - 1 - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return magnitude * SUB_BUCKETS + subBucket;
+    }
+
+    private static long upperBoundOf(int bucket) {
+        int magnitude = bucket / SUB_BUCKETS;
+        if (magnitude <= SUB_BUCKET_BITS) {
+            return bucket;
+        }
+        int subBucket = bucket % SUB_BUCKETS;
+        int shift = magnitude - 1 - SUB_BUCKET_BITS;
+        return ((long) (SUB_BUCKETS + subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,312 @@
+package me.kermx.seedBags;
+
+import java.io.DataInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * Walks an uncompressed NBT stream, such as a player data file, and reports every
+ * seed bag found in it without building the tag tree: tags are read one at a time
+ * and everything that is not part of a bag is skipped.
+ * An item is any compound with a "components" compound (1.20.5 and later) or a "tag"
+ * compound (earlier versions), wherever it is nested, so bags inside shulker boxes
+ * and bundles are found too. For the fields a rewrite may replace, the reader records
+ * the byte range of their value in the stream.
+ */
+final class NbtBagReader {
+    static final byte TAG_END = 0;
+    static final byte TAG_BYTE = 1;
+    static final byte TAG_SHORT = 2;
+    static final byte TAG_INT = 3;
+    static final byte TAG_LONG = 4;
+    static final byte TAG_FLOAT = 5;
+    static final byte TAG_DOUBLE = 6;
+    static final byte TAG_BYTE_ARRAY = 7;
+    static final byte TAG_STRING = 8;
+    static final byte TAG_LIST = 9;
+    static final byte TAG_COMPOUND = 10;
+    static final byte TAG_INT_ARRAY = 11;
+    static final byte TAG_LONG_ARRAY = 12;
+
+    // Vanilla refuses deeper trees as well
+    private static final int MAX_DEPTH = 512;
+    // Packed universal bag counts are a few hundred bytes at most
+    private static final int MAX_COUNTS_BYTES = 64 * 1024;
+
+    /**
+     * What a compound is to the item it belongs to.
+     */
+    private enum Role {
+        /** Any compound; it is an item if it has item data. */
+        PLAIN,
+        /** The "components" or "tag" compound of an item. */
+        ITEM_DATA,
+        /** The "minecraft:custom_data" component. */
+        CUSTOM_DATA,
+        /** The Bukkit persistent data container. */
+        BUKKIT_VALUES,
+        /** The "display" compound of the pre-1.20.5 item format. */
+        DISPLAY
+    }
+
+    private final CountingInputStream counter;
+    private final DataInputStream in;
+    private final String typeKey;
+    private final String countKey;
+    private final String countsKey;
+    private final String bagIdKey;
+    private final String ownerKey;
+    private final Consumer<Bag> sink;
+
+    /**
+     * Constructor for NbtBagReader.
+     *
+     * @param uncompressed The NBT stream, already decompressed.
+     * @param sink         Receives every bag found, in stream order.
+     */
+    NbtBagReader(InputStream uncompressed, Consumer<Bag> sink) {
+        this.counter = new CountingInputStream(uncompressed);
+        this.in = new DataInputStream(counter);
+        this.typeKey = SeedBags.SEED_TYPE_KEY.toString();
+        this.countKey = SeedBags.SEED_COUNT_KEY.toString();
+        this.countsKey = SeedBags.SEED_COUNTS_KEY.toString();
+        this.bagIdKey = SeedBags.BAG_ID_KEY.toString();
+        this.ownerKey = SeedBags.BANK_OWNER_KEY.toString();
+        this.sink = sink;
+    }
+
+    /**
+     * Read the whole stream.
+     *
+     * @throws IOException If the stream cannot be read or is not a valid NBT compound.
+     */
+    void read() throws IOException {
+        if (in.readByte() != TAG_COMPOUND) {
+            throw new IOException("The root tag is not a compound");
+        }
+        in.readUTF();
+        readCompound(Role.PLAIN, null, null, 0);
+    }
+
+    /**
+     * Read a compound's payload up to its end tag.
+     *
+     * @param role    What the compound is to the enclosing item.
+     * @param section The top-level key the compound is under, or null for the root.
+     * @param bag     The item the compound belongs to, for every role except PLAIN.
+     */
+    private void readCompound(Role role, String section, Bag bag, int depth) throws IOException {
+        if (depth > MAX_DEPTH) {
+            throw new IOException("NBT nested too deeply");
+        }
+        Bag item = role == Role.PLAIN ? null : bag;
+        while (true) {
+            byte type = in.readByte();
+            if (type == TAG_END) {
+                break;
+            }
+            String name = in.readUTF();
+            String childSection = section == null ? name : section;
+            long start = counter.position;
+            switch (role) {
+                case PLAIN -> {
+                    if (type == TAG_COMPOUND && (name.equals("components") || name.equals("tag"))) {
+                        if (item == null) {
+                            item = new Bag(childSection);
+                        }
+                        readCompound(Role.ITEM_DATA, childSection, item, depth + 1);
+                        continue;
+                    }
+                }
+                case ITEM_DATA -> {
+                    if (type == TAG_COMPOUND) {
+                        Role child = switch (name) {
+                            case "minecraft:custom_data" -> Role.CUSTOM_DATA;
+                            case "PublicBukkitValues" -> Role.BUKKIT_VALUES;
+                            case "display" -> Role.DISPLAY;
+                            default -> null;
+                        };
+                        if (child != null) {
+                            readCompound(child, childSection, item, depth + 1);
+                            continue;
+                        }
+                    } else if (type == TAG_INT && (name.equals("minecraft:custom_model_data") || name.equals("CustomModelData"))) {
+                        item.modelData = in.readInt();
+                        item.modelDataStart = start;
+                        continue;
+                    } else if (type == TAG_STRING && name.equals("minecraft:custom_name")) {
+                        in.skipNBytes(in.readUnsignedShort());
+                        item.nameStart = start;
+                        item.nameEnd = counter.position;
+                        continue;
+                    } else if (type == TAG_LIST && name.equals("minecraft:lore")) {
+                        readLore(item, start, childSection, depth);
+                        continue;
+                    }
+                }
+                case CUSTOM_DATA -> {
+                    if (type == TAG_COMPOUND && name.equals("PublicBukkitValues")) {
+                        readCompound(Role.BUKKIT_VALUES, childSection, item, depth + 1);
+                        continue;
+                    }
+                }
+                case DISPLAY -> {
+                    if (type == TAG_STRING && name.equals("Name")) {
+                        in.skipNBytes(in.readUnsignedShort());
+                        item.nameStart = start;
+                        item.nameEnd = counter.position;
+                        continue;
+                    } else if (type == TAG_LIST && name.equals("Lore")) {
+                        readLore(item, start, childSection, depth);
+                        continue;
+                    }
+                }
+                case BUKKIT_VALUES -> {
+                    if (type == TAG_STRING && name.equals(typeKey)) {
+                        item.seedType = in.readUTF();
+                        continue;
+                    } else if (type == TAG_INT && name.equals(countKey)) {
+                        item.count = in.readInt();
+                        item.hasCount = true;
+                        item.countStart = start;
+                        continue;
+                    } else if (type == TAG_BYTE_ARRAY && name.equals(countsKey)) {
+                        int length = in.readInt();
+                        if (length < 0 || length > MAX_COUNTS_BYTES) {
+                            throw new IOException("Invalid seed counts length " + length);
+                        }
+                        item.counts = in.readNBytes(length);
+                        item.countsStart = start;
+                        item.countsEnd = counter.position;
+                        continue;
+                    } else if (name.equals(bagIdKey) || name.equals(ownerKey)) {
+                        item.countedElsewhere = true;
+                    }
+                }
+            }
+            skipPayload(type, childSection, depth + 1);
+        }
+        if (role == Role.PLAIN && item != null && item.isBag()) {
+            sink.accept(item);
+        }
+    }
+
+    private void readLore(Bag item, long start, String section, int depth) throws IOException {
+        byte elementType = in.readByte();
+        int length = in.readInt();
+        for (int i = 0; i < length; i++) {
+            skipPayload(elementType, section, depth + 1);
+        }
+        item.loreStart = start;
+        item.loreEnd = counter.position;
+        item.loreIsText = elementType == TAG_STRING || length == 0;
+    }
+
+    /**
+     * Skip a payload, still looking for items inside compounds and lists.
+     */
+    private void skipPayload(byte type, String section, int depth) throws IOException {
+        switch (type) {
+            case TAG_BYTE -> in.skipNBytes(1);
+            case TAG_SHORT -> in.skipNBytes(2);
+            case TAG_INT, TAG_FLOAT -> in.skipNBytes(4);
+            case TAG_LONG, TAG_DOUBLE -> in.skipNBytes(8);
+            case TAG_BYTE_ARRAY -> in.skipNBytes(checkLength(in.readInt()));
+            case TAG_STRING -> in.skipNBytes(in.readUnsignedShort());
+            case TAG_INT_ARRAY -> in.skipNBytes(checkLength(in.readInt()) * 4L);
+            case TAG_LONG_ARRAY -> in.skipNBytes(checkLength(in.readInt()) * 8L);
+            case TAG_LIST -> {
+                if (depth > MAX_DEPTH) {
+                    throw new IOException("NBT nested too deeply");
+                }
+                byte elementType = in.readByte();
+                int length = checkLength(in.readInt());
+                for (int i = 0; i < length; i++) {
+                    skipPayload(elementType, section, depth + 1);
+                }
+            }
+            case TAG_COMPOUND -> readCompound(Role.PLAIN, section, null, depth);
+            default -> throw new IOException("Unknown NBT tag type " + type);
+        }
+    }
+
+    private static int checkLength(int length) throws IOException {
+        if (length < 0) {
+            throw new IOException("Negative NBT length " + length);
+        }
+        return length;
+    }
+
+    /**
+     * A seed bag as found in the stream. Value positions are offsets into the
+     * uncompressed stream, -1 where the field is missing.
+     */
+    static final class Bag {
+        final String section;
+        String seedType;
+        boolean hasCount;
+        int count;
+        long countStart = -1L;
+        byte[] counts;
+        long countsStart = -1L;
+        long countsEnd = -1L;
+        boolean countedElsewhere;
+        int modelData;
+        long modelDataStart = -1L;
+        long nameStart = -1L;
+        long nameEnd = -1L;
+        long loreStart = -1L;
+        long loreEnd = -1L;
+        boolean loreIsText;
+
+        private Bag(String section) {
+            this.section = section;
+        }
+
+        boolean isUniversal() {
+            return counts != null;
+        }
+
+        private boolean isBag() {
+            return seedType != null || counts != null;
+        }
+    }
+
+    /**
+     * Counts the bytes read through it.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        private long position;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                position++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                position += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            position += skipped;
+            return skipped;
+        }
+    }
+}
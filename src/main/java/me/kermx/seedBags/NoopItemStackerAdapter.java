@@ -0,0 +1,24 @@
+package me.kermx.seedBags;
+
+import org.bukkit.entity.Item;
+
+/**
+ * {@link ItemStackerAdapter} that hands nothing over, leaving every drop to normal
+ * pickup. Used when pickups are disabled or the item stacker is not supported.
+ */
+public final class NoopItemStackerAdapter implements ItemStackerAdapter {
+
+    @Override
+    public String getName() {
+        return "none";
+    }
+
+    @Override
+    public int getAmount(Item item) {
+        return 0;
+    }
+
+    @Override
+    public void remove(Item item) {
+    }
+}
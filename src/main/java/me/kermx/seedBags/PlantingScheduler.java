@@ -0,0 +1,990 @@
+package me.kermx.seedBags;
+
+import me.kermx.seedBags.SeedRegistry.SeedDefinition;
+import org.bukkit.Bukkit;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.PlayerDeathEvent;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plants seed bag areas of any configured radius, or in flood mode the whole
+ * connected field around the clicked block.
+ * Small areas are planted immediately inside the click when the clicking thread owns
+ * every chunk under them. Larger areas are planned off the server threads from chunk
+ * snapshots and then applied in slices, under a server-wide budget of blocks and
+ * microseconds per tick that is shared fairly between all players' jobs.
+ * Every slice is split by chunk and run by the thread that owns the chunk, so on
+ * Folia each region plants its own blocks under its own time budget; cells a slice
+ * had no time for are queued again for the next tick.
+ * Seeds are reserved before a cell is handed out and taken from the bag after the
+ * slice, on the player's thread, so a cancelled or partly finished job only ever
+ * charges for the crops it actually planted and can never plant more than the bag holds.
+ * Each group of cells is offered to {@link SeedBagPlantEvent} listeners before any
+ * block changes. Per-crop BlockPlaceEvents for protection plugins that only know that
+ * event are fired according to the configured mode, optionally deciding once per chunk
+ * and job.
+ */
+public class PlantingScheduler implements Listener {
+    public static final int MAX_RADIUS = 64;
+    // Same level first, then a step up, then a step down
+    private static final int[] FLOOD_STEPS = {0, 1, -1};
+
+    private final Plugin plugin;
+    private final SeedBagScheduler scheduler;
+    private final SeedBagIndex bagIndex;
+    private final SeedBagAccumulator accumulator;
+    private final SeedBagStats stats;
+    private final int radius;
+    private final int inlineCells;
+    private final int blocksPerTick;
+    private final long nanosPerTick;
+    private final boolean floodFill;
+    private final int floodMaxCells;
+    private final int floodYTolerance;
+    private final ProtectionEvents placeEvents;
+    private final boolean protectionCache;
+    // Only touched by the global tick, or on shutdown once the tick is cancelled
+    private final ArrayDeque<PlantingJob> jobs = new ArrayDeque<>();
+    private final Map<UUID, PlantingJob> jobsByPlayer = new ConcurrentHashMap<>();
+    private SeedBagScheduler.Task tickTask;
+
+    /**
+     * Constructor for PlantingScheduler.
+     *
+     * @param plugin      The main plugin instance.
+     * @param scheduler   The scheduler that routes block and player work to their owning threads.
+     * @param bagIndex    The per-player seed bag slot index.
+     * @param accumulator The pickup accumulator, or null if pickups are written immediately.
+     * @param stats       The hot path statistics.
+     * @param config      The "planting" configuration section, may be null.
+     */
+    public PlantingScheduler(Plugin plugin, SeedBagScheduler scheduler, SeedBagIndex bagIndex, SeedBagAccumulator accumulator,
+                             SeedBagStats stats, ConfigurationSection config) {
+        this.plugin = plugin;
+        this.scheduler = scheduler;
+        this.bagIndex = bagIndex;
+        this.accumulator = accumulator;
+        this.stats = stats;
+        int configuredRadius = config == null ? 2 : config.getInt("radius", 2);
+        this.radius = Math.max(0, Math.min(configuredRadius, MAX_RADIUS));
+        this.inlineCells = config == null ? 25 : config.getInt("inline-cells", 25);
+        this.blocksPerTick = Math.max(1, config == null ? 256 : config.getInt("blocks-per-tick", 256));
+        this.nanosPerTick = (config == null ? 2000L : config.getLong("max-micros-per-tick", 2000L)) * 1000L;
+        this.floodFill = config != null && config.getString("mode", "square").equalsIgnoreCase("flood");
+        this.floodMaxCells = Math.max(1, config == null ? 4096 : config.getInt("flood.max-cells", 4096));
+        this.floodYTolerance = Math.max(0, Math.min(1, config == null ? 1 : config.getInt("flood.y-tolerance", 1)));
+        this.placeEvents = ProtectionEvents.fromConfig(config == null ? null : config.getString("block-place-events"));
+        this.protectionCache = config != null && config.getBoolean("protection-cache", false);
+    }
+
+    public int getRadius() {
+        return radius;
+    }
+
+    public boolean isFloodFill() {
+        return floodFill;
+    }
+
+    public int getFloodMaxCells() {
+        return floodMaxCells;
+    }
+
+    public int getFloodYTolerance() {
+        return floodYTolerance;
+    }
+
+    /**
+     * Describe the planting area for the seed bag lore.
+     *
+     * @return A lore line such as "Plants crops in a 5x5 area."
+     */
+    public String getAreaDescription() {
+        if (floodFill) {
+            return "Plants the whole connected field.";
+        }
+        int size = radius * 2 + 1;
+        return "Plants crops in a " + size + "x" + size + " area.";
+    }
+
+    /**
+     * Plant seeds from the seed bag around the specified block.
+     *
+     * @param player       The player planting the seeds.
+     * @param clickedBlock The block to plant the seeds on.
+     * @param seedBag      The seed bag containing the seeds.
+     * @param bagSlot      The inventory slot of the seed bag.
+     */
+    public void plant(Player player, Block clickedBlock, ItemStack seedBag, int bagSlot) {
+        if (jobsByPlayer.containsKey(player.getUniqueId())) {
+            player.sendMessage("You are already planting!");
+            return;
+        }
+
+        SeedDefinition seed = SeedRegistry.get().getBySeed(SeedBagUtil.getSeedType(seedBag));
+        if (seed == null) {
+            return;
+        }
+        int seedCount = SeedBagUtil.getSeedCount(player, seedBag, seed.seedType());
+        if (seedCount <= 0) {
+            player.sendMessage("Your seed bag is empty!");
+            return;
+        }
+
+        if (floodFill) {
+            planFlood(player, clickedBlock, seedBag, bagSlot, seed, seedCount);
+            return;
+        }
+        int size = radius * 2 + 1;
+        if (size * size <= inlineCells && ownsArea(clickedBlock.getWorld(), clickedBlock.getX(), clickedBlock.getZ())) {
+            plantInline(player, clickedBlock, seedBag, bagSlot, seed, seedCount);
+        } else {
+            planAsync(player, clickedBlock, seedBag, bagSlot, seed, seedCount);
+        }
+    }
+
+    /**
+     * Cancel the running job of a player and take the seeds for every crop planted
+     * so far from the bag. Must be called from the thread that owns the player.
+     *
+     * @param player The player whose job to cancel.
+     */
+    public void cancel(Player player) {
+        PlantingJob job = jobsByPlayer.remove(player.getUniqueId());
+        if (job != null) {
+            job.cancelled = true;
+            commit(job, player);
+        }
+    }
+
+    /**
+     * Cancel every job and stop the tick task.
+     */
+    public void cancelAll() {
+        if (tickTask != null) {
+            tickTask.cancel();
+            tickTask = null;
+        }
+        for (PlantingJob job : jobsByPlayer.values()) {
+            job.cancelled = true;
+        }
+        jobsByPlayer.clear();
+        jobs.clear();
+    }
+
+    /**
+     * Check whether the current thread may plant every block of the area itself.
+     */
+    private boolean ownsArea(World world, int centerX, int centerZ) {
+        for (int chunkX = (centerX - radius) >> 4; chunkX <= (centerX + radius) >> 4; chunkX++) {
+            for (int chunkZ = (centerZ - radius) >> 4; chunkZ <= (centerZ + radius) >> 4; chunkZ++) {
+                if (!scheduler.isOwnedByCurrentThread(world, chunkX, chunkZ)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Plant a small area synchronously, as part of the interact event.
+     */
+    private void plantInline(Player player, Block clickedBlock, ItemStack seedBag, int bagSlot, SeedDefinition seed, int seedCount) {
+        // Only as many cells as there are seeds are offered to listeners
+        List<Block> soils = new ArrayList<>();
+        for (int dx = -radius; dx <= radius && soils.size() < seedCount; dx++) {
+            for (int dz = -radius; dz <= radius && soils.size() < seedCount; dz++) {
+                Block soil = clickedBlock.getRelative(dx, 0, dz);
+                if (canPlant(soil, seed)) {
+                    soils.add(soil);
+                }
+            }
+        }
+
+        SeedBagPlantEvent event = vetCells(player, seed, seedBag, soils);
+        boolean firePlaceEvents = shouldFirePlaceEvents();
+        Map<Long, Boolean> protection = protectionCache ? new HashMap<>() : null;
+        int seedsPlanted = 0;
+        for (int i = 0; i < soils.size() && seedCount > 0; i++) {
+            if ((event == null || event.isAllowed(i))
+                    && placeCrop(player, soils.get(i), seed, seedBag, firePlaceEvents, protection)) {
+                seedsPlanted++;
+                seedCount--;
+            }
+        }
+
+        if (seedsPlanted > 0) {
+            SeedBagUtil.setSeedCount(player, bagSlot, seedBag, seed.seedType(), seedCount);
+            stats.recordSeedsPlanted(seedsPlanted);
+        } else {
+            player.sendMessage("No suitable place to plant seeds!");
+        }
+    }
+
+    /**
+     * Snapshot the loaded chunks under the area on their owning threads, find the
+     * candidate cells off the server threads, then queue the job for incremental planting.
+     */
+    private void planAsync(Player player, Block clickedBlock, ItemStack seedBag, int bagSlot, SeedDefinition seed, int seedCount) {
+        World world = clickedBlock.getWorld();
+        int centerX = clickedBlock.getX();
+        int y = clickedBlock.getY();
+        int centerZ = clickedBlock.getZ();
+        if (y + 1 >= world.getMaxHeight()) {
+            player.sendMessage("No suitable place to plant seeds!");
+            return;
+        }
+
+        PlantingJob job = new PlantingJob(player.getUniqueId(), world, seed, seedBag, bagSlot, seedCount, protectionCache);
+        if (jobsByPlayer.putIfAbsent(player.getUniqueId(), job) != null) {
+            player.sendMessage("You are already planting!");
+            return;
+        }
+
+        int minChunkX = (centerX - radius) >> 4;
+        int maxChunkX = (centerX + radius) >> 4;
+        int minChunkZ = (centerZ - radius) >> 4;
+        int maxChunkZ = (centerZ + radius) >> 4;
+        Map<Long, ChunkSnapshot> snapshots = new ConcurrentHashMap<>();
+        AtomicInteger pendingChunks = new AtomicInteger((maxChunkX - minChunkX + 1) * (maxChunkZ - minChunkZ + 1));
+        Runnable plan = () -> scheduler.runAsync(() -> {
+            long[] cells = planCells(snapshots, seed, centerX, y, centerZ, radius);
+            scheduler.runGlobal(() -> start(job, cells));
+        });
+
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                int snapshotX = chunkX;
+                int snapshotZ = chunkZ;
+                scheduler.runAtChunk(world, snapshotX, snapshotZ, () -> {
+                    if (world.isChunkLoaded(snapshotX, snapshotZ)) {
+                        snapshots.put(chunkKey(snapshotX, snapshotZ),
+                                world.getChunkAt(snapshotX, snapshotZ).getChunkSnapshot(false, false, false));
+                    }
+                    if (pendingChunks.decrementAndGet() == 0) {
+                        plan.run();
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Flood fill the field connected to the clicked block off the server threads,
+     * snapshotting chunks on their owning threads as the fill reaches them, then queue
+     * the job for incremental planting like a square area.
+     */
+    private void planFlood(Player player, Block clickedBlock, ItemStack seedBag, int bagSlot, SeedDefinition seed, int seedCount) {
+        World world = clickedBlock.getWorld();
+        if (clickedBlock.getY() + 1 >= world.getMaxHeight()) {
+            player.sendMessage("No suitable place to plant seeds!");
+            return;
+        }
+        PlantingJob job = new PlantingJob(player.getUniqueId(), world, seed, seedBag, bagSlot, seedCount, protectionCache);
+        if (jobsByPlayer.putIfAbsent(player.getUniqueId(), job) != null) {
+            player.sendMessage("You are already planting!");
+            return;
+        }
+        new FloodFill(job, Math.min(seedCount, floodMaxCells), clickedBlock.getX(), clickedBlock.getY(), clickedBlock.getZ())
+                .fetchMissingChunks();
+    }
+
+    /**
+     * Find every soil block with air above it in the area, nearest rings first.
+     */
+    private static long[] planCells(Map<Long, ChunkSnapshot> snapshots, SeedDefinition seed, int centerX, int y, int centerZ, int radius) {
+        int size = radius * 2 + 1;
+        long[] cells = new long[size * size];
+        int count = 0;
+        for (int ring = 0; ring <= radius; ring++) {
+            for (int dx = -ring; dx <= ring; dx++) {
+                // Full rows on the ring's edges, only the two end columns in between
+                int step = (dx == -ring || dx == ring) ? 1 : Math.max(1, ring * 2);
+                for (int dz = -ring; dz <= ring; dz += step) {
+                    int x = centerX + dx;
+                    int z = centerZ + dz;
+                    ChunkSnapshot snapshot = snapshots.get(chunkKey(x >> 4, z >> 4));
+                    if (snapshot != null
+                            && seed.canPlantOn(snapshot.getBlockType(x & 15, y, z & 15))
+                            && snapshot.getBlockType(x & 15, y + 1, z & 15) == Material.AIR) {
+                        cells[count++] = BlockPositionSet.pack(x, y, z);
+                    }
+                }
+            }
+        }
+        return Arrays.copyOf(cells, count);
+    }
+
+    /**
+     * Queue a planned job. Runs on the global tick.
+     */
+    private void start(PlantingJob job, long[] cells) {
+        if (job.cancelled) {
+            return;
+        }
+        Player player = Bukkit.getPlayer(job.playerId);
+        if (player == null) {
+            jobsByPlayer.remove(job.playerId, job);
+            return;
+        }
+        if (cells.length == 0) {
+            jobsByPlayer.remove(job.playerId, job);
+            scheduler.runForEntity(player, () -> player.sendMessage("No suitable place to plant seeds!"));
+            return;
+        }
+        job.cells = cells;
+        jobs.add(job);
+        if (tickTask == null) {
+            tickTask = scheduler.runGlobalTimer(this::tick, 1L, 1L);
+        }
+    }
+
+    /**
+     * Hand every job its share of the tick's block budget, split by chunk and run on
+     * the chunks' owning threads, then take the planted seeds from each bag on the
+     * player's thread. Served jobs move to the back of the queue, so when the time
+     * budget runs out the jobs that got nothing go first on the next tick.
+     * Runs on the global tick.
+     */
+    private void tick() {
+        long deadline = System.nanoTime() + nanosPerTick;
+        int share = Math.max(1, blocksPerTick / Math.max(1, jobs.size()));
+
+        for (int remaining = jobs.size(); remaining > 0; remaining--) {
+            PlantingJob job = jobs.pollFirst();
+            Player player = Bukkit.getPlayer(job.playerId);
+            if (job.cancelled || player == null) {
+                jobsByPlayer.remove(job.playerId, job);
+                continue;
+            }
+            if (job.commitScheduled) {
+                jobs.addLast(job);
+                continue;
+            }
+            if (job.isDone()) {
+                finish(job, player);
+                continue;
+            }
+            // On a single main thread every slice shares the tick's deadline
+            if (!scheduler.isRegionThreaded() && System.nanoTime() >= deadline) {
+                jobs.addFirst(job);
+                break;
+            }
+            dispatch(job, share, deadline);
+            if (job.hasUncommitted()) {
+                job.commitScheduled = true;
+                scheduler.runForEntity(player, () -> commit(job, player));
+            }
+            jobs.addLast(job);
+        }
+
+        if (jobs.isEmpty() && tickTask != null) {
+            tickTask.cancel();
+            tickTask = null;
+        }
+    }
+
+    /**
+     * Reserve seeds for up to the given number of cells and hand them, grouped by
+     * chunk, to the chunks' owning threads.
+     */
+    private void dispatch(PlantingJob job, int share, long tickDeadline) {
+        long[] vetted = job.takeRequeued(share);
+        long[] slice = job.take(share - vetted.length);
+        if (vetted.length == 0 && slice.length == 0) {
+            return;
+        }
+        // Requeued cells already passed SeedBagPlantEvent, so they go in batches of their own
+        Map<Long, CellBatch> batches = new LinkedHashMap<>();
+        for (long cell : vetted) {
+            long key = chunkKey(BlockPositionSet.unpackX(cell) >> 4, BlockPositionSet.unpackZ(cell) >> 4);
+            batches.computeIfAbsent(key, k -> new CellBatch(true)).add(cell);
+        }
+        dispatch(job, batches, tickDeadline);
+        batches.clear();
+        for (long cell : slice) {
+            long key = chunkKey(BlockPositionSet.unpackX(cell) >> 4, BlockPositionSet.unpackZ(cell) >> 4);
+            batches.computeIfAbsent(key, k -> new CellBatch(false)).add(cell);
+        }
+        dispatch(job, batches, tickDeadline);
+    }
+
+    private void dispatch(PlantingJob job, Map<Long, CellBatch> batches, long tickDeadline) {
+        for (CellBatch batch : batches.values()) {
+            long first = batch.cells[0];
+            scheduler.runAtChunk(job.world, BlockPositionSet.unpackX(first) >> 4, BlockPositionSet.unpackZ(first) >> 4,
+                    () -> plantBatch(job, batch, tickDeadline));
+        }
+    }
+
+    /**
+     * Plant one chunk's cells of a slice on the thread owning the chunk. Cells that
+     * changed since planning are dropped, the rest are offered to SeedBagPlantEvent
+     * listeners in one event, and allowed cells left when the time budget runs out are
+     * queued again for the next tick without being offered a second time.
+     */
+    private void plantBatch(PlantingJob job, CellBatch batch, long tickDeadline) {
+        long deadline = scheduler.isRegionThreaded() ? System.nanoTime() + nanosPerTick : tickDeadline;
+        Player player = Bukkit.getPlayer(job.playerId);
+        if (job.cancelled || player == null) {
+            job.release(batch.size);
+            return;
+        }
+        List<Block> soils = new ArrayList<>(batch.size);
+        long[] cells = new long[batch.size];
+        for (int i = 0; i < batch.size; i++) {
+            long cell = batch.cells[i];
+            int x = BlockPositionSet.unpackX(cell);
+            int z = BlockPositionSet.unpackZ(cell);
+            Block soil = job.world.isChunkLoaded(x >> 4, z >> 4)
+                    ? job.world.getBlockAt(x, BlockPositionSet.unpackY(cell), z) : null;
+            if (soil != null && canPlant(soil, job.seed)) {
+                cells[soils.size()] = cell;
+                soils.add(soil);
+            } else {
+                job.complete(false);
+            }
+        }
+        if (soils.isEmpty()) {
+            return;
+        }
+
+        SeedBagPlantEvent event = batch.vetted ? null : vetCells(player, job.seed, job.seedBag, soils);
+        boolean firePlaceEvents = shouldFirePlaceEvents();
+        for (int i = 0; i < soils.size(); i++) {
+            if (job.cancelled) {
+                job.release(soils.size() - i);
+                return;
+            }
+            if (i > 0 && System.nanoTime() >= deadline) {
+                job.requeue(cells, i, soils.size(), event);
+                return;
+            }
+            boolean planted = (event == null || event.isAllowed(i))
+                    && placeCrop(player, soils.get(i), job.seed, job.seedBag, firePlaceEvents, job.protection);
+            job.complete(planted);
+        }
+    }
+
+    /**
+     * Take the seeds planted since the last commit from the job's bag.
+     * Runs on the thread that owns the player.
+     */
+    private void commit(PlantingJob job, Player player) {
+        job.commitScheduled = false;
+        int planted = job.getUncommitted();
+        if (planted == 0) {
+            return;
+        }
+        if (accumulator != null) {
+            accumulator.flush(player);
+        }
+
+        int slot = findBagSlot(job, player, planted);
+        if (slot < 0) {
+            job.cancelled = true;
+            jobsByPlayer.remove(job.playerId, job);
+            return;
+        }
+        ItemStack seedBag = player.getInventory().getItem(slot);
+
+        int seedCount = Math.max(0, SeedBagUtil.getSeedCount(player, seedBag, job.seedType) - planted);
+        SeedBagUtil.setSeedCount(player, slot, seedBag, job.seedType, seedCount);
+        stats.recordSeedsPlanted(planted);
+        job.committed(planted, seedCount);
+    }
+
+    /**
+     * Find the slot of the job's bag, following it if it was moved.
+     *
+     * @return The slot, or -1 if the player no longer has a bag of the job's seed type.
+     */
+    private int findBagSlot(PlantingJob job, Player player, int planted) {
+        if (SeedBagUtil.holdsSeed(player.getInventory().getItem(job.bagSlot), job.seedType)) {
+            return job.bagSlot;
+        }
+        int[] slots = bagIndex.getBagSlots(player, job.seedType);
+        if (slots.length == 0) {
+            plugin.getLogger().warning("Seed bag of " + player.getName() + " disappeared while planting, "
+                    + planted + " " + job.seedType + " were not taken from it.");
+            return -1;
+        }
+        job.bagSlot = slots[0];
+        return job.bagSlot;
+    }
+
+    private void finish(PlantingJob job, Player player) {
+        jobsByPlayer.remove(job.playerId, job);
+        scheduler.runForEntity(player, () -> {
+            commit(job, player);
+            if (job.getPlanted() == 0) {
+                player.sendMessage("No suitable place to plant seeds!");
+            }
+        });
+    }
+
+    /**
+     * Plant a single crop on the given soil block, firing the same events as area planting.
+     *
+     * @param player  The player planting the seeds.
+     * @param block   The soil block to plant on.
+     * @param seed    The seed type to plant.
+     * @param seedBag The seed bag the seed comes from.
+     * @return True if the crop was planted and no listener denied it.
+     */
+    boolean plantCell(Player player, Block block, SeedDefinition seed, ItemStack seedBag) {
+        if (!canPlant(block, seed)) {
+            return false;
+        }
+        SeedBagPlantEvent event = vetCells(player, seed, seedBag, List.of(block));
+        if (event != null && !event.isAllowed(0)) {
+            return false;
+        }
+        return placeCrop(player, block, seed, seedBag, shouldFirePlaceEvents(), null);
+    }
+
+    private static boolean canPlant(Block soil, SeedDefinition seed) {
+        return seed.canPlantOn(soil.getType()) && soil.getRelative(0, 1, 0).getType() == Material.AIR;
+    }
+
+    /**
+     * Offer soil blocks to SeedBagPlantEvent listeners before anything is planted.
+     *
+     * @return The called event, or null if nobody listens and every cell is allowed.
+     */
+    private static SeedBagPlantEvent vetCells(Player player, SeedDefinition seed, ItemStack seedBag, List<Block> soils) {
+        if (SeedBagPlantEvent.getHandlerList().getRegisteredListeners().length == 0) {
+            return null;
+        }
+        SeedBagPlantEvent event = new SeedBagPlantEvent(player, seed.seedType(), seed.crop(), seedBag, soils);
+        Bukkit.getPluginManager().callEvent(event);
+        return event;
+    }
+
+    /**
+     * Check whether crops need a BlockPlaceEvent each: always, never, or in auto mode
+     * only while another plugin listens to BlockPlaceEvent.
+     */
+    private boolean shouldFirePlaceEvents() {
+        return placeEvents.shouldFire(BlockPlaceEvent.getHandlerList(), plugin);
+    }
+
+    /**
+     * Place the crop above a soil block that passed the SeedBagPlantEvent.
+     * With place events on, a BlockPlaceEvent is fired for it, unless the job's
+     * protection cache already holds the answer for the block's chunk.
+     *
+     * @param protection The per-chunk BlockPlaceEvent outcomes of the job, or null to fire one for every crop.
+     * @return True if the crop was planted and not cancelled.
+     */
+    private static boolean placeCrop(Player player, Block soil, SeedDefinition seed, ItemStack seedBag,
+                                     boolean firePlaceEvent, Map<Long, Boolean> protection) {
+        Long chunk = null;
+        if (firePlaceEvent && protection != null) {
+            chunk = chunkKey(soil.getX() >> 4, soil.getZ() >> 4);
+            Boolean allowed = protection.get(chunk);
+            if (allowed != null) {
+                if (!allowed) {
+                    return false;
+                }
+                firePlaceEvent = false;
+            }
+        }
+        Block blockAbove = soil.getRelative(0, 1, 0);
+        BlockState replacedState = firePlaceEvent ? blockAbove.getState() : null;
+        // A crop's default state is age 0, so this is the only block change
+        blockAbove.setType(seed.crop());
+        if (!firePlaceEvent) {
+            return true;
+        }
+        BlockPlaceEvent placeEvent = new BlockPlaceEvent(
+                blockAbove, replacedState, soil, seedBag, player, true, EquipmentSlot.HAND
+        );
+        Bukkit.getPluginManager().callEvent(placeEvent);
+        if (chunk != null) {
+            protection.put(chunk, !placeEvent.isCancelled());
+        }
+        if (placeEvent.isCancelled()) {
+            blockAbove.setType(Material.AIR);
+            return false;
+        }
+        return true;
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        cancel(event.getPlayer());
+    }
+
+    /**
+     * Cancel the job of a dying player. The drops are already copied out of the
+     * inventory, so unless the inventory is kept the planted seeds are charged to the
+     * dropped copy of the bag. Runs before {@link SeedBagAccumulator#onPlayerDeath},
+     * which writes its pending seeds, including these, to the dropped bags.
+     */
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerDeath(PlayerDeathEvent event) {
+        Player player = event.getEntity();
+        if (event.getKeepInventory()) {
+            cancel(player);
+            return;
+        }
+        PlantingJob job = jobsByPlayer.remove(player.getUniqueId());
+        if (job == null) {
+            return;
+        }
+        job.cancelled = true;
+        int planted = job.getUncommitted();
+        if (planted == 0) {
+            return;
+        }
+        int slot = findBagSlot(job, player, planted);
+        if (slot < 0) {
+            return;
+        }
+        ItemStack seedBag = player.getInventory().getItem(slot);
+        if (accumulator != null) {
+            accumulator.withdraw(player, slot, seedBag, job.seedType, planted);
+        } else {
+            for (ItemStack drop : event.getDrops()) {
+                if (drop.isSimilar(seedBag)) {
+                    SeedBagUtil.addSeedCount(drop, job.seedType, -planted);
+                    break;
+                }
+            }
+        }
+        stats.recordSeedsPlanted(planted);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChangedWorld(PlayerChangedWorldEvent event) {
+        cancel(event.getPlayer());
+    }
+
+    /**
+     * A bounded breadth-first flood fill over the soil blocks connected to the clicked
+     * block. Each step moves one block sideways and, within the Y tolerance, one block
+     * up or down, so terraced fields are followed. The fill stops when it has found a
+     * cell for every seed in the bag or visited the configured number of soil blocks,
+     * so its cost follows the field actually planted rather than a fixed area.
+     * It runs on the async scheduler, one step at a time: when it reaches a chunk it
+     * has no snapshot of, the position is parked, the snapshot is taken on the
+     * chunk's owning thread and the fill resumes. Unloaded chunks end the field.
+     */
+    private final class FloodFill {
+        private final PlantingJob job;
+        private final int maxCells;
+        private final int minY;
+        private final int maxY;
+        private final Map<Long, ChunkSnapshot> snapshots = new ConcurrentHashMap<>();
+        private final Set<Long> unloaded = ConcurrentHashMap.newKeySet();
+        private final Set<Long> missing = ConcurrentHashMap.newKeySet();
+        private final BlockPositionSet visited = new BlockPositionSet();
+        // Candidate positions, packed with the Y they were reached from
+        private long[] queue = new long[64];
+        private int head;
+        private int tail;
+        private long[] parked = new long[16];
+        private int parkedCount;
+        private long[] cells = new long[64];
+        private int cellCount;
+        private int visitedCount;
+
+        private FloodFill(PlantingJob job, int maxCells, int x, int y, int z) {
+            this.job = job;
+            this.maxCells = maxCells;
+            this.minY = job.world.getMinHeight();
+            this.maxY = job.world.getMaxHeight();
+            missing.add(chunkKey(x >> 4, z >> 4));
+            park(BlockPositionSet.pack(x, y, z));
+        }
+
+        /**
+         * Snapshot every chunk the fill is waiting for, then resume it off the server threads.
+         */
+        private void fetchMissingChunks() {
+            Long[] chunkKeys = missing.toArray(new Long[0]);
+            missing.clear();
+            AtomicInteger pendingChunks = new AtomicInteger(chunkKeys.length);
+            for (long key : chunkKeys) {
+                int chunkX = (int) (key >> 32);
+                int chunkZ = (int) key;
+                scheduler.runAtChunk(job.world, chunkX, chunkZ, () -> {
+                    if (job.world.isChunkLoaded(chunkX, chunkZ)) {
+                        snapshots.put(key, job.world.getChunkAt(chunkX, chunkZ).getChunkSnapshot(false, false, false));
+                    } else {
+                        unloaded.add(key);
+                    }
+                    if (pendingChunks.decrementAndGet() == 0) {
+                        scheduler.runAsync(this::resume);
+                    }
+                });
+            }
+        }
+
+        private void resume() {
+            if (job.cancelled) {
+                return;
+            }
+            for (int i = 0; i < parkedCount; i++) {
+                enqueue(parked[i]);
+            }
+            parkedCount = 0;
+
+            while (head < tail && cellCount < maxCells && visitedCount < floodMaxCells) {
+                long candidate = queue[head++];
+                int x = BlockPositionSet.unpackX(candidate);
+                int z = BlockPositionSet.unpackZ(candidate);
+                long key = chunkKey(x >> 4, z >> 4);
+                ChunkSnapshot snapshot = snapshots.get(key);
+                if (snapshot == null) {
+                    if (!unloaded.contains(key)) {
+                        missing.add(key);
+                        park(candidate);
+                    }
+                    continue;
+                }
+                visit(snapshot, x, BlockPositionSet.unpackY(candidate), z);
+            }
+
+            if (parkedCount > 0 && cellCount < maxCells && visitedCount < floodMaxCells) {
+                fetchMissingChunks();
+                return;
+            }
+            long[] planned = Arrays.copyOf(cells, cellCount);
+            scheduler.runGlobal(() -> start(job, planned));
+        }
+
+        /**
+         * Find the soil of a column at the Y it was reached from, or one block above or
+         * below within the tolerance, and spread from it.
+         */
+        private void visit(ChunkSnapshot snapshot, int x, int fromY, int z) {
+            for (int dy : FLOOD_STEPS) {
+                int y = fromY + dy;
+                if (Math.abs(dy) > floodYTolerance || y < minY || y + 1 >= maxY) {
+                    continue;
+                }
+                if (!job.seed.canPlantOn(snapshot.getBlockType(x & 15, y, z & 15))) {
+                    continue;
+                }
+                if (!visited.add(BlockPositionSet.pack(x, y, z))) {
+                    return;
+                }
+                visitedCount++;
+                if (snapshot.getBlockType(x & 15, y + 1, z & 15) == Material.AIR) {
+                    if (cellCount == cells.length) {
+                        cells = Arrays.copyOf(cells, cellCount * 2);
+                    }
+                    cells[cellCount++] = BlockPositionSet.pack(x, y, z);
+                }
+                // Planted soil still connects the field, so spread either way
+                enqueue(BlockPositionSet.pack(x + 1, y, z));
+                enqueue(BlockPositionSet.pack(x - 1, y, z));
+                enqueue(BlockPositionSet.pack(x, y, z + 1));
+                enqueue(BlockPositionSet.pack(x, y, z - 1));
+                return;
+            }
+        }
+
+        private void enqueue(long candidate) {
+            if (tail == queue.length) {
+                if (head > queue.length / 2) {
+                    System.arraycopy(queue, head, queue, 0, tail - head);
+                    tail -= head;
+                    head = 0;
+                } else {
+                    queue = Arrays.copyOf(queue, queue.length * 2);
+                }
+            }
+            queue[tail++] = candidate;
+        }
+
+        private void park(long candidate) {
+            if (parkedCount == parked.length) {
+                parked = Arrays.copyOf(parked, parkedCount * 2);
+            }
+            parked[parkedCount++] = candidate;
+        }
+    }
+
+    /**
+     * One chunk's cells of a slice.
+     */
+    private static final class CellBatch {
+        // Whether the cells already passed SeedBagPlantEvent in an earlier slice
+        private final boolean vetted;
+        private long[] cells = new long[16];
+        private int size;
+
+        private CellBatch(boolean vetted) {
+            this.vetted = vetted;
+        }
+
+        private void add(long cell) {
+            if (size == cells.length) {
+                cells = Arrays.copyOf(cells, size * 2);
+            }
+            cells[size++] = cell;
+        }
+    }
+
+    /**
+     * An area being planted incrementally for one player.
+     * The seed accounting is shared between the global tick, the region threads
+     * planting its cells and the player's thread committing them, and is guarded by
+     * the job's monitor: cells are only handed out while
+     * available - uncommitted - inFlight stays positive.
+     */
+    private static final class PlantingJob {
+        private final UUID playerId;
+        private final World world;
+        private final SeedDefinition seed;
+        private final Material seedType;
+        // A copy taken when the job was planned, as region threads must not read the live item
+        private final ItemStack seedBag;
+        // BlockPlaceEvent outcome per chunk, or null to fire the event for every crop
+        private final Map<Long, Boolean> protection;
+        // Only touched on the player's thread
+        private int bagSlot;
+        // Only touched on the global tick
+        private long[] cells;
+        private int cursor;
+        private volatile boolean commitScheduled;
+        private volatile boolean cancelled;
+
+        private long[] retry = new long[0];
+        private int retryCount;
+        private int available;
+        private int uncommitted;
+        private int inFlight;
+        private int planted;
+
+        private PlantingJob(UUID playerId, World world, SeedDefinition seed, ItemStack seedBag, int bagSlot, int available,
+                            boolean cacheProtection) {
+            this.playerId = playerId;
+            this.world = world;
+            this.seed = seed;
+            this.seedType = seed.seedType();
+            this.seedBag = seedBag.clone();
+            this.protection = cacheProtection ? new ConcurrentHashMap<>() : null;
+            this.bagSlot = bagSlot;
+            this.available = available;
+        }
+
+        /**
+         * Hand out up to max requeued cells, which already passed SeedBagPlantEvent,
+         * reserving a seed for each.
+         */
+        private synchronized long[] takeRequeued(int max) {
+            int count = Math.min(Math.min(max, available - uncommitted - inFlight), retryCount);
+            if (count <= 0) {
+                return new long[0];
+            }
+            long[] slice = Arrays.copyOfRange(retry, retryCount - count, retryCount);
+            retryCount -= count;
+            inFlight += count;
+            return slice;
+        }
+
+        /**
+         * Hand out up to max planned cells not handed out before, reserving a seed for each.
+         */
+        private synchronized long[] take(int max) {
+            int count = Math.min(max, available - uncommitted - inFlight);
+            count = Math.min(count, cells.length - cursor);
+            if (count <= 0) {
+                return new long[0];
+            }
+            long[] slice = Arrays.copyOfRange(cells, cursor, cursor + count);
+            cursor += count;
+            inFlight += count;
+            return slice;
+        }
+
+        private synchronized void complete(boolean planted) {
+            inFlight--;
+            if (planted) {
+                uncommitted++;
+                this.planted++;
+            }
+        }
+
+        /**
+         * Queue the cells of a batch that ran out of time again, keeping their
+         * SeedBagPlantEvent verdict: denied cells are dropped rather than offered again.
+         *
+         * @param event The event the cells were offered in, or null if all were allowed.
+         */
+        private synchronized void requeue(long[] batch, int from, int to, SeedBagPlantEvent event) {
+            int count = to - from;
+            if (retryCount + count > retry.length) {
+                retry = Arrays.copyOf(retry, Math.max(retry.length * 2, retryCount + count));
+            }
+            for (int i = from; i < to; i++) {
+                if (event == null || event.isAllowed(i)) {
+                    retry[retryCount++] = batch[i];
+                }
+            }
+            inFlight -= count;
+        }
+
+        private synchronized void release(int count) {
+            inFlight -= count;
+        }
+
+        /**
+         * Record a commit: the committed seeds leave the uncommitted count and the
+         * bag's new count becomes the available seeds.
+         */
+        private synchronized void committed(int count, int seedCount) {
+            uncommitted -= count;
+            available = seedCount;
+        }
+
+        private synchronized int getUncommitted() {
+            return uncommitted;
+        }
+
+        private synchronized boolean hasUncommitted() {
+            return uncommitted > 0;
+        }
+
+        private synchronized int getPlanted() {
+            return planted;
+        }
+
+        private synchronized boolean isDone() {
+            return inFlight == 0 && (retryCount == 0 && cursor >= cells.length || uncommitted >= available);
+        }
+    }
+}
@@ -0,0 +1,584 @@
+package me.kermx.seedBags;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
+import org.bukkit.Material;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.plugin.Plugin;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Audits the seed bags of offline players by reading the main world's player data
+ * files, which hold both the inventory and the ender chest, and optionally migrates
+ * stale bags in place, so format, capacity or model data changes reach bags of
+ * players who have not joined since without adding work to the join path.
+ * Files are split across a fork-join pool and each is decoded as a stream by
+ * {@link NbtBagReader}, so memory stays flat however many players the server has.
+ * <p>
+ * A fix rewrites only the values that change: counts over capacity are clamped,
+ * model data is set to the configured value and the name and lore of changed bags
+ * are rendered again. The changes are spliced into the decompressed stream while it
+ * is copied to a temporary file, which then replaces the original atomically. A
+ * player's file is only rewritten while they are offline, and they cannot log in
+ * until it is done.
+ */
+public class PlayerDataScanner implements Listener {
+    private static final int FILES_PER_TASK = 8;
+    private static final int ANOMALIES_SHOWN = 5;
+    private static final long JOIN_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final DateTimeFormatter REPORT_NAME = DateTimeFormatter.ofPattern("'scan-'yyyyMMdd-HHmmss'.txt'");
+
+    private final Plugin plugin;
+    private final SeedBagScheduler scheduler;
+    private final SeedBagRenderer renderer;
+    private final Path reportDirectory;
+    private final int parallelism;
+    private final int universalModelData;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Object claimLock = new Object();
+    private final Set<UUID> claimed = ConcurrentHashMap.newKeySet();
+    // Players past the pre-login check and not joined yet, with the time they passed it
+    private final Map<UUID, Long> joining = new ConcurrentHashMap<>();
+    private volatile ForkJoinPool pool;
+
+    /**
+     * Constructor for PlayerDataScanner.
+     *
+     * @param plugin             The main plugin instance.
+     * @param scheduler          The scheduler running the scan and its replies.
+     * @param renderer           The renderer for the name and lore of fixed bags.
+     * @param reportDirectory    The directory scan reports are written to.
+     * @param parallelism        The number of files read at once; 0 or less for one per processor.
+     * @param universalModelData The custom model data of universal bags.
+     */
+    public PlayerDataScanner(Plugin plugin, SeedBagScheduler scheduler, SeedBagRenderer renderer, Path reportDirectory,
+                             int parallelism, int universalModelData) {
+        this.plugin = plugin;
+        this.scheduler = scheduler;
+        this.renderer = renderer;
+        this.reportDirectory = reportDirectory;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.universalModelData = universalModelData;
+    }
+
+    /**
+     * Start scanning the player data files of the main world in the background.
+     * The sender is told the outcome when the scan finishes.
+     *
+     * @param sender The sender who asked for the scan.
+     * @param fix    Whether to rewrite the files of offline players with stale bags.
+     * @return False if a scan is already running.
+     */
+    public boolean start(CommandSender sender, boolean fix) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Path directory = plugin.getServer().getWorlds().get(0).getWorldFolder().toPath().resolve("playerdata");
+        SeedRegistry registry = SeedRegistry.get();
+        ForkJoinPool started = new ForkJoinPool(parallelism);
+        pool = started;
+        scheduler.runAsync(() -> {
+            try {
+                long start = System.nanoTime();
+                List<Path> files;
+                try (Stream<Path> listing = Files.list(directory)) {
+                    files = listing.filter(PlayerDataScanner::isPlayerFile).toList();
+                }
+                ScanReport report = started.invoke(new ScanTask(files, 0, files.size(), registry, fix));
+                long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                List<String> summary = report.summarize(fix, millis);
+                Path reportFile = writeReport(report, summary);
+                for (int i = 0; i < Math.min(ANOMALIES_SHOWN, report.anomalies.size()); i++) {
+                    summary.add("  " + report.anomalies.get(i));
+                }
+                if (report.anomalies.size() > ANOMALIES_SHOWN) {
+                    summary.add("  ... and " + (report.anomalies.size() - ANOMALIES_SHOWN) + " more");
+                }
+                summary.add("Full report: " + reportFile);
+                reply(sender, summary);
+            } catch (IOException | RuntimeException e) {
+                plugin.getLogger().log(Level.WARNING, "Seed bag player data scan failed", e);
+                reply(sender, List.of("Seed bag scan failed: " + e.getMessage()));
+            } finally {
+                started.shutdown();
+                pool = null;
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Stop a running scan. A file being rewritten is either replaced whole or left as it was.
+     */
+    public void close() {
+        ForkJoinPool active = pool;
+        if (active != null) {
+            active.shutdownNow();
+            try {
+                active.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST)
+    public void onAsyncPlayerPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            return;
+        }
+        UUID uuid = event.getUniqueId();
+        synchronized (claimLock) {
+            if (claimed.contains(uuid)) {
+                event.disallow(AsyncPlayerPreLoginEvent.Result.KICK_OTHER,
+                        Component.text("Your player data is being updated, please join again in a moment."));
+                return;
+            }
+            joining.put(uuid, System.nanoTime());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        joining.remove(event.getPlayer().getUniqueId());
+    }
+
+    /**
+     * Keep a player from logging in while their file is rewritten.
+     *
+     * @return False if the player is online or about to be.
+     */
+    private boolean claim(UUID owner) {
+        synchronized (claimLock) {
+            Long passedPreLogin = joining.get(owner);
+            if (plugin.getServer().getPlayer(owner) != null
+                    || (passedPreLogin != null && System.nanoTime() - passedPreLogin < JOIN_NANOS)) {
+                return false;
+            }
+            claimed.add(owner);
+            return true;
+        }
+    }
+
+    private void release(UUID owner) {
+        claimed.remove(owner);
+    }
+
+    private static boolean isPlayerFile(Path file) {
+        return file.getFileName().toString().endsWith(".dat") && parseOwner(file) != null;
+    }
+
+    private static UUID parseOwner(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return UUID.fromString(name.substring(0, name.length() - ".dat".length()));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Scan one player's file and, when fixing and the player is offline, rewrite it.
+     */
+    private void scanFile(Path file, SeedRegistry registry, boolean fix, ScanReport report) {
+        UUID owner = parseOwner(file);
+        report.files++;
+        boolean claimedOwner = fix && claim(owner);
+        if (fix && !claimedOwner) {
+            report.skippedOnline++;
+        }
+        try {
+            List<NbtBagReader.Bag> bags = new ArrayList<>();
+            try (InputStream in = new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file), 16 * 1024), 16 * 1024)) {
+                new NbtBagReader(in, bags::add).read();
+            }
+            List<Patch> patches = new ArrayList<>();
+            for (NbtBagReader.Bag bag : bags) {
+                check(owner, bag, registry, report, claimedOwner ? patches : null);
+            }
+            if (!patches.isEmpty()) {
+                rewrite(file, patches);
+                report.filesRewritten++;
+            }
+        } catch (IOException e) {
+            report.unreadable.add(file.getFileName() + ": " + e.getMessage());
+        } finally {
+            if (claimedOwner) {
+                release(owner);
+            }
+        }
+    }
+
+    /**
+     * Count a bag, report what is wrong with it and, if patches is not null, plan its fixes.
+     */
+    private void check(UUID owner, NbtBagReader.Bag bag, SeedRegistry registry, ScanReport report, List<Patch> patches) {
+        String where = owner + " " + bag.section + ": ";
+        report.bags++;
+        report.bagsBySection.merge(bag.section, 1L, Long::sum);
+        Material seedType = bag.seedType == null ? null : Material.getMaterial(bag.seedType);
+        boolean changed = false;
+        int count = bag.count;
+        byte[] counts = null;
+
+        if (bag.isUniversal()) {
+            report.universalBags++;
+            counts = bag.counts.clone();
+            if (checkUniversalCounts(where, counts, registry, report, patches != null) && patches != null) {
+                patches.add(byteArrayPatch(bag.countsStart, bag.countsEnd, counts));
+                changed = true;
+            }
+            changed |= checkModelData(where, bag, universalModelData, report, patches);
+        } else {
+            SeedRegistry.SeedDefinition definition = registry.getBySeed(seedType);
+            if (definition == null) {
+                report.anomalies.add(where + "unknown seed type " + bag.seedType);
+            }
+            if (bag.countedElsewhere) {
+                // The count lives in the ledger or the seed bank
+                report.externalBags++;
+            } else {
+                report.addSeeds(bag.seedType, count);
+                int capacity = registry.getCapacity(seedType);
+                int fixed = count;
+                if (count > capacity) {
+                    report.anomalies.add(where + count + " " + bag.seedType + " is over the capacity of " + capacity);
+                    fixed = capacity;
+                } else if (count < 0) {
+                    report.anomalies.add(where + "negative count " + count + " of " + bag.seedType);
+                    fixed = 0;
+                }
+                if (fixed != count && patches != null && bag.countStart >= 0) {
+                    patches.add(intPatch(bag.countStart, fixed));
+                    report.seedsTrimmed += Math.max(0, count - fixed);
+                    count = fixed;
+                    changed = true;
+                }
+            }
+            if (definition != null) {
+                changed |= checkModelData(where, bag, definition.modelData(), report, patches);
+            }
+        }
+
+        if (changed) {
+            report.bagsFixed++;
+            // A bag counted elsewhere has no count to show here; it is rendered when it next changes
+            if (!bag.countedElsewhere) {
+                renderPatches(bag, seedType, count, counts, patches);
+            }
+        }
+    }
+
+    /**
+     * Check the counts of a universal bag, clamping counts over capacity in place when fixing.
+     *
+     * @return True if the counts were changed.
+     */
+    private static boolean checkUniversalCounts(String where, byte[] counts, SeedRegistry registry, ScanReport report, boolean fix) {
+        if (counts.length == 0 || counts[0] != SeedCounts.VERSION) {
+            report.anomalies.add(where + "universal bag with unknown counts format");
+            return false;
+        }
+        boolean changed = false;
+        ByteBuffer buffer = ByteBuffer.wrap(counts);
+        buffer.position(1);
+        while (buffer.remaining() > 0) {
+            int nameLength = buffer.get() & 0xFF;
+            if (buffer.remaining() < nameLength + 4) {
+                report.anomalies.add(where + "universal bag with truncated counts");
+                break;
+            }
+            String name = new String(counts, buffer.position(), nameLength, StandardCharsets.US_ASCII);
+            buffer.position(buffer.position() + nameLength);
+            int countPosition = buffer.position();
+            int count = buffer.getInt();
+            Material seedType = Material.getMaterial(name);
+            report.addSeeds(name, count);
+            if (registry.getBySeed(seedType) == null) {
+                report.anomalies.add(where + "unknown seed type " + name + " in universal bag");
+            }
+            int capacity = registry.getCapacity(seedType);
+            if (count > capacity) {
+                report.anomalies.add(where + count + " " + name + " in universal bag is over the capacity of " + capacity);
+                if (fix) {
+                    buffer.putInt(countPosition, capacity);
+                    report.seedsTrimmed += count - capacity;
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * @return True if a model data fix was planned.
+     */
+    private static boolean checkModelData(String where, NbtBagReader.Bag bag, int expected, ScanReport report, List<Patch> patches) {
+        if (expected == 0 || bag.modelDataStart < 0 || bag.modelData == expected) {
+            return false;
+        }
+        report.anomalies.add(where + "model data " + bag.modelData + " instead of " + expected);
+        if (patches == null) {
+            return false;
+        }
+        patches.add(intPatch(bag.modelDataStart, expected));
+        return true;
+    }
+
+    /**
+     * Plan replacing the stored name and lore of a fixed bag with freshly rendered ones.
+     */
+    private void renderPatches(NbtBagReader.Bag bag, Material seedType, int count, byte[] counts, List<Patch> patches) {
+        ItemMeta meta = plugin.getServer().getItemFactory().getItemMeta(Material.PAPER);
+        if (meta == null) {
+            return;
+        }
+        if (counts != null) {
+            renderer.renderUniversal(meta, seedType, SeedCounts.decode(counts));
+        } else {
+            renderer.render(meta, seedType, count);
+        }
+        GsonComponentSerializer serializer = GsonComponentSerializer.gson();
+        if (bag.nameStart >= 0 && meta.displayName() != null) {
+            patches.add(new Patch(bag.nameStart, bag.nameEnd, encode(out -> out.writeUTF(serializer.serialize(meta.displayName())))));
+        }
+        List<Component> lore = meta.lore();
+        if (bag.loreStart >= 0 && bag.loreIsText && lore != null) {
+            patches.add(new Patch(bag.loreStart, bag.loreEnd, encode(out -> {
+                out.writeByte(NbtBagReader.TAG_STRING);
+                out.writeInt(lore.size());
+                for (Component line : lore) {
+                    out.writeUTF(serializer.serialize(line));
+                }
+            })));
+        }
+    }
+
+    static Patch intPatch(long start, int value) {
+        return new Patch(start, start + 4, ByteBuffer.allocate(4).putInt(value).array());
+    }
+
+    static Patch byteArrayPatch(long start, long end, byte[] value) {
+        return new Patch(start, end, ByteBuffer.allocate(4 + value.length).putInt(value.length).put(value).array());
+    }
+
+    private static byte[] encode(Encoder encoder) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            encoder.write(out);
+        } catch (IOException e) {
+            // Only thrown for strings too long for NBT, which rendered text never is
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Copy the file through the patches into a temporary file and swap it in.
+     */
+    static void rewrite(Path file, List<Patch> patches) throws IOException {
+        patches.sort(Comparator.comparingLong(Patch::start));
+        Path tempFile = file.resolveSibling(file.getFileName() + ".seedbags.tmp");
+        try {
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(file), 16 * 1024);
+                 FileOutputStream fileOut = new FileOutputStream(tempFile.toFile())) {
+                GZIPOutputStream out = new GZIPOutputStream(new BufferedOutputStream(fileOut, 16 * 1024));
+                byte[] buffer = new byte[16 * 1024];
+                long position = 0L;
+                for (Patch patch : patches) {
+                    copy(in, out, patch.start - position, buffer);
+                    in.skipNBytes(patch.end - patch.start);
+                    out.write(patch.replacement);
+                    position = patch.end;
+                }
+                in.transferTo(out);
+                out.finish();
+                out.flush();
+                fileOut.getFD().sync();
+            }
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+    }
+
+    private static void copy(InputStream in, OutputStream out, long length, byte[] buffer) throws IOException {
+        while (length > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, length));
+            if (read < 0) {
+                throw new EOFException("Player data file changed while it was rewritten");
+            }
+            out.write(buffer, 0, read);
+            length -= read;
+        }
+    }
+
+    private Path writeReport(ScanReport report, List<String> summary) throws IOException {
+        Files.createDirectories(reportDirectory);
+        Path file = reportDirectory.resolve(LocalDateTime.now().format(REPORT_NAME));
+        List<String> lines = new ArrayList<>(summary);
+        lines.add("");
+        lines.add("Seeds by type:");
+        report.seeds.forEach((seedType, seeds) -> lines.add("  " + seedType + ": " + seeds));
+        lines.add("Bags by location:");
+        report.bagsBySection.forEach((section, bags) -> lines.add("  " + section + ": " + bags));
+        lines.add("Unreadable files (" + report.unreadable.size() + "):");
+        report.unreadable.forEach(line -> lines.add("  " + line));
+        lines.add("Anomalies (" + report.anomalies.size() + "):");
+        report.anomalies.forEach(line -> lines.add("  " + line));
+        Files.write(file, lines, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private void reply(CommandSender sender, List<String> lines) {
+        Runnable send = () -> lines.forEach(sender::sendMessage);
+        if (sender instanceof Player player) {
+            scheduler.runForEntity(player, send);
+        } else {
+            scheduler.runGlobal(send);
+        }
+    }
+
+    /**
+     * Writes an NBT value for a patch.
+     */
+    private interface Encoder {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * Replaces the bytes from start up to end of the decompressed stream.
+     */
+    record Patch(long start, long end, byte[] replacement) {
+    }
+
+    /**
+     * Scans a range of files, splitting it across the pool while it is large.
+     */
+    private final class ScanTask extends RecursiveTask<ScanReport> {
+        private final List<Path> files;
+        private final int from;
+        private final int to;
+        private final SeedRegistry registry;
+        private final boolean fix;
+
+        private ScanTask(List<Path> files, int from, int to, SeedRegistry registry, boolean fix) {
+            this.files = files;
+            this.from = from;
+            this.to = to;
+            this.registry = registry;
+            this.fix = fix;
+        }
+
+        @Override
+        protected ScanReport compute() {
+            if (to - from <= FILES_PER_TASK) {
+                ScanReport report = new ScanReport();
+                for (int i = from; i < to; i++) {
+                    scanFile(files.get(i), registry, fix, report);
+                }
+                return report;
+            }
+            int middle = (from + to) >>> 1;
+            ScanTask left = new ScanTask(files, from, middle, registry, fix);
+            left.fork();
+            ScanReport right = new ScanTask(files, middle, to, registry, fix).compute();
+            ScanReport report = left.join();
+            report.merge(right);
+            return report;
+        }
+    }
+
+    /**
+     * What a scan found, merged from the reports of its tasks in file order.
+     */
+    private static final class ScanReport {
+        private int files;
+        private int skippedOnline;
+        private int filesRewritten;
+        private long bags;
+        private long universalBags;
+        private long externalBags;
+        private long bagsFixed;
+        private long seedsTrimmed;
+        private final Map<String, Long> seeds = new TreeMap<>();
+        private final Map<String, Long> bagsBySection = new TreeMap<>();
+        private final List<String> unreadable = new ArrayList<>();
+        private final List<String> anomalies = new ArrayList<>();
+
+        private void addSeeds(String seedType, long count) {
+            seeds.merge(String.valueOf(seedType), count, Long::sum);
+        }
+
+        private void merge(ScanReport other) {
+            files += other.files;
+            skippedOnline += other.skippedOnline;
+            filesRewritten += other.filesRewritten;
+            bags += other.bags;
+            universalBags += other.universalBags;
+            externalBags += other.externalBags;
+            bagsFixed += other.bagsFixed;
+            seedsTrimmed += other.seedsTrimmed;
+            other.seeds.forEach((seedType, count) -> seeds.merge(seedType, count, Long::sum));
+            other.bagsBySection.forEach((section, count) -> bagsBySection.merge(section, count, Long::sum));
+            unreadable.addAll(other.unreadable);
+            anomalies.addAll(other.anomalies);
+        }
+
+        private List<String> summarize(boolean fix, long millis) {
+            List<String> lines = new ArrayList<>();
+            lines.add(String.format(Locale.ROOT, "Scanned %d player files in %dms: %d bags (%d universal, %d counted in the ledger or seed bank)",
+                    files, millis, bags, universalBags, externalBags));
+            long totalSeeds = seeds.values().stream().mapToLong(Long::longValue).sum();
+            lines.add(totalSeeds + " seeds of " + seeds.size() + " types, " + anomalies.size() + " anomalies, "
+                    + unreadable.size() + " unreadable files");
+            if (fix) {
+                lines.add("Fixed " + bagsFixed + " bags in " + filesRewritten + " files, trimming " + seedsTrimmed
+                        + " seeds over capacity; skipped " + skippedOnline + " online players");
+            }
+            return lines;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package me.kermx.seedBags;
+
+import org.bukkit.event.HandlerList;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.RegisteredListener;
+
+import java.util.Locale;
+
+/**
+ * When block changes made by seed bags are announced with a vanilla event each, for
+ * protection and logging plugins that do not listen to the plugin's own events.
+ */
+enum ProtectionEvents {
+    ALWAYS,
+    AUTO,
+    NEVER;
+
+    static ProtectionEvents fromConfig(String value) {
+        if (value == null) {
+            return AUTO;
+        }
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return AUTO;
+        }
+    }
+
+    /**
+     * Check whether the vanilla event needs to be fired: always, never, or in auto mode
+     * only while another plugin listens to it.
+     *
+     * @param handlers The handler list of the vanilla event.
+     * @param plugin   The main plugin instance, whose own listeners do not count.
+     */
+    boolean shouldFire(HandlerList handlers, Plugin plugin) {
+        return switch (this) {
+            case ALWAYS -> true;
+            case NEVER -> false;
+            case AUTO -> {
+                for (RegisteredListener listener : handlers.getRegisteredListeners()) {
+                    if (listener.getPlugin() != plugin) {
+                        yield true;
+                    }
+                }
+                yield false;
+            }
+        };
+    }
+}
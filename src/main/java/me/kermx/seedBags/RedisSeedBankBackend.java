@@ -0,0 +1,210 @@
+package me.kermx.seedBags;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * {@link SeedBankBackend} storing each player's balances in a Redis hash, for servers
+ * behind a proxy. It speaks the Redis protocol over one plain socket, so it works with
+ * Redis, its forks and any local stand-in that implements EVAL, HGET, HINCRBY, HSET and
+ * HGETALL. Each batch is one server-side script call that checks the batch number,
+ * applies the deltas and returns the hash, so a batch costs a single round trip and
+ * is atomic. The connection is opened lazily and dropped on any error, to be opened
+ * again by the next batch.
+ */
+public class RedisSeedBankBackend implements SeedBankBackend {
+    // Fields starting with this are bookkeeping, not seed types
+    private static final String SEQUENCE_PREFIX = "~seq:";
+    private static final String APPLY_SCRIPT = """
+            local last = tonumber(redis.call('HGET', KEYS[1], ARGV[1]) or '0')
+            if #ARGV > 2 and tonumber(ARGV[2]) > last then
+              for i = 3, #ARGV, 2 do
+                redis.call('HINCRBY', KEYS[1], ARGV[i], ARGV[i + 1])
+              end
+              redis.call('HSET', KEYS[1], ARGV[1], ARGV[2])
+            end
+            return redis.call('HGETALL', KEYS[1])""";
+
+    private final String host;
+    private final int port;
+    private final String password;
+    private final int database;
+    private final String keyPrefix;
+    private final int timeoutMillis;
+    private Socket socket;
+    private InputStream in;
+    private OutputStream out;
+
+    /**
+     * Constructor for RedisSeedBankBackend.
+     *
+     * @param host          The Redis host.
+     * @param port          The Redis port.
+     * @param password      The password, or null or empty for none.
+     * @param database      The database number.
+     * @param keyPrefix     The prefix of the hash keys, followed by the player's UUID.
+     * @param timeoutMillis The connect and read timeout.
+     */
+    public RedisSeedBankBackend(String host, int port, String password, int database, String keyPrefix, int timeoutMillis) {
+        this.host = host;
+        this.port = port;
+        this.password = password;
+        this.database = database;
+        this.keyPrefix = keyPrefix;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public String getName() {
+        return "redis " + host + ":" + port + "/" + database;
+    }
+
+    @Override
+    public Map<String, Long> apply(UUID owner, String serverId, long sequence, Map<String, Long> deltas) throws IOException {
+        List<String> command = new ArrayList<>(6 + deltas.size() * 2);
+        command.add("EVAL");
+        command.add(APPLY_SCRIPT);
+        command.add("1");
+        command.add(keyPrefix + owner);
+        command.add(SEQUENCE_PREFIX + serverId);
+        command.add(Long.toString(sequence));
+        for (Map.Entry<String, Long> delta : deltas.entrySet()) {
+            command.add(delta.getKey());
+            command.add(Long.toString(delta.getValue()));
+        }
+        Object reply = call(command);
+        if (!(reply instanceof List<?> fields)) {
+            throw new IOException("Unexpected reply to the seed bank script: " + reply);
+        }
+        Map<String, Long> balances = new HashMap<>();
+        for (int i = 0; i + 1 < fields.size(); i += 2) {
+            String field = String.valueOf(fields.get(i));
+            if (!field.startsWith(SEQUENCE_PREFIX)) {
+                try {
+                    balances.put(field, Long.parseLong(String.valueOf(fields.get(i + 1))));
+                } catch (NumberFormatException e) {
+                    // Not a balance written by this plugin
+                }
+            }
+        }
+        return balances;
+    }
+
+    /**
+     * Send one command and read its reply, connecting first if needed.
+     */
+    private Object call(List<String> command) throws IOException {
+        try {
+            if (socket == null) {
+                connect();
+            }
+            return send(command);
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private void connect() throws IOException {
+        Socket connection = new Socket();
+        connection.connect(new InetSocketAddress(host, port), timeoutMillis);
+        connection.setSoTimeout(timeoutMillis);
+        connection.setTcpNoDelay(true);
+        socket = connection;
+        in = new BufferedInputStream(connection.getInputStream());
+        out = new BufferedOutputStream(connection.getOutputStream());
+        if (password != null && !password.isEmpty()) {
+            send(List.of("AUTH", password));
+        }
+        if (database != 0) {
+            send(List.of("SELECT", Integer.toString(database)));
+        }
+    }
+
+    private Object send(List<String> command) throws IOException {
+        out.write(('*' + Integer.toString(command.size()) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        for (String argument : command) {
+            byte[] bytes = argument.getBytes(StandardCharsets.UTF_8);
+            out.write(('$' + Integer.toString(bytes.length) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.write(bytes);
+            out.write('\r');
+            out.write('\n');
+        }
+        out.flush();
+        return readReply();
+    }
+
+    private Object readReply() throws IOException {
+        int type = in.read();
+        String line = readLine();
+        switch (type) {
+            case '+' -> {
+                return line;
+            }
+            case '-' -> throw new IOException("Redis error: " + line);
+            case ':' -> {
+                return Long.parseLong(line);
+            }
+            case '$' -> {
+                int length = Integer.parseInt(line);
+                if (length < 0) {
+                    return null;
+                }
+                byte[] bytes = in.readNBytes(length + 2);
+                if (bytes.length < length + 2) {
+                    throw new EOFException("Redis connection closed");
+                }
+                return new String(bytes, 0, length, StandardCharsets.UTF_8);
+            }
+            case '*' -> {
+                int count = Integer.parseInt(line);
+                List<Object> elements = new ArrayList<>(Math.max(0, count));
+                for (int i = 0; i < count; i++) {
+                    elements.add(readReply());
+                }
+                return elements;
+            }
+            case -1 -> throw new EOFException("Redis connection closed");
+            default -> throw new IOException("Unexpected Redis reply type " + (char) type);
+        }
+    }
+
+    private String readLine() throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = in.read()) != '\r') {
+            if (c < 0) {
+                throw new EOFException("Redis connection closed");
+            }
+            line.append((char) c);
+        }
+        in.read();
+        return line.toString();
+    }
+
+    @Override
+    public void close() {
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // Closing anyway
+            }
+            socket = null;
+            in = null;
+            out = null;
+        }
+    }
+}
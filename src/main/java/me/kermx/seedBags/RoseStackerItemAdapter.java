@@ -0,0 +1,43 @@
+package me.kermx.seedBags;
+
+import dev.rosewood.rosestacker.api.RoseStackerAPI;
+import dev.rosewood.rosestacker.stack.StackedItem;
+import org.bukkit.entity.Item;
+
+/**
+ * {@link ItemStackerAdapter} for RoseStacker, whose stacked items stand for more
+ * items than their entity shows.
+ */
+public final class RoseStackerItemAdapter implements ItemStackerAdapter {
+    private final RoseStackerAPI rsAPI;
+
+    /**
+     * Constructor for RoseStackerItemAdapter. RoseStacker must be enabled.
+     */
+    public RoseStackerItemAdapter() {
+        this.rsAPI = RoseStackerAPI.getInstance();
+    }
+
+    @Override
+    public String getName() {
+        return "RoseStacker";
+    }
+
+    @Override
+    public int getAmount(Item item) {
+        if (!rsAPI.isItemStacked(item)) {
+            return item.getItemStack().getAmount();
+        }
+        StackedItem stackedItem = rsAPI.getStackedItem(item);
+        return stackedItem == null ? 0 : stackedItem.getStackSize();
+    }
+
+    @Override
+    public void remove(Item item) {
+        StackedItem stackedItem = rsAPI.isItemStacked(item) ? rsAPI.getStackedItem(item) : null;
+        item.remove();
+        if (stackedItem != null) {
+            rsAPI.removeItemStack(stackedItem);
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package me.kermx.seedBags;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.PlayerDeathEvent;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.player.PlayerDropItemEvent;
+import org.bukkit.event.player.PlayerItemHeldEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerSwapHandItemsEvent;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Coalesces seed pickups and replant withdrawals into an in-memory per-player,
+ * per-bag counter and writes each touched bag once at the end of the tick, instead
+ * of rewriting the bag's meta for every absorbed stack or replanted crop.
+ * Pending seeds are also flushed before anything can move a bag: slot changes,
+ * inventory interaction, drops, death, quit and plugin shutdown.
+ * Each player's pending bags are only touched from the thread that owns the player,
+ * and the end of tick write is scheduled on that player, so on Folia every region
+ * flushes its own players.
+ */
+public class SeedBagAccumulator implements Listener {
+    private final Plugin plugin;
+    private final SeedBagScheduler scheduler;
+    private final Map<UUID, Map<Integer, PendingBag>> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for SeedBagAccumulator.
+     *
+     * @param plugin    The main plugin instance.
+     * @param scheduler The scheduler used for the end of tick write.
+     */
+    public SeedBagAccumulator(Plugin plugin, SeedBagScheduler scheduler) {
+        this.plugin = plugin;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Add seeds to the pending count of a seed bag.
+     * The bag's stored count is read once per tick; capacity is enforced against
+     * the stored count plus everything accumulated since.
+     *
+     * @param player   The player holding the bag.
+     * @param slot     The inventory slot of the bag.
+     * @param seedBag  The seed bag ItemStack.
+     * @param seedType The seed type of the bag.
+     * @param amount   The number of seeds to add.
+     * @return The number of seeds that could not be added.
+     */
+    public int deposit(Player player, int slot, ItemStack seedBag, Material seedType, int amount) {
+        PendingBag bag = getPendingBag(player, slot, seedBag, seedType);
+        int added = bag.added.get(seedType);
+        int freeSpace = SeedRegistry.get().getCapacity(seedType) - bag.stored.get(seedType) - added;
+        if (freeSpace <= 0) {
+            return amount;
+        }
+        int seedsToAdd = Math.min(amount, freeSpace);
+        bag.added.set(seedType, added + seedsToAdd);
+        return amount - seedsToAdd;
+    }
+
+    /**
+     * Take seeds from the pending count of a seed bag.
+     *
+     * @param player   The player holding the bag.
+     * @param slot     The inventory slot of the bag.
+     * @param seedBag  The seed bag ItemStack.
+     * @param seedType The seed type of the bag.
+     * @param amount   The number of seeds to take.
+     * @return The number of seeds taken; less than requested if the bag runs out.
+     */
+    public int withdraw(Player player, int slot, ItemStack seedBag, Material seedType, int amount) {
+        PendingBag bag = getPendingBag(player, slot, seedBag, seedType);
+        int added = bag.added.get(seedType);
+        int seedsToTake = Math.min(amount, bag.stored.get(seedType) + added);
+        if (seedsToTake <= 0) {
+            return 0;
+        }
+        bag.added.set(seedType, added - seedsToTake);
+        return seedsToTake;
+    }
+
+    private PendingBag getPendingBag(Player player, int slot, ItemStack seedBag, Material seedType) {
+        Map<Integer, PendingBag> bags = pending.get(player.getUniqueId());
+        if (bags == null) {
+            bags = new HashMap<>();
+            pending.put(player.getUniqueId(), bags);
+            // The stored counts are only trusted until the end of this tick
+            scheduler.runForEntityNextTick(player, () -> flush(player));
+        }
+        PendingBag bag = bags.get(slot);
+        if (bag == null) {
+            // A universal bag is decoded once, covering every seed type deposited this tick
+            SeedCounts stored = SeedBagUtil.getSeedCounts(seedBag);
+            if (stored == null) {
+                stored = new SeedCounts();
+                stored.set(seedType, SeedBagUtil.getSeedCount(player, seedBag, seedType));
+                bag = new PendingBag(seedType, stored);
+            } else {
+                bag = new PendingBag(null, stored);
+            }
+            bags.put(slot, bag);
+        }
+        return bag;
+    }
+
+    /**
+     * Write all pending seeds of a player to their bags.
+     *
+     * @param player The player to flush.
+     */
+    public void flush(Player player) {
+        Map<Integer, PendingBag> bags = pending.remove(player.getUniqueId());
+        if (bags != null) {
+            flush(player, bags);
+        }
+    }
+
+    /**
+     * Write all pending seeds of every player to their bags.
+     * Only safe while no other thread touches the players, such as on shutdown.
+     */
+    public void flushAll() {
+        for (UUID playerId : pending.keySet()) {
+            Player player = Bukkit.getPlayer(playerId);
+            Map<Integer, PendingBag> bags = pending.remove(playerId);
+            if (player != null && bags != null) {
+                flush(player, bags);
+            }
+        }
+    }
+
+    private void flush(Player player, Map<Integer, PendingBag> bags) {
+        PlayerInventory inventory = player.getInventory();
+        for (Map.Entry<Integer, PendingBag> entry : bags.entrySet()) {
+            PendingBag bag = entry.getValue();
+            ItemStack seedBag = inventory.getItem(entry.getKey());
+            // Checked and written from one copy of the meta
+            ItemMeta meta = SeedBagUtil.getBagMeta(seedBag);
+            boolean universal = SeedBagUtil.isUniversal(meta);
+            if (bag.seedType != null && !universal && SeedBagUtil.getSeedType(meta) == bag.seedType) {
+                int added = bag.added.get(bag.seedType);
+                if (added != 0) {
+                    // As a delta, so bank bags sharing a balance do not overwrite each other
+                    SeedBagUtil.addSeedCount(player, entry.getKey(), seedBag, meta, bag.seedType, added);
+                }
+            } else if (bag.seedType == null && universal) {
+                if (hasChanges(bag.added)) {
+                    // As deltas too, against the counts on the bag now rather than those read this tick
+                    SeedBagUtil.addSeedCounts(player, entry.getKey(), seedBag, meta, bag.added);
+                }
+            } else {
+                for (int i = 0; i < bag.added.size(); i++) {
+                    returnPending(player, bag.added.getSeedType(i), bag.added.getCount(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * Hand back seeds pending for a bag that was moved by something we could not intercept.
+     */
+    private void returnPending(Player player, Material seedType, int added) {
+        if (added < 0) {
+            plugin.getLogger().warning("Seed bag of " + player.getName() + " moved before replanted seeds were taken, "
+                    + -added + " " + seedType + " were not taken from it.");
+        } else if (added > 0) {
+            plugin.getLogger().warning("Seed bag of " + player.getName() + " moved before pending seeds were written, returning "
+                    + added + " " + seedType + " to the inventory.");
+            Map<Integer, ItemStack> remaining = player.getInventory().addItem(new ItemStack(seedType, added));
+            for (ItemStack rem : remaining.values()) {
+                player.getWorld().dropItemNaturally(player.getLocation(), rem);
+            }
+        }
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onItemHeld(PlayerItemHeldEvent event) {
+        flush(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onInventoryClick(InventoryClickEvent event) {
+        if (event.getWhoClicked() instanceof Player player) {
+            flush(player);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onInventoryDrag(InventoryDragEvent event) {
+        if (event.getWhoClicked() instanceof Player player) {
+            flush(player);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onInventoryClose(InventoryCloseEvent event) {
+        if (event.getPlayer() instanceof Player player) {
+            flush(player);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onSwapHandItems(PlayerSwapHandItemsEvent event) {
+        flush(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onDropItem(PlayerDropItemEvent event) {
+        flush(event.getPlayer());
+    }
+
+    // After PlantingScheduler has added the seeds of a cancelled planting job as a withdrawal
+    @EventHandler(priority = EventPriority.LOW)
+    public void onPlayerDeath(PlayerDeathEvent event) {
+        if (event.getKeepInventory()) {
+            flush(event.getEntity());
+            return;
+        }
+        // The drops are already copied out of the inventory, so pending seeds are written to the dropped bags
+        Player player = event.getEntity();
+        Map<Integer, PendingBag> bags = pending.remove(player.getUniqueId());
+        if (bags == null) {
+            return;
+        }
+        List<ItemStack> drops = event.getDrops();
+        Set<ItemStack> written = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Map.Entry<Integer, PendingBag> entry : bags.entrySet()) {
+            PendingBag bag = entry.getValue();
+            ItemStack seedBag = player.getInventory().getItem(entry.getKey());
+            ItemStack dropped = null;
+            if (seedBag != null) {
+                for (ItemStack drop : drops) {
+                    if (!written.contains(drop) && drop.isSimilar(seedBag)) {
+                        dropped = drop;
+                        break;
+                    }
+                }
+            }
+            if (dropped != null && writePending(dropped, bag)) {
+                written.add(dropped);
+                continue;
+            }
+            // The bag does not drop, so added seeds drop loose and taken ones cannot be charged
+            for (int i = 0; i < bag.added.size(); i++) {
+                Material seedType = bag.added.getSeedType(i);
+                int added = bag.added.getCount(i);
+                if (added < 0) {
+                    plugin.getLogger().warning("Seed bag of " + player.getName() + " did not drop on death, "
+                            + -added + " replanted " + seedType + " were not taken from it.");
+                }
+                while (added > 0) {
+                    int amount = Math.min(added, seedType.getMaxStackSize());
+                    drops.add(new ItemStack(seedType, amount));
+                    added -= amount;
+                }
+            }
+        }
+    }
+
+    /**
+     * Write a bag's pending seeds to a copy of it that is no longer in the inventory.
+     *
+     * @return False if the copy is not the kind of bag the seeds are pending for.
+     */
+    private static boolean writePending(ItemStack seedBag, PendingBag bag) {
+        if (bag.seedType != null && !SeedBagUtil.isUniversal(seedBag) && SeedBagUtil.getSeedType(seedBag) == bag.seedType) {
+            int added = bag.added.get(bag.seedType);
+            if (added != 0) {
+                SeedBagUtil.addSeedCount(seedBag, bag.seedType, added);
+            }
+            return true;
+        }
+        if (bag.seedType == null && SeedBagUtil.isUniversal(seedBag)) {
+            if (hasChanges(bag.added)) {
+                SeedBagUtil.addSeedCounts(seedBag, bag.added);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean hasChanges(SeedCounts added) {
+        for (int i = 0; i < added.size(); i++) {
+            if (added.getCount(i) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        flush(event.getPlayer());
+    }
+
+    /**
+     * Seeds accumulated for one bag since its last write.
+     */
+    private static final class PendingBag {
+        // The seed type of a single bag; null for a universal bag
+        private final Material seedType;
+        private final SeedCounts stored;
+        private final SeedCounts added = new SeedCounts();
+
+        private PendingBag(Material seedType, SeedCounts stored) {
+            this.seedType = seedType;
+            this.stored = stored;
+        }
+    }
+}
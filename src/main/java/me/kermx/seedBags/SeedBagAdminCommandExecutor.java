@@ -0,0 +1,337 @@
+package me.kermx.seedBags;
+
+import org.bukkit.Material;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command executor and tab completer for the /seedbags command.
+ */
+public class SeedBagAdminCommandExecutor implements CommandExecutor, TabCompleter {
+    private final Plugin plugin;
+    private final SeedBagStats stats;
+    private final SeedBagStatsExporter exporter;
+    private final SeedBagTransfer transfer;
+    private final SeedBagRecorder recorder;
+    private final PlayerDataScanner scanner;
+
+    /**
+     * Constructor for SeedBagAdminCommandExecutor.
+     *
+     * @param plugin   The main plugin instance.
+     * @param stats    The hot path statistics.
+     * @param exporter The statistics exporter.
+     * @param transfer The bulk deposit and withdraw handler.
+     * @param recorder The traffic recorder.
+     * @param scanner  The offline player data scanner.
+     */
+    public SeedBagAdminCommandExecutor(Plugin plugin, SeedBagStats stats, SeedBagStatsExporter exporter, SeedBagTransfer transfer,
+                                       SeedBagRecorder recorder, PlayerDataScanner scanner) {
+        this.plugin = plugin;
+        this.stats = stats;
+        this.exporter = exporter;
+        this.transfer = transfer;
+        this.recorder = recorder;
+        this.scanner = scanner;
+    }
+
+    /**
+     * Handle the /seedbags command and dispatch to its subcommands.
+     *
+     * @param sender  The sender of the command.
+     * @param command The command being executed.
+     * @param label   The alias of the command used.
+     * @param args    The arguments passed to the command.
+     * @return True if the command was successful, false otherwise.
+     */
+    @Override
+    public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, String[] args) {
+        if (args.length == 0) {
+            sender.sendMessage("Usage: /seedbags <deposit|withdraw|stats|record|scan|reload>");
+            return true;
+        }
+
+        if (args[0].equalsIgnoreCase("stats")) {
+            return onStatsCommand(sender, args);
+        }
+        if (args[0].equalsIgnoreCase("reload")) {
+            return onReloadCommand(sender);
+        }
+        if (args[0].equalsIgnoreCase("record")) {
+            return onRecordCommand(sender, args);
+        }
+        if (args[0].equalsIgnoreCase("scan")) {
+            return onScanCommand(sender, args);
+        }
+        if (args[0].equalsIgnoreCase("deposit")) {
+            return onDepositCommand(sender);
+        }
+        if (args[0].equalsIgnoreCase("withdraw")) {
+            return onWithdrawCommand(sender, args);
+        }
+
+        sender.sendMessage("Unknown subcommand.");
+        return false;
+    }
+
+    /**
+     * Handle /seedbags deposit: move every loose seed stack into matching bags.
+     */
+    private boolean onDepositCommand(CommandSender sender) {
+        if (!(sender instanceof Player player)) {
+            sender.sendMessage("This command can only be used by players.");
+            return true;
+        }
+        if (!sender.hasPermission("seedbags.transfer")) {
+            sender.sendMessage("You do not have permission to do that.");
+            return true;
+        }
+        sendDepositResult(player, transfer.deposit(player));
+        return true;
+    }
+
+    /**
+     * Tell the player how a deposit went.
+     *
+     * @param player The player who deposited.
+     * @param result The outcome of the deposit.
+     */
+    static void sendDepositResult(Player player, SeedBagTransfer.Result result) {
+        if (result.moved() == 0 && result.leftover() == 0) {
+            player.sendMessage("You have no loose seeds to deposit.");
+        } else if (result.leftover() == 0) {
+            player.sendMessage("Deposited " + result.moved() + " seeds into your seed bags.");
+        } else {
+            player.sendMessage("Deposited " + result.moved() + " seeds; " + result.leftover()
+                    + " did not fit in your seed bags.");
+        }
+    }
+
+    /**
+     * Handle /seedbags withdraw: move seeds of one type out of the bags into the inventory.
+     */
+    private boolean onWithdrawCommand(CommandSender sender, String[] args) {
+        if (!(sender instanceof Player player)) {
+            sender.sendMessage("This command can only be used by players.");
+            return true;
+        }
+        if (!sender.hasPermission("seedbags.transfer")) {
+            sender.sendMessage("You do not have permission to do that.");
+            return true;
+        }
+        if (args.length < 3) {
+            sender.sendMessage("Usage: /seedbags withdraw <seedtype> <amount>");
+            return false;
+        }
+        SeedRegistry.SeedDefinition seed = SeedRegistry.get().getByName(args[1].toLowerCase());
+        if (seed == null) {
+            sender.sendMessage("Invalid seed type.");
+            return false;
+        }
+        int amount;
+        try {
+            amount = Integer.parseInt(args[2]);
+        } catch (NumberFormatException e) {
+            amount = -1;
+        }
+        if (amount <= 0) {
+            sender.sendMessage("The amount must be a positive number.");
+            return false;
+        }
+        Material seedType = seed.seedType();
+        SeedBagTransfer.Result result = transfer.withdraw(player, seedType, amount);
+        if (result.moved() == 0) {
+            sender.sendMessage("No " + seed.displayName() + " could be withdrawn.");
+        } else {
+            sender.sendMessage("Withdrew " + result.moved() + " " + seed.displayName() + " from your seed bags.");
+        }
+        return true;
+    }
+
+    /**
+     * Handle /seedbags reload: rebuild the seed registry from the config.
+     * Other settings are only read on startup.
+     */
+    private boolean onReloadCommand(CommandSender sender) {
+        if (!sender.hasPermission("seedbags.reload")) {
+            sender.sendMessage("You do not have permission to do that.");
+            return true;
+        }
+        SeedBags.getInstance().reloadSeedRegistry();
+        sender.sendMessage("Reloaded " + SeedRegistry.get().getDefinitions().size() + " seed types.");
+        return true;
+    }
+
+    /**
+     * Handle /seedbags record: start or stop recording pickup and planting traffic.
+     */
+    private boolean onRecordCommand(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("seedbags.record")) {
+            sender.sendMessage("You do not have permission to do that.");
+            return true;
+        }
+        if (args.length < 2) {
+            sender.sendMessage("Seed bag traffic recording is " + (recorder.isRecording() ? "running." : "stopped."));
+            return true;
+        }
+        switch (args[1].toLowerCase()) {
+            case "start" -> {
+                Path file = recorder.start();
+                sender.sendMessage(file == null ? "A recording is already running." : "Recording seed bag traffic to " + file);
+            }
+            case "stop" -> {
+                String summary = recorder.stop();
+                sender.sendMessage(summary == null ? "No recording is running." : "Recording stopped: " + summary);
+            }
+            default -> {
+                sender.sendMessage("Usage: /seedbags record [start|stop]");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Handle /seedbags scan: audit the seed bags in offline player data, and with
+     * "fix" migrate stale ones.
+     */
+    private boolean onScanCommand(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("seedbags.scan")) {
+            sender.sendMessage("You do not have permission to do that.");
+            return true;
+        }
+        boolean fix = args.length >= 2 && args[1].equalsIgnoreCase("fix");
+        if (args.length >= 2 && !fix) {
+            sender.sendMessage("Usage: /seedbags scan [fix]");
+            return false;
+        }
+        if (!scanner.start(sender, fix)) {
+            sender.sendMessage("A player data scan is already running.");
+            return true;
+        }
+        sender.sendMessage(fix ? "Scanning player data and fixing the bags of offline players..." : "Scanning player data...");
+        return true;
+    }
+
+    /**
+     * Handle /seedbags stats: show the statistics or toggle recording and exporters.
+     */
+    private boolean onStatsCommand(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("seedbags.stats")) {
+            sender.sendMessage("You do not have permission to do that.");
+            return true;
+        }
+
+        if (args.length == 1) {
+            for (String line : stats.toLines()) {
+                sender.sendMessage(line);
+            }
+            sender.sendMessage("HTTP endpoint " + (exporter.isHttpRunning() ? "running" : "stopped")
+                    + ", file dump " + (exporter.isFileDumpRunning() ? "running" : "stopped"));
+            return true;
+        }
+
+        FileConfiguration config = plugin.getConfig();
+        switch (args[1].toLowerCase()) {
+            case "on" -> {
+                stats.setEnabled(true);
+                sender.sendMessage("Seed bag stats recording enabled.");
+            }
+            case "off" -> {
+                stats.setEnabled(false);
+                sender.sendMessage("Seed bag stats recording disabled.");
+            }
+            case "reset" -> {
+                stats.reset();
+                sender.sendMessage("Seed bag stats reset.");
+            }
+            case "http" -> {
+                if (args.length < 3) {
+                    sender.sendMessage("Usage: /seedbags stats http <on|off>");
+                    return false;
+                }
+                if (args[2].equalsIgnoreCase("on")) {
+                    try {
+                        exporter.startHttp(config.getString("stats.http.host", "127.0.0.1"), config.getInt("stats.http.port", 9465));
+                        sender.sendMessage("Seed bag metrics endpoint started.");
+                    } catch (IOException e) {
+                        sender.sendMessage("Could not start the metrics endpoint: " + e.getMessage());
+                    }
+                } else {
+                    exporter.stopHttp();
+                    sender.sendMessage("Seed bag metrics endpoint stopped.");
+                }
+            }
+            case "file" -> {
+                if (args.length < 3) {
+                    sender.sendMessage("Usage: /seedbags stats file <on|off>");
+                    return false;
+                }
+                if (args[2].equalsIgnoreCase("on")) {
+                    exporter.startFileDump(config.getLong("stats.file.interval-seconds", 60L));
+                    sender.sendMessage("Seed bag stats file dump started.");
+                } else {
+                    exporter.stopFileDump();
+                    sender.sendMessage("Seed bag stats file dump stopped.");
+                }
+            }
+            default -> {
+                sender.sendMessage("Usage: /seedbags stats [on|off|reset|http <on|off>|file <on|off>]");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Handle tab completion for the /seedbags command.
+     *
+     * @param sender  The sender of the command.
+     * @param command The command being executed.
+     * @param label   The alias of the command used.
+     * @param args    The arguments passed to the command.
+     * @return A list of suggestions based on the input.
+     */
+    @Override
+    public @Nullable List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+        List<String> options = switch (args.length) {
+            case 1 -> List.of("deposit", "withdraw", "stats", "record", "scan", "reload");
+            case 2 -> {
+                if (args[0].equalsIgnoreCase("stats")) {
+                    yield List.of("on", "off", "reset", "http", "file");
+                }
+                if (args[0].equalsIgnoreCase("record")) {
+                    yield List.of("start", "stop");
+                }
+                if (args[0].equalsIgnoreCase("scan")) {
+                    yield List.of("fix");
+                }
+                yield args[0].equalsIgnoreCase("withdraw") ? List.copyOf(SeedRegistry.get().getNames()) : List.<String>of();
+            }
+            case 3 -> args[0].equalsIgnoreCase("stats") && (args[1].equalsIgnoreCase("http") || args[1].equalsIgnoreCase("file"))
+                    ? List.of("on", "off") : List.of();
+            default -> List.of();
+        };
+
+        String input = args[args.length - 1].toLowerCase();
+        List<String> suggestions = new ArrayList<>();
+        for (String option : options) {
+            if (option.startsWith(input)) {
+                suggestions.add(option);
+            }
+        }
+        return suggestions;
+    }
+}
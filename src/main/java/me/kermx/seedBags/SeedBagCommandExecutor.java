@@ -18,44 +18,26 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Command executor and tab completer for the /getseedbag command.
  */
 public class SeedBagCommandExecutor implements CommandExecutor, TabCompleter {
+    private static final String UNIVERSAL = "universal";
+
     private final Plugin plugin;
-    private final List<Material> plantableSeeds = Arrays.asList(
-            Material.WHEAT_SEEDS, Material.BEETROOT_SEEDS,
-            Material.CARROT, Material.POTATO, Material.NETHER_WART,
-            Material.MELON_SEEDS, Material.PUMPKIN_SEEDS
-    );
-    private final Map<String, Material> seedSynonyms = new HashMap<>();
+    private final SeedBagIndex bagIndex;
 
     /**
      * Constructor for SeedBagCommandExecutor.
      *
-     * @param plugin The main plugin instance.
+     * @param plugin   The main plugin instance.
+     * @param bagIndex The per-player seed bag slot index.
      */
-    public SeedBagCommandExecutor(Plugin plugin) {
+    public SeedBagCommandExecutor(Plugin plugin, SeedBagIndex bagIndex) {
         this.plugin = plugin;
-        initializeSeedSynonyms();
-    }
-
-    /**
-     * Initialize seed type synonyms to allow for more flexible input.
-     */
-    private void initializeSeedSynonyms() {
-        seedSynonyms.put("wheat", Material.WHEAT_SEEDS);
-        seedSynonyms.put("beetroot", Material.BEETROOT_SEEDS);
-        seedSynonyms.put("carrot", Material.CARROT);
-        seedSynonyms.put("potato", Material.POTATO);
-        seedSynonyms.put("nether_wart", Material.NETHER_WART);
-        seedSynonyms.put("melon", Material.MELON_SEEDS);
-        seedSynonyms.put("pumpkin", Material.PUMPKIN_SEEDS);
+        this.bagIndex = bagIndex;
     }
 
     /**
@@ -84,20 +66,26 @@ public class SeedBagCommandExecutor implements CommandExecutor, TabCompleter {
         }
 
         String seedTypeString = args[0].toLowerCase();
-        Material seedMaterial = seedSynonyms.get(seedTypeString);
-
-        if (seedMaterial == null) {
-            player.sendMessage("Invalid seed type.");
-            return false;
+        if (seedTypeString.equals(UNIVERSAL)) {
+            if (SeedRegistry.get().getDefinitions().isEmpty()) {
+                player.sendMessage("No seed types are configured.");
+                return true;
+            }
+            player.getInventory().addItem(createUniversalBag());
+            bagIndex.invalidate(player);
+            player.sendMessage("You have received a universal seed bag.");
+            return true;
         }
+        SeedRegistry.SeedDefinition seed = SeedRegistry.get().getByName(seedTypeString);
 
-        if (!plantableSeeds.contains(seedMaterial)) {
+        if (seed == null) {
             player.sendMessage("Invalid seed type.");
             return false;
         }
 
-        ItemStack seedBag = createSeedBag(seedMaterial);
+        ItemStack seedBag = createSeedBag(seed);
         player.getInventory().addItem(seedBag);
+        bagIndex.invalidate(player);
         player.sendMessage("You have received a seed bag for " + seedTypeString.replace('_', ' ') + ".");
         return true;
     }
@@ -105,20 +93,20 @@ public class SeedBagCommandExecutor implements CommandExecutor, TabCompleter {
     /**
      * Create a seed bag item with the specified seed material.
      *
-     * @param seedMaterial The seed material for the seed bag.
+     * @param seed The seed type of the seed bag.
      * @return The created seed bag item.
      */
-    private ItemStack createSeedBag(Material seedMaterial) {
+    private ItemStack createSeedBag(SeedRegistry.SeedDefinition seed) {
         ItemStack seedBag = new ItemStack(Material.PAPER);
         ItemMeta meta = seedBag.getItemMeta();
         if (meta == null) {
             return seedBag;
         }
 
-        meta.getPersistentDataContainer().set(SeedBags.SEED_TYPE_KEY, PersistentDataType.STRING, seedMaterial.toString());
+        meta.getPersistentDataContainer().set(SeedBags.SEED_TYPE_KEY, PersistentDataType.STRING, seed.seedType().toString());
         meta.getPersistentDataContainer().set(SeedBags.SEED_COUNT_KEY, PersistentDataType.INTEGER, 0);
 
-        meta.setCustomModelData(getCustomModelDataForSeed(seedMaterial));
+        meta.setCustomModelData(seed.modelData());
         meta.setMaxStackSize(1);
         seedBag.setItemMeta(meta);
 
@@ -128,22 +116,29 @@ public class SeedBagCommandExecutor implements CommandExecutor, TabCompleter {
     }
 
     /**
-     * Map each seed material to its unique custom model data value.
+     * Create a universal seed bag, holding every registered seed type, with the
+     * first registered seed type active.
      *
-     * @param seedMaterial The seed material.
-     * @return The custom model data value.
+     * @return The created seed bag item.
      */
-    private int getCustomModelDataForSeed(Material seedMaterial) {
-        return switch (seedMaterial) {
-            case WHEAT_SEEDS -> 900;
-            case BEETROOT_SEEDS -> 904;
-            case CARROT -> 903;
-            case POTATO -> 901;
-            case NETHER_WART -> 902;
-            case MELON_SEEDS -> 899;
-            case PUMPKIN_SEEDS -> 898;
-            default -> 0;
-        };
+    private ItemStack createUniversalBag() {
+        ItemStack seedBag = new ItemStack(Material.PAPER);
+        ItemMeta meta = seedBag.getItemMeta();
+        if (meta == null) {
+            return seedBag;
+        }
+
+        Material activeSeed = SeedRegistry.get().getDefinitions().get(0).seedType();
+        meta.getPersistentDataContainer().set(SeedBags.SEED_TYPE_KEY, PersistentDataType.STRING, activeSeed.toString());
+        meta.getPersistentDataContainer().set(SeedBags.SEED_COUNTS_KEY, PersistentDataType.BYTE_ARRAY, new SeedCounts().encode());
+
+        meta.setCustomModelData(plugin.getConfig().getInt("universal-bag.model-data", 905));
+        meta.setMaxStackSize(1);
+        seedBag.setItemMeta(meta);
+
+        SeedBagUtil.updateSeedBagMeta(seedBag);
+
+        return seedBag;
     }
 
     /**
@@ -161,11 +156,14 @@ public class SeedBagCommandExecutor implements CommandExecutor, TabCompleter {
             String input = args[0].toLowerCase();
             List<String> suggestions = new ArrayList<>();
 
-            for (String synonym : seedSynonyms.keySet()) {
+            for (String synonym : SeedRegistry.get().getNames()) {
                 if (synonym.startsWith(input)) {
                     suggestions.add(synonym);
                 }
             }
+            if (UNIVERSAL.startsWith(input)) {
+                suggestions.add(UNIVERSAL);
+            }
             return suggestions;
         }
         return null;
@@ -0,0 +1,332 @@
+package me.kermx.seedBags;
+
+import io.papermc.paper.event.player.PlayerInventorySlotChangeEvent;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityPickupItemEvent;
+import org.bukkit.event.entity.PlayerDeathEvent;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.player.PlayerDropItemEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerSwapHandItemsEvent;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-player index of seed bag slots, keyed by seed type. Universal bags are
+ * indexed separately and appended to the slots of every registered seed type.
+ * The index is built lazily on the first lookup and marked dirty by every event
+ * that can move a seed bag, so pickups can find their bags without scanning
+ * and cloning the meta of every inventory slot.
+ * In bank mode only the first bank bag of each seed type is indexed: every bank bag
+ * a player carries shows the same balance, and listing them all would let one
+ * transfer count that balance more than once. Scanning never changes the inventory;
+ * bags are claimed for their holder by {@link SeedBank}.
+ * Entries are only read and rebuilt by the thread that owns the player; the map
+ * itself is shared between region threads on Folia.
+ */
+public class SeedBagIndex implements Listener {
+    private static final int[] NO_SLOTS = new int[0];
+
+    private final Plugin plugin;
+    private final Map<UUID, PlayerBags> players = new ConcurrentHashMap<>();
+    private volatile boolean verify;
+
+    /**
+     * Constructor for SeedBagIndex.
+     *
+     * @param plugin The main plugin instance.
+     * @param verify Whether every lookup should be checked against a full inventory scan.
+     */
+    public SeedBagIndex(Plugin plugin, boolean verify) {
+        this.plugin = plugin;
+        this.verify = verify;
+    }
+
+    public void setVerify(boolean verify) {
+        this.verify = verify;
+    }
+
+    /**
+     * Get the inventory slots holding seed bags of the given seed type.
+     *
+     * @param player   The player whose inventory to look up.
+     * @param seedType The seed type to match.
+     * @return The matching single seed bag slots in inventory order, followed by the
+     *         universal bag slots; never null.
+     */
+    public int[] getBagSlots(Player player, Material seedType) {
+        PlayerBags bags = getBags(player);
+        int[] slots = bags.slotsBySeed.get(seedType);
+        if (slots == null) {
+            slots = NO_SLOTS;
+        }
+        if (bags.universalSlots.length > 0 && SeedRegistry.get().isSeed(seedType)) {
+            int[] single = slots;
+            slots = bags.mergedBySeed.computeIfAbsent(seedType, type -> concat(single, bags.universalSlots));
+        }
+        if (verify) {
+            verify(player, seedType, slots);
+        }
+        return slots;
+    }
+
+    /**
+     * Check whether the player carries a seed bag of any type.
+     *
+     * @param player The player to check.
+     * @return True if at least one seed bag is in the player's inventory.
+     */
+    public boolean hasAnyBag(Player player) {
+        PlayerBags bags = getBags(player);
+        return !bags.slotsBySeed.isEmpty() || bags.universalSlots.length > 0;
+    }
+
+    /**
+     * Check whether the player carries a seed bag of any type in the hotbar or off hand.
+     *
+     * @param player The player to check.
+     * @return True if at least one seed bag is in slots 0-8 or the off hand slot.
+     */
+    public boolean hasHotbarBag(Player player) {
+        PlayerBags bags = getBags(player);
+        for (int[] slots : bags.slotsBySeed.values()) {
+            if (inHotbar(slots)) {
+                return true;
+            }
+        }
+        return inHotbar(bags.universalSlots);
+    }
+
+    private static boolean inHotbar(int[] slots) {
+        for (int slot : slots) {
+            if (slot < 9 || slot == 40) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Mark the player's index as stale so it is rebuilt on the next lookup.
+     *
+     * @param player The player whose inventory changed.
+     */
+    public void invalidate(Player player) {
+        PlayerBags bags = players.get(player.getUniqueId());
+        if (bags != null) {
+            bags.dirty = true;
+        }
+    }
+
+    /**
+     * Compare the player's index against a full inventory scan.
+     *
+     * @param player The player to check.
+     * @return A description of every mismatch; empty if the index is accurate.
+     */
+    public List<String> verify(Player player) {
+        List<String> mismatches = new ArrayList<>();
+        PlayerBags bags = getBags(player);
+        Map<Material, int[]> indexed = bags.slotsBySeed;
+        Map<Material, int[]> scanned = scan(player);
+        int[] universal = scanUniversal(player.getInventory());
+        if (!Arrays.equals(universal, bags.universalSlots)) {
+            mismatches.add("universal: indexed " + Arrays.toString(bags.universalSlots) + ", scanned " + Arrays.toString(universal));
+        }
+        for (Material seedType : Material.values()) {
+            int[] expected = scanned.getOrDefault(seedType, NO_SLOTS);
+            int[] actual = indexed.getOrDefault(seedType, NO_SLOTS);
+            if (!Arrays.equals(expected, actual)) {
+                mismatches.add(seedType + ": indexed " + Arrays.toString(actual) + ", scanned " + Arrays.toString(expected));
+            }
+        }
+        return mismatches;
+    }
+
+    private void verify(Player player, Material seedType, int[] slots) {
+        int[] expected = scan(player).getOrDefault(seedType, NO_SLOTS);
+        if (SeedRegistry.get().isSeed(seedType)) {
+            expected = concat(expected, scanUniversal(player.getInventory()));
+        }
+        if (!Arrays.equals(expected, slots)) {
+            plugin.getLogger().warning("Seed bag index mismatch for " + player.getName() + " (" + seedType
+                    + "): indexed " + Arrays.toString(slots) + ", scanned " + Arrays.toString(expected));
+            invalidate(player);
+        }
+    }
+
+    private PlayerBags getBags(Player player) {
+        PlayerBags bags = players.computeIfAbsent(player.getUniqueId(), uuid -> new PlayerBags());
+        if (bags.dirty || !bags.isValid(player.getInventory())) {
+            bags.slotsBySeed = scan(player);
+            bags.universalSlots = scanUniversal(player.getInventory());
+            bags.mergedBySeed.clear();
+            bags.dirty = false;
+        }
+        return bags;
+    }
+
+    /**
+     * Scan every slot of the player's inventory for seed bags.
+     *
+     * @param player The player whose inventory to scan.
+     * @return The seed bag slots grouped by seed type.
+     */
+    private static Map<Material, int[]> scan(Player player) {
+        Map<Material, int[]> slotsBySeed = new EnumMap<>(Material.class);
+        ItemStack[] contents = player.getInventory().getContents();
+        for (int slot = 0; slot < contents.length; slot++) {
+            // One copy of the meta per slot, shared by every check below
+            ItemMeta meta = SeedBagUtil.getBagMeta(contents[slot]);
+            if (meta == null || SeedBagUtil.isUniversal(meta)) {
+                continue;
+            }
+            Material seedType = SeedBagUtil.getSeedType(meta);
+            if (seedType != null) {
+                int[] slots = slotsBySeed.get(seedType);
+                if (slots != null && SeedBagUtil.getBankOwner(meta) != null) {
+                    // Another view of a balance already indexed
+                    continue;
+                }
+                if (slots == null) {
+                    slots = new int[]{slot};
+                } else {
+                    slots = Arrays.copyOf(slots, slots.length + 1);
+                    slots[slots.length - 1] = slot;
+                }
+                slotsBySeed.put(seedType, slots);
+            }
+        }
+        return slotsBySeed;
+    }
+
+    /**
+     * Scan every slot of the inventory for universal bags.
+     *
+     * @param inventory The inventory to scan.
+     * @return The universal bag slots in inventory order.
+     */
+    private static int[] scanUniversal(PlayerInventory inventory) {
+        int[] slots = NO_SLOTS;
+        ItemStack[] contents = inventory.getContents();
+        for (int slot = 0; slot < contents.length; slot++) {
+            if (SeedBagUtil.isUniversal(contents[slot])) {
+                slots = Arrays.copyOf(slots, slots.length + 1);
+                slots[slots.length - 1] = slot;
+            }
+        }
+        return slots;
+    }
+
+    private static int[] concat(int[] first, int[] second) {
+        int[] slots = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, slots, first.length, second.length);
+        return slots;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onInventoryClick(InventoryClickEvent event) {
+        if (event.getWhoClicked() instanceof Player player) {
+            invalidate(player);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onInventoryDrag(InventoryDragEvent event) {
+        if (event.getWhoClicked() instanceof Player player) {
+            invalidate(player);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onSwapHandItems(PlayerSwapHandItemsEvent event) {
+        invalidate(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onDropItem(PlayerDropItemEvent event) {
+        invalidate(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onItemPickup(EntityPickupItemEvent event) {
+        // Only a picked up seed bag can add a new slot to the index
+        if (event.getEntity() instanceof Player player && event.getItem().getItemStack().getType() == Material.PAPER) {
+            invalidate(player);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onInventorySlotChange(PlayerInventorySlotChangeEvent event) {
+        // Catches bags added without a tracked event, such as by /give, kits or other plugins.
+        // Count updates keep a slot's type, so the plugin's own bag writes do not invalidate.
+        if (event.getNewItemStack().getType() == Material.PAPER && event.getOldItemStack().getType() != Material.PAPER) {
+            invalidate(event.getPlayer());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerDeath(PlayerDeathEvent event) {
+        invalidate(event.getEntity());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        players.remove(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        players.remove(event.getPlayer().getUniqueId());
+    }
+
+    /**
+     * Indexed seed bag slots of a single player.
+     */
+    private static final class PlayerBags {
+        private Map<Material, int[]> slotsBySeed = new EnumMap<>(Material.class);
+        private int[] universalSlots = NO_SLOTS;
+        private final Map<Material, int[]> mergedBySeed = new EnumMap<>(Material.class);
+        private boolean dirty = true;
+
+        /**
+         * Cheap sanity check against indexed bags being replaced without a tracked event,
+         * such as by other plugins: every indexed slot must still hold paper. Bags added to
+         * unindexed slots are caught by {@link SeedBagIndex#onInventorySlotChange}.
+         */
+        private boolean isValid(PlayerInventory inventory) {
+            for (int[] slots : slotsBySeed.values()) {
+                if (!holdPaper(inventory, slots)) {
+                    return false;
+                }
+            }
+            return holdPaper(inventory, universalSlots);
+        }
+
+        private static boolean holdPaper(PlayerInventory inventory, int[] slots) {
+            for (int slot : slots) {
+                ItemStack item = inventory.getItem(slot);
+                if (item == null || item.getType() != Material.PAPER) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
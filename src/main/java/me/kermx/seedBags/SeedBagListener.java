@@ -1,28 +1,21 @@
 package me.kermx.seedBags;
 
-import dev.rosewood.rosestacker.api.RoseStackerAPI;
-import dev.rosewood.rosestacker.stack.StackedItem;
 import net.kyori.adventure.text.Component;
-import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
 import org.bukkit.block.Block;
-import org.bukkit.block.data.Ageable;
 import org.bukkit.entity.Item;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.Action;
-import org.bukkit.event.block.BlockPlaceEvent;
 import org.bukkit.event.entity.EntityPickupItemEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.inventory.EquipmentSlot;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.PlayerInventory;
-import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.persistence.PersistentDataContainer;
-import org.bukkit.persistence.PersistentDataType;
 import org.bukkit.plugin.Plugin;
 
 import java.util.ArrayList;
@@ -35,17 +28,37 @@ import java.util.Map;
  */
 public class SeedBagListener implements Listener {
     private final Plugin plugin;
-    private final RoseStackerAPI rsAPI;
+    private final ItemStackerAdapter stacker;
+    private final SeedBagIndex bagIndex;
+    private final SeedBagAccumulator accumulator;
+    private final PlantingScheduler plantingScheduler;
+    private final SeedBagTransfer transfer;
+    private final AreaHarvester harvester;
+    private final SeedBagStats stats;
 
     /**
      * Constructor for SeedBagListener.
      *
-     * @param plugin The main plugin instance.
-     * @param rsAPI  The RoseStacker API instance.
+     * @param plugin            The main plugin instance.
+     * @param stacker           The adapter for the server's item stacker plugin.
+     * @param bagIndex          The per-player seed bag slot index.
+     * @param accumulator       The pickup accumulator, or null to write every pickup to the bag immediately.
+     * @param plantingScheduler The scheduler that plants seed bag areas.
+     * @param transfer          The bulk deposit handler used by the sneak right-click gesture.
+     * @param harvester         The area harvester used when a crop is clicked, or null if harvesting is disabled.
+     * @param stats             The hot path statistics.
      */
-    public SeedBagListener(Plugin plugin, RoseStackerAPI rsAPI) {
+    public SeedBagListener(Plugin plugin, ItemStackerAdapter stacker, SeedBagIndex bagIndex, SeedBagAccumulator accumulator,
+                           PlantingScheduler plantingScheduler, SeedBagTransfer transfer, AreaHarvester harvester,
+                           SeedBagStats stats) {
         this.plugin = plugin;
-        this.rsAPI = rsAPI;
+        this.stacker = stacker;
+        this.bagIndex = bagIndex;
+        this.accumulator = accumulator;
+        this.plantingScheduler = plantingScheduler;
+        this.transfer = transfer;
+        this.harvester = harvester;
+        this.stats = stats;
     }
 
     /**
@@ -58,51 +71,88 @@ public class SeedBagListener implements Listener {
         if (!(event.getEntity() instanceof Player player)) {
             return;
         }
+        if (!stats.isEnabled()) {
+            absorbPickup(event, player);
+            return;
+        }
+        long start = System.nanoTime();
+        int absorbed = absorbPickup(event, player);
+        stats.recordPickup(System.nanoTime() - start, absorbed);
+    }
+
+    /**
+     * Move a picked up seed item into the player's seed bags.
+     * Checks run cheapest first so most pickups are rejected after a single array
+     * lookup: is the material a registered seed, does the player carry any bag,
+     * and only then which bags match.
+     *
+     * @param event  The EntityPickupItemEvent.
+     * @param player The player picking up the item.
+     * @return The number of seeds absorbed into bags; 0 if the pickup was left alone.
+     */
+    private int absorbPickup(EntityPickupItemEvent event, Player player) {
+        int absorbed = absorbItem(player, event.getItem());
+        if (absorbed > 0) {
+            event.setCancelled(true);
+        }
+        return absorbed;
+    }
 
-        Item item = event.getItem();
+    /**
+     * Move a seed item entity into the player's seed bags and remove it from the world.
+     * A stacked drop is absorbed as a whole through the item stacker adapter; seeds
+     * that do not fit in any bag go to the player's inventory.
+     *
+     * @param player The player whose bags take the seeds.
+     * @param item   The item entity.
+     * @return The number of seeds absorbed into bags; 0 if the item was left alone.
+     */
+    int absorbItem(Player player, Item item) {
         ItemStack itemStack = item.getItemStack();
         Material material = itemStack.getType();
 
-        if (rsAPI != null) {
-            ItemStack seedBag = getSeedBagFromInventory(player.getInventory(), material);
+        if (!SeedRegistry.get().isSeed(material) || !bagIndex.hasAnyBag(player)) {
+            return 0;
+        }
+        int[] bagSlots = bagIndex.getBagSlots(player, material);
+        if (bagSlots.length == 0) {
+            return 0;
+        }
 
-            if (seedBag != null) {
-                int amount = 0;
-                if (!rsAPI.isItemStacked(item)) {
-                    if (isPlantableSeed(material)) {
-                        event.setCancelled(true);
-                        amount = itemStack.getAmount();
-                        item.remove();
-                    }
-                } else {
-                    StackedItem stackedItem = rsAPI.getStackedItem(item);
-                    if (stackedItem != null) {
-                        event.setCancelled(true);
-                        amount = stackedItem.getStackSize();
-                        item.remove();
-                        rsAPI.removeItemStack(stackedItem);
-                    }
-                }
-                if (amount > 0) {
-                    int leftover = addSeedsToBags(player.getInventory(), amount, material);
-                    if (leftover > 0) {
-                        Map<Integer, ItemStack> remaining = player.getInventory().addItem(new ItemStack(material, leftover));
-                        for (ItemStack rem : remaining.values()) {
-                            player.getWorld().dropItemNaturally(player.getLocation(), rem);
-                        }
-                    }
-                }
+        int amount = stacker.getAmount(item);
+        if (amount <= 0) {
+            return 0;
+        }
+
+        int leftover = addSeedsToBags(player, bagSlots, amount, material);
+        if (leftover == amount) {
+            // Every bag is full; let the pickup happen normally
+            return 0;
+        }
+
+        stacker.remove(item);
+        stats.recordStackerHandOver(amount);
+        if (leftover > 0) {
+            Map<Integer, ItemStack> remaining = player.getInventory().addItem(new ItemStack(material, leftover));
+            for (ItemStack rem : remaining.values()) {
+                player.getWorld().dropItemNaturally(player.getLocation(), rem);
             }
         }
+        return amount - leftover;
     }
 
     /**
-     * Handle player interactions for planting seeds from seed bags.
+     * Handle player interactions for planting seeds from seed bags, and sneak
+     * right-clicks in the air for depositing loose seeds.
      *
      * @param event The PlayerInteractEvent.
      */
     @EventHandler
     public void onPlayerInteract(PlayerInteractEvent event) {
+        if (event.getAction() == Action.RIGHT_CLICK_AIR && event.getPlayer().isSneaking()) {
+            onDepositGesture(event);
+            return;
+        }
         if (event.getAction() != Action.RIGHT_CLICK_BLOCK) {
             return;
         }
@@ -113,56 +163,78 @@ public class SeedBagListener implements Listener {
         }
 
         Block clickedBlock = event.getClickedBlock();
-        if (clickedBlock == null || !isSuitableForPlanting(clickedBlock.getType())) {
+        if (clickedBlock == null) {
+            return;
+        }
+        if (harvester != null && harvester.isCrop(clickedBlock)) {
+            onHarvestGesture(event, clickedBlock);
+            return;
+        }
+        if (!isSuitableForPlanting(clickedBlock.getType())) {
             return;
         }
 
         event.setCancelled(true);
-        plantSeeds(event.getPlayer(), clickedBlock, itemInHand);
+        Player player = event.getPlayer();
+        if (accumulator != null) {
+            accumulator.flush(player);
+        }
+        int bagSlot = event.getHand() == EquipmentSlot.OFF_HAND ? 40 : player.getInventory().getHeldItemSlot();
+        if (!stats.isEnabled()) {
+            plantingScheduler.plant(player, clickedBlock, itemInHand, bagSlot);
+            return;
+        }
+        long start = System.nanoTime();
+        plantingScheduler.plant(player, clickedBlock, itemInHand, bagSlot);
+        stats.recordPlant(System.nanoTime() - start);
     }
 
     /**
-     * Check if the given material is a plantable seed.
-     *
-     * @param material The material to check.
-     * @return True if the material is a plantable seed, false otherwise.
+     * Deposit every loose seed stack into the player's bags when they sneak and
+     * right-click the air with a seed bag.
      */
-    private boolean isPlantableSeed(Material material) {
-        return switch (material) {
-            case WHEAT_SEEDS, BEETROOT_SEEDS, CARROT, POTATO, NETHER_WART, MELON_SEEDS, PUMPKIN_SEEDS -> true;
-            default -> false;
-        };
+    private void onDepositGesture(PlayerInteractEvent event) {
+        ItemStack itemInHand = event.getItem();
+        Player player = event.getPlayer();
+        if (itemInHand == null || !SeedBagUtil.isSeedBag(itemInHand, plugin, null) || !player.hasPermission("seedbags.transfer")) {
+            return;
+        }
+        event.setCancelled(true);
+        SeedBagAdminCommandExecutor.sendDepositResult(player, transfer.deposit(player));
     }
 
     /**
-     * Get the seed bag from the player's inventory that matches the given seed type.
-     *
-     * @param inventory The player's inventory.
-     * @param seedType  The type of seed to match.
-     * @return The matching seed bag, or null if no match is found.
+     * Harvest the area around a crop right-clicked with a seed bag.
      */
-    private ItemStack getSeedBagFromInventory(PlayerInventory inventory, Material seedType) {
-        for (ItemStack item : inventory.getContents()) {
-            if (item != null && SeedBagUtil.isSeedBag(item, plugin, seedType)) {
-                return item;
-            }
+    private void onHarvestGesture(PlayerInteractEvent event, Block clickedCrop) {
+        Player player = event.getPlayer();
+        if (!player.hasPermission("seedbags.harvest")) {
+            return;
         }
-        return null;
+        event.setCancelled(true);
+        harvester.harvest(player, clickedCrop);
     }
 
     /**
-     * Iterates over all seed bags of the specified seed type in the inventory and attempts to add seeds.
+     * Iterates over the indexed seed bags of the specified seed type and attempts to add seeds.
      *
-     * @param inventory    The player's inventory.
+     * @param player       The player picking up the seeds.
+     * @param bagSlots     The inventory slots holding seed bags of this seed type.
      * @param amount       The number of seeds to add.
      * @param seedMaterial The seed type.
      * @return The number of seeds that could not be added.
      */
-    private int addSeedsToBags(PlayerInventory inventory, int amount, Material seedMaterial) {
+    private int addSeedsToBags(Player player, int[] bagSlots, int amount, Material seedMaterial) {
+        PlayerInventory inventory = player.getInventory();
         int leftover = amount;
-        for (ItemStack bag : inventory.getContents()) {
-            if (bag != null && SeedBagUtil.isSeedBag(bag, plugin, seedMaterial)) {
-                leftover = addSeedsToBag(bag, leftover, seedMaterial);
+        for (int slot : bagSlots) {
+            ItemStack bag = inventory.getItem(slot);
+            if (bag != null) {
+                if (accumulator != null) {
+                    leftover = accumulator.deposit(player, slot, bag, seedMaterial, leftover);
+                } else {
+                    leftover = addSeedsToBag(player, slot, bag, seedMaterial, leftover);
+                }
                 if (leftover <= 0) {
                     break;
                 }
@@ -174,17 +246,16 @@ public class SeedBagListener implements Listener {
     /**
      * Attempts to add a given number of seeds to a single seed bag.
      *
-     * @param seedBag      The seed bag ItemStack.
-     * @param amount       The number of seeds to add.
-     * @param seedMaterial The material type of the seeds.
+     * @param player   The player holding the seed bag.
+     * @param slot     The inventory slot of the seed bag.
+     * @param seedBag  The seed bag ItemStack.
+     * @param seedType The seed type to add.
+     * @param amount   The number of seeds to add.
      * @return The number of seeds that could not be added.
      */
-    private int addSeedsToBag(ItemStack seedBag, int amount, Material seedMaterial) {
-        ItemMeta meta = seedBag.getItemMeta();
-        if (meta == null) return amount;
-        int currentSeedCount = meta.getPersistentDataContainer()
-                .getOrDefault(SeedBags.SEED_COUNT_KEY, PersistentDataType.INTEGER, 0);
-        int maxCapacity = SeedBags.MAX_SEEDS;
+    private int addSeedsToBag(Player player, int slot, ItemStack seedBag, Material seedType, int amount) {
+        int currentSeedCount = SeedBagUtil.getSeedCount(player, seedBag, seedType);
+        int maxCapacity = SeedRegistry.get().getCapacity(seedType);
         int freeSpace = maxCapacity - currentSeedCount;
         if (freeSpace <= 0) {
             // Bag is already full; none can be added.
@@ -192,9 +263,7 @@ public class SeedBagListener implements Listener {
         }
         int seedsToAdd = Math.min(amount, freeSpace);
         int newCount = currentSeedCount + seedsToAdd;
-        meta.getPersistentDataContainer().set(SeedBags.SEED_COUNT_KEY, PersistentDataType.INTEGER, newCount);
-        seedBag.setItemMeta(meta);
-        SeedBagUtil.updateSeedBagMeta(seedBag);
+        SeedBagUtil.setSeedCount(player, slot, seedBag, seedType, newCount);
         return amount - seedsToAdd; // leftover seeds that could not be added.
     }
 
@@ -205,103 +274,6 @@ public class SeedBagListener implements Listener {
      * @return True if the material is suitable for planting, false otherwise.
      */
     private boolean isSuitableForPlanting(Material material) {
-        return material == Material.FARMLAND || material == Material.SOUL_SAND;
-    }
-
-    /**
-     * Plant seeds from the seed bag at the specified block.
-     *
-     * @param player       The player planting the seeds.
-     * @param clickedBlock The block to plant the seeds on.
-     * @param seedBag      The seed bag containing the seeds.
-     */
-    private void plantSeeds(Player player, Block clickedBlock, ItemStack seedBag) {
-        ItemMeta meta = seedBag.getItemMeta();
-        if (meta == null) return;
-        String seedTypeString = meta.getPersistentDataContainer().get(SeedBags.SEED_TYPE_KEY, PersistentDataType.STRING);
-        int seedCount = meta.getPersistentDataContainer()
-                .getOrDefault(SeedBags.SEED_COUNT_KEY, PersistentDataType.INTEGER, 0);
-
-        if (seedCount <= 0) {
-            player.sendMessage("Your seed bag is empty!");
-            return;
-        }
-
-        Material seedMaterial = Material.valueOf(seedTypeString);
-        int radius = 2; //(seedTypeString.equals("PUMPKIN_SEEDS") || seedTypeString.equals("MELON_SEEDS")) ? 0 : 2;
-        int seedsPlanted = 0;
-
-        outer:
-        for (int dx = -radius; dx <= radius; dx++) {
-            for (int dz = -radius; dz <= radius; dz++) {
-                Block block = clickedBlock.getRelative(dx, 0, dz);
-                if (canPlantOn(block, seedMaterial)) {
-                    Block blockAbove = block.getRelative(0, 1, 0);
-                    if (blockAbove.getType() == Material.AIR) {
-                        blockAbove.setType(getCropBlock(seedMaterial));
-                        if (blockAbove.getBlockData() instanceof Ageable ageable) {
-                            ageable.setAge(0);
-                            blockAbove.setBlockData(ageable);
-                        }
-                        BlockPlaceEvent placeEvent = new BlockPlaceEvent(
-                                blockAbove, block.getState(), block, seedBag, player, true, EquipmentSlot.HAND
-                        );
-                        Bukkit.getPluginManager().callEvent(placeEvent);
-                        if (!placeEvent.isCancelled()) {
-                            seedsPlanted++;
-                            seedCount--;
-                            if (seedCount <= 0) {
-                                break outer;
-                            }
-                        } else {
-                            blockAbove.setType(Material.AIR);
-                        }
-                    }
-                }
-            }
-        }
-
-        if (seedsPlanted > 0) {
-            meta.getPersistentDataContainer().set(SeedBags.SEED_COUNT_KEY, PersistentDataType.INTEGER, seedCount);
-            seedBag.setItemMeta(meta);
-            SeedBagUtil.updateSeedBagMeta(seedBag);
-        } else {
-            player.sendMessage("No suitable place to plant seeds!");
-        }
-    }
-
-    /**
-     * Check if the given block is suitable for planting the specified seed.
-     *
-     * @param block        The block to check.
-     * @param seedMaterial The seed material.
-     * @return True if the block is suitable for planting, false otherwise.
-     */
-    private boolean canPlantOn(Block block, Material seedMaterial) {
-        Material blockType = block.getType();
-        if (seedMaterial == Material.NETHER_WART) {
-            return blockType == Material.SOUL_SAND;
-        } else {
-            return blockType == Material.FARMLAND;
-        }
-    }
-
-    /**
-     * Get the crop block type corresponding to the seed material.
-     *
-     * @param seedMaterial The seed material.
-     * @return The crop block type.
-     */
-    private Material getCropBlock(Material seedMaterial) {
-        return switch (seedMaterial) {
-            case WHEAT_SEEDS -> Material.WHEAT;
-            case BEETROOT_SEEDS -> Material.BEETROOTS;
-            case CARROT -> Material.CARROTS;
-            case POTATO -> Material.POTATOES;
-            case NETHER_WART -> Material.NETHER_WART;
-            case MELON_SEEDS -> Material.MELON_STEM;
-            case PUMPKIN_SEEDS -> Material.PUMPKIN_STEM;
-            default -> Material.AIR;
-        };
+        return SeedRegistry.get().isSoil(material);
     }
-}
\ No newline at end of file
+}
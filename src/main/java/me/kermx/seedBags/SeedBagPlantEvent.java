@@ -0,0 +1,112 @@
+package me.kermx.seedBags;
+
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.player.PlayerEvent;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Called before a seed bag plants a group of crops, with every soil block about to
+ * be planted on. Nothing has changed in the world yet: listeners can deny single
+ * cells, or cancel the event to deny them all, and denied cells are skipped without
+ * any block change.
+ * Planting an area fires one event per chunk and tick rather than one per crop.
+ * The event is fired on the thread that owns the blocks. On Folia that can be a
+ * different region than the player's, so listeners must not change the player or
+ * their inventory from it; the seed bag is a copy taken when planting started.
+ */
+public class SeedBagPlantEvent extends PlayerEvent implements Cancellable {
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final Material seedType;
+    private final Material crop;
+    private final ItemStack seedBag;
+    private final List<Block> soilBlocks;
+    private final BitSet denied = new BitSet();
+    private boolean cancelled;
+
+    /**
+     * Constructor for SeedBagPlantEvent.
+     *
+     * @param player     The player planting.
+     * @param seedType   The seed type being planted.
+     * @param crop       The crop block that will be placed above each soil block.
+     * @param seedBag    The seed bag the seeds come from.
+     * @param soilBlocks The soil blocks to plant on.
+     */
+    public SeedBagPlantEvent(@NotNull Player player, @NotNull Material seedType, @NotNull Material crop,
+                             @NotNull ItemStack seedBag, @NotNull List<Block> soilBlocks) {
+        super(player);
+        this.seedType = seedType;
+        this.crop = crop;
+        this.seedBag = seedBag;
+        this.soilBlocks = Collections.unmodifiableList(soilBlocks);
+    }
+
+    public @NotNull Material getSeedType() {
+        return seedType;
+    }
+
+    public @NotNull Material getCrop() {
+        return crop;
+    }
+
+    /**
+     * @return The seed bag the seeds come from, or a copy of it when the blocks are
+     *         planted away from the player's thread.
+     */
+    public @NotNull ItemStack getSeedBag() {
+        return seedBag;
+    }
+
+    /**
+     * @return The soil blocks to plant on; the crops go in the blocks above them.
+     */
+    public @NotNull List<Block> getSoilBlocks() {
+        return soilBlocks;
+    }
+
+    /**
+     * Keep a crop from being planted on one soil block.
+     *
+     * @param index The index of the soil block in {@link #getSoilBlocks()}.
+     */
+    public void deny(int index) {
+        denied.set(index);
+    }
+
+    /**
+     * @param index The index of the soil block in {@link #getSoilBlocks()}.
+     * @return True unless the event is cancelled or the cell was denied.
+     */
+    public boolean isAllowed(int index) {
+        return !cancelled && !denied.get(index);
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public void setCancelled(boolean cancel) {
+        this.cancelled = cancel;
+    }
+
+    @Override
+    public @NotNull HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    public static @NotNull HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+}
@@ -0,0 +1,350 @@
+package me.kermx.seedBags;
+
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Item;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.entity.EntityPickupItemEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Records the pickup and planting traffic seen by the seed bag listeners to a compact
+ * binary log, so a production regression can be replayed offline.
+ * Registered before {@link SeedBagListener} at the same priority, so every record
+ * shows the bags as the listener found them. While no recording runs each event costs
+ * one volatile read. While recording, the event thread only encodes a byte array and
+ * queues it; a background task drains the queue through a file channel every tick.
+ * If the writer falls behind by more than the configured number of bytes, records are
+ * dropped and counted rather than letting the queue grow.
+ * <p>
+ * Format, big-endian: a header of {@link #MAGIC}, {@link #VERSION}, the wall clock
+ * start in milliseconds and the name of every material by ordinal, then records of a
+ * type byte, the payload length as an int and the payload. Every payload starts with
+ * the nanoseconds since the start and the player's id within the recording.
+ * <ul>
+ *     <li>{@link #PICKUP}: material, amount the stacker reported, flags ({@link #FLAG_STACKED}),
+ *     then the number of bags that hold the material and per bag its slot, whether it is
+ *     universal and its count of the material.</li>
+ *     <li>{@link #INTERACT}: flags ({@link #FLAG_SNEAKING}, {@link #FLAG_OFF_HAND}), the
+ *     bag's slot, active seed type, whether it is universal and its count, the clicked
+ *     block's Y, the planting radius and, row by row over X then Z, the type of each
+ *     block at the clicked Y and of the block above it.</li>
+ * </ul>
+ * Materials are written as ordinals into the header's table; {@link #UNKNOWN_BLOCK}
+ * marks blocks in chunks the event thread could not read.
+ */
+public class SeedBagRecorder implements Listener {
+    public static final int MAGIC = 0x53425243;
+    public static final short VERSION = 1;
+    public static final byte PICKUP = 1;
+    public static final byte INTERACT = 2;
+    public static final byte FLAG_STACKED = 1;
+    public static final byte FLAG_SNEAKING = 1;
+    public static final byte FLAG_OFF_HAND = 2;
+    public static final short UNKNOWN_BLOCK = -1;
+
+    // Type byte, payload length, nanos and player id
+    private static final int RECORD_HEADER = 1 + 4 + 8 + 4;
+    private static final int[] NO_SLOTS = new int[0];
+    private static final DateTimeFormatter FILE_NAME = DateTimeFormatter.ofPattern("'seedbags-'yyyyMMdd-HHmmss'.sbrec'");
+
+    private final Logger logger;
+    private final SeedBagScheduler scheduler;
+    private final SeedBagIndex bagIndex;
+    private final ItemStackerAdapter stacker;
+    private final int radius;
+    private final Path directory;
+    private final long maxBufferedBytes;
+    private volatile Recording recording;
+
+    /**
+     * Constructor for SeedBagRecorder.
+     *
+     * @param logger            The plugin logger.
+     * @param scheduler         The scheduler running the background writer.
+     * @param bagIndex          The per-player seed bag slot index.
+     * @param stacker           The item stacker adapter, which tells the real size of a stacked drop.
+     * @param plantingScheduler The planting scheduler, whose radius sets the recorded area.
+     * @param directory         The directory recordings are written to.
+     * @param maxBufferedBytes  The most bytes queued for the writer before records are dropped.
+     */
+    public SeedBagRecorder(Logger logger, SeedBagScheduler scheduler, SeedBagIndex bagIndex, ItemStackerAdapter stacker,
+                           PlantingScheduler plantingScheduler, Path directory, long maxBufferedBytes) {
+        this.logger = logger;
+        this.scheduler = scheduler;
+        this.bagIndex = bagIndex;
+        this.stacker = stacker;
+        this.radius = plantingScheduler.getRadius();
+        this.directory = directory;
+        this.maxBufferedBytes = maxBufferedBytes;
+    }
+
+    public boolean isRecording() {
+        return recording != null;
+    }
+
+    /**
+     * Start a new recording. The file is created by the background writer.
+     *
+     * @return The file being recorded to, or null if a recording is already running.
+     */
+    public synchronized Path start() {
+        if (recording != null) {
+            return null;
+        }
+        Recording started = new Recording(directory.resolve(LocalDateTime.now().format(FILE_NAME)));
+        started.task = scheduler.runAsyncTimer(started::drain, 1L, 1L);
+        recording = started;
+        return started.file;
+    }
+
+    /**
+     * Stop the running recording; the rest of its queue is written in the background.
+     *
+     * @return A one line summary, or null if nothing was recording.
+     */
+    public synchronized String stop() {
+        Recording stopped = recording;
+        if (stopped == null) {
+            return null;
+        }
+        recording = null;
+        stopped.task.cancel();
+        scheduler.runAsync(stopped::close);
+        return stopped.describe();
+    }
+
+    /**
+     * Stop the running recording and write the rest of its queue on the calling thread.
+     * Used on shutdown, when background tasks no longer run.
+     */
+    public synchronized void close() {
+        Recording stopped = recording;
+        if (stopped != null) {
+            recording = null;
+            stopped.task.cancel();
+            stopped.close();
+        }
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onItemPickup(EntityPickupItemEvent event) {
+        Recording current = recording;
+        if (current == null || !(event.getEntity() instanceof Player player)) {
+            return;
+        }
+        Item item = event.getItem();
+        ItemStack itemStack = item.getItemStack();
+        Material material = itemStack.getType();
+        int amount = stacker.getAmount(item);
+        if (amount <= 0) {
+            // The no-op adapter hands nothing over; record the visible stack
+            amount = itemStack.getAmount();
+        }
+        int[] bagSlots = SeedRegistry.get().isSeed(material) && bagIndex.hasAnyBag(player)
+                ? bagIndex.getBagSlots(player, material) : NO_SLOTS;
+
+        ByteBuffer buffer = current.begin(PICKUP, 2 + 4 + 1 + 1 + bagSlots.length * 6, player);
+        buffer.putShort((short) material.ordinal());
+        buffer.putInt(amount);
+        buffer.put(amount != itemStack.getAmount() ? FLAG_STACKED : 0);
+        buffer.put((byte) bagSlots.length);
+        PlayerInventory inventory = player.getInventory();
+        for (int slot : bagSlots) {
+            ItemStack bag = inventory.getItem(slot);
+            buffer.put((byte) slot);
+            buffer.put((byte) (SeedBagUtil.isUniversal(bag) ? 1 : 0));
+            buffer.putInt(bag == null ? 0 : SeedBagUtil.getSeedCount(bag, material));
+        }
+        current.enqueue(buffer);
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerInteract(PlayerInteractEvent event) {
+        Recording current = recording;
+        Block clickedBlock = event.getClickedBlock();
+        if (current == null || event.getAction() != Action.RIGHT_CLICK_BLOCK || clickedBlock == null) {
+            return;
+        }
+        ItemStack bag = event.getItem();
+        Material seedType = SeedBagUtil.getSeedType(bag);
+        if (seedType == null) {
+            return;
+        }
+        Player player = event.getPlayer();
+        boolean offHand = event.getHand() == EquipmentSlot.OFF_HAND;
+        int size = radius * 2 + 1;
+
+        ByteBuffer buffer = current.begin(INTERACT, 1 + 1 + 2 + 1 + 4 + 4 + 1 + size * size * 4, player);
+        buffer.put((byte) ((player.isSneaking() ? FLAG_SNEAKING : 0) | (offHand ? FLAG_OFF_HAND : 0)));
+        buffer.put((byte) (offHand ? 40 : player.getInventory().getHeldItemSlot()));
+        buffer.putShort((short) seedType.ordinal());
+        buffer.put((byte) (SeedBagUtil.isUniversal(bag) ? 1 : 0));
+        buffer.putInt(SeedBagUtil.getSeedCount(bag));
+        buffer.putInt(clickedBlock.getY());
+        buffer.put((byte) radius);
+        World world = clickedBlock.getWorld();
+        for (int dx = -radius; dx <= radius; dx++) {
+            for (int dz = -radius; dz <= radius; dz++) {
+                int x = clickedBlock.getX() + dx;
+                int z = clickedBlock.getZ() + dz;
+                if (world.isChunkLoaded(x >> 4, z >> 4) && scheduler.isOwnedByCurrentThread(world, x >> 4, z >> 4)) {
+                    Block block = world.getBlockAt(x, clickedBlock.getY(), z);
+                    buffer.putShort((short) block.getType().ordinal());
+                    buffer.putShort((short) block.getRelative(0, 1, 0).getType().ordinal());
+                } else {
+                    buffer.putShort(UNKNOWN_BLOCK).putShort(UNKNOWN_BLOCK);
+                }
+            }
+        }
+        current.enqueue(buffer);
+    }
+
+    /**
+     * One recording: its queue of encoded records and, on the writer side, its file.
+     */
+    private final class Recording {
+        private final Path file;
+        private final long startNanos = System.nanoTime();
+        private final long startMillis = System.currentTimeMillis();
+        private final ConcurrentLinkedQueue<byte[]> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicLong bufferedBytes = new AtomicLong();
+        private final AtomicLong records = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        private final Map<UUID, Integer> playerIds = new ConcurrentHashMap<>();
+        private final AtomicInteger nextPlayerId = new AtomicInteger();
+        private SeedBagScheduler.Task task;
+        // Only touched by the writer, under the recording's monitor
+        private FileChannel channel;
+        private ByteBuffer out;
+        private boolean failed;
+
+        private Recording(Path file) {
+            this.file = file;
+        }
+
+        /**
+         * Start encoding a record with room for the given payload after the common fields.
+         */
+        private ByteBuffer begin(byte type, int payload, Player player) {
+            ByteBuffer buffer = ByteBuffer.wrap(new byte[RECORD_HEADER + payload]);
+            buffer.put(type);
+            buffer.putInt(8 + 4 + payload);
+            buffer.putLong(System.nanoTime() - startNanos);
+            buffer.putInt(playerIds.computeIfAbsent(player.getUniqueId(), id -> nextPlayerId.getAndIncrement()));
+            return buffer;
+        }
+
+        private void enqueue(ByteBuffer buffer) {
+            byte[] record = buffer.array();
+            if (bufferedBytes.addAndGet(record.length) > maxBufferedBytes) {
+                bufferedBytes.addAndGet(-record.length);
+                dropped.incrementAndGet();
+                return;
+            }
+            queue.add(record);
+        }
+
+        /**
+         * Write every queued record; runs on the background writer.
+         */
+        private synchronized void drain() {
+            if (failed) {
+                queue.clear();
+                return;
+            }
+            try {
+                if (channel == null) {
+                    if (queue.isEmpty()) {
+                        return;
+                    }
+                    open();
+                }
+                byte[] record;
+                while ((record = queue.poll()) != null) {
+                    bufferedBytes.addAndGet(-record.length);
+                    if (out.remaining() < record.length) {
+                        flushBuffer();
+                    }
+                    if (record.length > out.capacity()) {
+                        channel.write(ByteBuffer.wrap(record));
+                    } else {
+                        out.put(record);
+                    }
+                    records.incrementAndGet();
+                }
+                flushBuffer();
+            } catch (IOException e) {
+                failed = true;
+                logger.log(Level.SEVERE, "Could not write seed bag recording " + file + "; recording stopped", e);
+            }
+        }
+
+        private void open() throws IOException {
+            Files.createDirectories(file.getParent());
+            channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            out = ByteBuffer.allocateDirect(64 * 1024);
+            out.putInt(MAGIC).putShort(VERSION).putLong(startMillis);
+            Material[] materials = Material.values();
+            out.putShort((short) materials.length);
+            for (Material material : materials) {
+                byte[] name = material.name().getBytes(StandardCharsets.US_ASCII);
+                if (out.remaining() < 2 + name.length) {
+                    flushBuffer();
+                }
+                out.putShort((short) name.length).put(name);
+            }
+        }
+
+        private void flushBuffer() throws IOException {
+            out.flip();
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            out.clear();
+        }
+
+        private synchronized void close() {
+            drain();
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    logger.log(Level.WARNING, "Could not close seed bag recording " + file, e);
+                }
+            }
+        }
+
+        private String describe() {
+            long recorded = records.get() + queue.size();
+            return recorded + " records from " + playerIds.size() + " players"
+                    + (dropped.get() > 0 ? ", " + dropped.get() + " dropped because the writer fell behind" : "");
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package me.kermx.seedBags;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.Style;
+import net.kyori.adventure.text.format.TextDecoration;
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryOpenEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Renders the display name and lore of seed bags.
+ * The static parts of each seed type are built once; only the count text is
+ * formatted per update, and identical lore is reused instead of rebuilt.
+ * The refresh policy decides whether a count change touches the display at all.
+ */
+public class SeedBagRenderer implements Listener {
+    private static final Style NAME_STYLE = Style.style(NamedTextColor.WHITE).decoration(TextDecoration.ITALIC, false);
+    private static final Style LORE_STYLE = Style.style(NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false);
+    private static final Component BLANK_LINE = Component.text(" ");
+    private static final Component UNIVERSAL_HINT = Component.text("Sneak and scroll to choose the seed.", LORE_STYLE);
+    private static final int OFF_HAND_SLOT = 40;
+
+    /**
+     * When a count change refreshes the bag's display.
+     */
+    public enum RefreshPolicy {
+        /** Re-render on every count change. */
+        ALWAYS,
+        /** Re-render only when the formatted count text changes. */
+        ON_CHANGE,
+        /** Like ON_CHANGE, but bags outside the hotbar and off hand are refreshed on the next inventory interaction. */
+        VISIBLE
+    }
+
+    /**
+     * How seed counts are written in the name and lore.
+     */
+    public enum CountFormat {
+        /** The exact count, e.g. 12345. */
+        PLAIN,
+        /** Thousands abbreviated to one decimal, e.g. 12.3k. */
+        COMPACT
+    }
+
+    private final RefreshPolicy refreshPolicy;
+    private final CountFormat countFormat;
+    private final Component areaLine;
+    private volatile SeedDisplay[] displays = new SeedDisplay[Material.values().length];
+    private final SeedDisplay unknownDisplay;
+    private final Map<UUID, BitSet> staleSlots = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for SeedBagRenderer.
+     *
+     * @param refreshPolicy   When count changes refresh the display.
+     * @param countFormat     How counts are formatted.
+     * @param areaDescription The lore line describing the planting area.
+     */
+    public SeedBagRenderer(RefreshPolicy refreshPolicy, CountFormat countFormat, String areaDescription) {
+        this.refreshPolicy = refreshPolicy;
+        this.countFormat = countFormat;
+        this.areaLine = Component.text(areaDescription, LORE_STYLE);
+        this.unknownDisplay = new SeedDisplay("Unknown Seed", SeedBags.MAX_SEEDS);
+    }
+
+    /**
+     * Create a renderer from the "render" section of the plugin configuration.
+     *
+     * @param config          The render configuration section, may be null.
+     * @param areaDescription The lore line describing the planting area.
+     * @return The configured renderer.
+     */
+    public static SeedBagRenderer fromConfig(ConfigurationSection config, String areaDescription) {
+        RefreshPolicy refreshPolicy = RefreshPolicy.ALWAYS;
+        CountFormat countFormat = CountFormat.PLAIN;
+        if (config != null) {
+            refreshPolicy = RefreshPolicy.valueOf(config.getString("refresh", "always").toUpperCase(Locale.ROOT).replace('-', '_'));
+            countFormat = CountFormat.valueOf(config.getString("count-format", "plain").toUpperCase(Locale.ROOT));
+        }
+        return new SeedBagRenderer(refreshPolicy, countFormat, areaDescription);
+    }
+
+    /**
+     * Write the display name and lore for the given seed type and count.
+     *
+     * @param meta      The meta of the seed bag.
+     * @param seedType  The seed type of the bag, or null if unknown.
+     * @param seedCount The seed count to show.
+     */
+    public void render(ItemMeta meta, Material seedType, int seedCount) {
+        SeedDisplay display = getDisplay(seedType);
+        String countText = formatCount(seedCount);
+        meta.displayName(Component.text(display.namePrefix + countText + ")", NAME_STYLE));
+        meta.lore(display.getLore(countText));
+    }
+
+    /**
+     * Write the display name and lore of a universal bag: the active seed's count
+     * in the name and one lore line per seed type it holds.
+     *
+     * @param meta       The meta of the seed bag.
+     * @param activeSeed The seed type the bag plants, or null if none is chosen.
+     * @param seedCounts Every seed count of the bag.
+     */
+    public void renderUniversal(ItemMeta meta, Material activeSeed, SeedCounts seedCounts) {
+        String activeName = activeSeed == null ? "None" : getDisplay(activeSeed).seedName;
+        meta.displayName(Component.text("Universal Seed Bag - " + activeName + " ("
+                + formatCount(seedCounts.get(activeSeed)) + ")", NAME_STYLE));
+        List<Component> lore = new ArrayList<>(seedCounts.size() + 3);
+        lore.add(areaLine);
+        lore.add(UNIVERSAL_HINT);
+        lore.add(BLANK_LINE);
+        for (int i = 0; i < seedCounts.size(); i++) {
+            if (seedCounts.getCount(i) > 0) {
+                SeedDisplay display = getDisplay(seedCounts.getSeedType(i));
+                lore.add(Component.text(display.seedName + ": " + formatCount(seedCounts.getCount(i))
+                        + display.capacitySuffix, LORE_STYLE));
+            }
+        }
+        meta.lore(lore);
+    }
+
+    /**
+     * Decide whether a count change needs the display to be re-rendered.
+     *
+     * @param oldCount The previously stored count.
+     * @param newCount The new count.
+     * @param visible  Whether the bag is currently in a visible slot.
+     * @return True if the display should be rendered now.
+     */
+    public boolean shouldRender(int oldCount, int newCount, boolean visible) {
+        return switch (refreshPolicy) {
+            case ALWAYS -> true;
+            case ON_CHANGE -> !formatCount(oldCount).equals(formatCount(newCount));
+            case VISIBLE -> visible && !formatCount(oldCount).equals(formatCount(newCount));
+        };
+    }
+
+    /**
+     * Decide whether a change to a universal bag needs the display to be re-rendered.
+     *
+     * @param oldCounts The previously stored counts.
+     * @param newCounts The new counts.
+     * @param visible   Whether the bag is currently in a visible slot.
+     * @return True if the display should be rendered now.
+     */
+    public boolean shouldRender(SeedCounts oldCounts, SeedCounts newCounts, boolean visible) {
+        if (refreshPolicy == RefreshPolicy.ALWAYS) {
+            return true;
+        }
+        if (refreshPolicy == RefreshPolicy.VISIBLE && !visible) {
+            return false;
+        }
+        for (int i = 0; i < newCounts.size(); i++) {
+            Material seedType = newCounts.getSeedType(i);
+            if (!formatCount(oldCounts.get(seedType)).equals(formatCount(newCounts.getCount(i)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check whether a count change in this slot would render immediately or
+     * must be tracked as stale until the player next touches an inventory.
+     *
+     * @param slot The inventory slot of the bag.
+     * @return True if the slot is in the hotbar or off hand.
+     */
+    public boolean isVisibleSlot(int slot) {
+        return refreshPolicy != RefreshPolicy.VISIBLE || slot < 9 || slot == OFF_HAND_SLOT;
+    }
+
+    /**
+     * Remember a bag whose display was left stale by the VISIBLE policy.
+     *
+     * @param player The player holding the bag.
+     * @param slot   The inventory slot of the bag.
+     */
+    public void markStale(Player player, int slot) {
+        staleSlots.computeIfAbsent(player.getUniqueId(), uuid -> new BitSet()).set(slot);
+    }
+
+    /**
+     * Re-render every stale bag of the player.
+     *
+     * @param player The player whose bags to refresh.
+     */
+    public void refreshStale(Player player) {
+        BitSet slots = staleSlots.remove(player.getUniqueId());
+        if (slots == null) {
+            return;
+        }
+        PlayerInventory inventory = player.getInventory();
+        for (int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1)) {
+            ItemStack item = inventory.getItem(slot);
+            if (SeedBagUtil.getSeedType(item) != null) {
+                SeedBagUtil.updateSeedBagMeta(item);
+            }
+        }
+    }
+
+    /**
+     * Drop every cached display so names and capacities are rebuilt from the
+     * current {@link SeedRegistry}. Called after the registry is reloaded.
+     */
+    public void reset() {
+        displays = new SeedDisplay[Material.values().length];
+    }
+
+    private SeedDisplay getDisplay(Material seedType) {
+        if (seedType == null) {
+            return unknownDisplay;
+        }
+        SeedDisplay[] cache = displays;
+        SeedDisplay display = cache[seedType.ordinal()];
+        if (display == null) {
+            SeedRegistry.SeedDefinition definition = SeedRegistry.get().getBySeed(seedType);
+            display = definition == null
+                    ? new SeedDisplay(SeedBagUtil.normalizeMaterialName(seedType.name()), SeedBags.MAX_SEEDS)
+                    : new SeedDisplay(definition.displayName(), definition.capacity());
+            cache[seedType.ordinal()] = display;
+        }
+        return display;
+    }
+
+    private String formatCount(int seedCount) {
+        if (countFormat == CountFormat.COMPACT && seedCount >= 1000) {
+            return (seedCount / 1000) + "." + (seedCount % 1000 / 100) + "k";
+        }
+        return Integer.toString(seedCount);
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onInventoryOpen(InventoryOpenEvent event) {
+        if (event.getPlayer() instanceof Player player) {
+            refreshStale(player);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onInventoryClick(InventoryClickEvent event) {
+        if (event.getWhoClicked() instanceof Player player) {
+            refreshStale(player);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        refreshStale(event.getPlayer());
+    }
+
+    /**
+     * Pre-built display parts of a single seed type, plus the last lore it produced.
+     * The last lore is swapped as one immutable pair so region threads never see a
+     * count text paired with another count's lore.
+     */
+    private final class SeedDisplay {
+        private final String seedName;
+        private final String namePrefix;
+        private final String capacitySuffix;
+        private volatile RenderedLore lastLore;
+
+        private SeedDisplay(String seedName, int capacity) {
+            this.seedName = seedName;
+            this.namePrefix = "Seed Bag - " + seedName + " (";
+            this.capacitySuffix = "/" + String.format(Locale.ROOT, "%,d", capacity) + " ";
+        }
+
+        private List<Component> getLore(String countText) {
+            RenderedLore rendered = lastLore;
+            if (rendered == null || !countText.equals(rendered.countText)) {
+                rendered = new RenderedLore(countText,
+                        List.of(areaLine, BLANK_LINE, Component.text(countText + capacitySuffix, LORE_STYLE)));
+                lastLore = rendered;
+            }
+            return rendered.lore;
+        }
+    }
+
+    private record RenderedLore(String countText, List<Component> lore) {
+    }
+}
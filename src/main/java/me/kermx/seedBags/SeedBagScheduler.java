@@ -0,0 +1,95 @@
+package me.kermx.seedBags;
+
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Thread-agnostic task scheduling for SeedBags.
+ * On Paper every method maps onto the single main thread. On Folia block work is
+ * routed to the region that owns the chunk, player work to the player's entity
+ * scheduler and global bookkeeping to the global region.
+ */
+public interface SeedBagScheduler {
+
+    /**
+     * Create the scheduler matching the running server.
+     *
+     * @param plugin The main plugin instance.
+     * @return A Folia scheduler on Folia, otherwise a Bukkit scheduler.
+     */
+    static SeedBagScheduler create(Plugin plugin) {
+        try {
+            Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
+            return new FoliaSeedBagScheduler(plugin);
+        } catch (ClassNotFoundException e) {
+            return new BukkitSeedBagScheduler(plugin);
+        }
+    }
+
+    /**
+     * @return True if tasks run on region threads rather than one main thread.
+     */
+    boolean isRegionThreaded();
+
+    /**
+     * Check whether the current thread may touch blocks in the given chunk.
+     */
+    boolean isOwnedByCurrentThread(World world, int chunkX, int chunkZ);
+
+    /**
+     * Run a task that touches blocks in the given chunk: immediately if the current
+     * thread owns the chunk, otherwise on its owner as soon as possible.
+     */
+    void runAtChunk(World world, int chunkX, int chunkZ, Runnable task);
+
+    /**
+     * Run a task that touches blocks in the given chunk on its owner during the next tick.
+     */
+    void runAtChunkNextTick(World world, int chunkX, int chunkZ, Runnable task);
+
+    /**
+     * Run a task that touches the entity's state: immediately if the current thread
+     * owns the entity, otherwise on its owner as soon as possible. The task is dropped
+     * if the entity is removed first.
+     */
+    void runForEntity(Entity entity, Runnable task);
+
+    /**
+     * Run a task that touches the entity's state like {@link #runForEntity(Entity, Runnable)},
+     * but run retired instead if the entity is removed before the task gets to run.
+     */
+    void runForEntity(Entity entity, Runnable task, Runnable retired);
+
+    /**
+     * Run a task that touches the entity's state on its owner during the next tick.
+     */
+    void runForEntityNextTick(Entity entity, Runnable task);
+
+    /**
+     * Run a task on the global region (the main thread on Paper) during the next tick.
+     */
+    void runGlobal(Runnable task);
+
+    /**
+     * Repeat a task on the global region (the main thread on Paper).
+     */
+    Task runGlobalTimer(Runnable task, long delayTicks, long periodTicks);
+
+    /**
+     * Run a task off every server thread.
+     */
+    void runAsync(Runnable task);
+
+    /**
+     * Repeat a task off every server thread, with the period given in ticks.
+     */
+    Task runAsyncTimer(Runnable task, long delayTicks, long periodTicks);
+
+    /**
+     * Handle to a repeating task.
+     */
+    interface Task {
+        void cancel();
+    }
+}
@@ -0,0 +1,249 @@
+package me.kermx.seedBags;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Low-overhead counters and latency histograms for the seed bag hot paths.
+ * While disabled, instrumented code pays a single volatile read per call.
+ */
+public class SeedBagStats {
+    private volatile boolean enabled;
+    private volatile long enabledSince = System.currentTimeMillis();
+
+    private final LongAdder pickups = new LongAdder();
+    private final LongAdder pickupsRejected = new LongAdder();
+    private final LongAdder pickupsAbsorbed = new LongAdder();
+    private final LongAdder seedsAbsorbed = new LongAdder();
+    private final LongAdder plantActions = new LongAdder();
+    private final LongAdder seedsPlanted = new LongAdder();
+    private final LongAdder metaWrites = new LongAdder();
+    private final LongAdder vacuumScanned = new LongAdder();
+    private final LongAdder seedsVacuumed = new LongAdder();
+    private final LongAdder containerFlushes = new LongAdder();
+    private final LongAdder seedsFedFromContainers = new LongAdder();
+    private final LongAdder harvests = new LongAdder();
+    private final LongAdder cropsHarvested = new LongAdder();
+    private final LongAdder seedsHarvested = new LongAdder();
+    private final LongAdder stackerEntities = new LongAdder();
+    private final LongAdder stackerItems = new LongAdder();
+    private volatile String stackerName = "vanilla";
+
+    private final LatencyHistogram pickupLatency = new LatencyHistogram();
+    private final LatencyHistogram plantLatency = new LatencyHistogram();
+    private final LatencyHistogram metaWriteLatency = new LatencyHistogram();
+
+    /**
+     * Constructor for SeedBagStats.
+     *
+     * @param enabled Whether recording starts enabled.
+     */
+    public SeedBagStats(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        if (enabled && !this.enabled) {
+            enabledSince = System.currentTimeMillis();
+        }
+        this.enabled = enabled;
+    }
+
+    /**
+     * Record a handled pickup event.
+     *
+     * @param nanos         The time spent in the handler.
+     * @param seedsAbsorbed The number of seeds moved into bags; 0 if the pickup was rejected.
+     */
+    public void recordPickup(long nanos, int seedsAbsorbed) {
+        pickups.increment();
+        if (seedsAbsorbed > 0) {
+            pickupsAbsorbed.increment();
+            this.seedsAbsorbed.add(seedsAbsorbed);
+        } else {
+            pickupsRejected.increment();
+        }
+        pickupLatency.record(nanos);
+    }
+
+    /**
+     * Record a planting click.
+     *
+     * @param nanos The time spent in the handler, including inline planting.
+     */
+    public void recordPlant(long nanos) {
+        plantActions.increment();
+        plantLatency.record(nanos);
+    }
+
+    public void recordSeedsPlanted(int seeds) {
+        if (enabled) {
+            seedsPlanted.add(seeds);
+        }
+    }
+
+    /**
+     * Record an area harvest.
+     *
+     * @param crops       The number of crops harvested.
+     * @param seedsStored The number of dropped seeds moved straight into bags.
+     */
+    public void recordHarvest(int crops, int seedsStored) {
+        if (enabled) {
+            harvests.increment();
+            cropsHarvested.add(crops);
+            seedsHarvested.add(seedsStored);
+        }
+    }
+
+    public void setStackerName(String stackerName) {
+        this.stackerName = stackerName;
+    }
+
+    /**
+     * Record a dropped item entity handed over by the item stacker adapter.
+     *
+     * @param items The number of items the entity stood for.
+     */
+    public void recordStackerHandOver(int items) {
+        if (enabled) {
+            stackerEntities.increment();
+            stackerItems.add(items);
+        }
+    }
+
+    /**
+     * Record a slice of a vacuum sweep.
+     *
+     * @param entitiesScanned The number of entities read.
+     * @param seedsAbsorbed   The number of seeds moved into bags.
+     */
+    public void recordVacuum(int entitiesScanned, int seedsAbsorbed) {
+        if (enabled) {
+            vacuumScanned.add(entitiesScanned);
+            seedsVacuumed.add(seedsAbsorbed);
+        }
+    }
+
+    /**
+     * Record a container whose loose seeds were moved into its bags.
+     *
+     * @param seeds The number of seeds moved.
+     */
+    public void recordContainerFlush(int seeds) {
+        if (enabled) {
+            containerFlushes.increment();
+            seedsFedFromContainers.add(seeds);
+        }
+    }
+
+    public void recordMetaWrite(long nanos) {
+        metaWrites.increment();
+        metaWriteLatency.record(nanos);
+    }
+
+    public void reset() {
+        pickups.reset();
+        pickupsRejected.reset();
+        pickupsAbsorbed.reset();
+        seedsAbsorbed.reset();
+        plantActions.reset();
+        seedsPlanted.reset();
+        metaWrites.reset();
+        vacuumScanned.reset();
+        seedsVacuumed.reset();
+        containerFlushes.reset();
+        seedsFedFromContainers.reset();
+        harvests.reset();
+        cropsHarvested.reset();
+        seedsHarvested.reset();
+        stackerEntities.reset();
+        stackerItems.reset();
+        pickupLatency.reset();
+        plantLatency.reset();
+        metaWriteLatency.reset();
+        enabledSince = System.currentTimeMillis();
+    }
+
+    /**
+     * Render the statistics as human readable lines for the stats command and file dump.
+     *
+     * @return One line per statistic.
+     */
+    public List<String> toLines() {
+        List<String> lines = new ArrayList<>();
+        long seconds = Math.max(1, (System.currentTimeMillis() - enabledSince) / 1000);
+        lines.add("Recording " + (enabled ? "enabled" : "disabled") + ", window " + seconds + "s");
+        lines.add("Pickups: " + pickups.sum() + " (" + pickupsAbsorbed.sum() + " absorbed, "
+                + pickupsRejected.sum() + " rejected), " + seedsAbsorbed.sum() + " seeds absorbed");
+        lines.add("Plant clicks: " + plantActions.sum() + ", " + seedsPlanted.sum() + " seeds planted");
+        lines.add("Harvests: " + harvests.sum() + ", " + cropsHarvested.sum() + " crops, " + seedsHarvested.sum() + " seeds into bags");
+        lines.add("Meta writes: " + metaWrites.sum());
+        lines.add("Vacuum: " + vacuumScanned.sum() + " entities scanned, " + seedsVacuumed.sum() + " seeds absorbed");
+        lines.add("Stacker " + stackerName + ": " + stackerEntities.sum() + " entities, " + stackerItems.sum() + " items handed over");
+        lines.add("Containers: " + containerFlushes.sum() + " flushes, " + seedsFedFromContainers.sum() + " seeds fed into bags");
+        lines.add(formatLatency("Pickup latency", pickupLatency));
+        lines.add(formatLatency("Plant latency", plantLatency));
+        lines.add(formatLatency("Meta write latency", metaWriteLatency));
+        return lines;
+    }
+
+    /**
+     * Render the statistics in the Prometheus text exposition format.
+     *
+     * @return The metrics document.
+     */
+    public String toPrometheus() {
+        StringBuilder out = new StringBuilder();
+        appendCounter(out, "seedbags_pickups_total", "Seed bag pickup events handled", pickups.sum());
+        appendCounter(out, "seedbags_pickups_absorbed_total", "Pickups absorbed into seed bags", pickupsAbsorbed.sum());
+        appendCounter(out, "seedbags_pickups_rejected_total", "Pickups left to vanilla", pickupsRejected.sum());
+        appendCounter(out, "seedbags_seeds_absorbed_total", "Seeds moved into seed bags", seedsAbsorbed.sum());
+        appendCounter(out, "seedbags_plant_actions_total", "Seed bag planting clicks", plantActions.sum());
+        appendCounter(out, "seedbags_seeds_planted_total", "Seeds planted from seed bags", seedsPlanted.sum());
+        appendCounter(out, "seedbags_harvests_total", "Seed bag area harvests", harvests.sum());
+        appendCounter(out, "seedbags_crops_harvested_total", "Crops harvested by area harvests", cropsHarvested.sum());
+        appendCounter(out, "seedbags_seeds_harvested_total", "Harvested seeds moved straight into seed bags", seedsHarvested.sum());
+        appendCounter(out, "seedbags_meta_writes_total", "Seed bag item meta writes", metaWrites.sum());
+        appendCounter(out, "seedbags_vacuum_entities_scanned_total", "Entities read by vacuum sweeps", vacuumScanned.sum());
+        appendCounter(out, "seedbags_vacuum_seeds_total", "Seeds pulled into seed bags by vacuum sweeps", seedsVacuumed.sum());
+        String stackerLabel = "{stacker=\"" + stackerName + "\"}";
+        appendCounter(out, "seedbags_stacker_entities_total" + stackerLabel, "Item entities handed over by the item stacker adapter", stackerEntities.sum());
+        appendCounter(out, "seedbags_stacker_items_total" + stackerLabel, "Items handed over by the item stacker adapter", stackerItems.sum());
+        appendCounter(out, "seedbags_container_flushes_total", "Containers whose seeds were moved into bags", containerFlushes.sum());
+        appendCounter(out, "seedbags_container_seeds_total", "Seeds fed into bags stored in containers", seedsFedFromContainers.sum());
+        appendSummary(out, "seedbags_pickup_latency_seconds", "Pickup handler latency", pickupLatency);
+        appendSummary(out, "seedbags_plant_latency_seconds", "Planting click latency", plantLatency);
+        appendSummary(out, "seedbags_meta_write_latency_seconds", "Seed bag meta write latency", metaWriteLatency);
+        return out.toString();
+    }
+
+    private static String formatLatency(String name, LatencyHistogram histogram) {
+        return String.format(Locale.ROOT, "%s: n=%d mean=%.1fus p50=%.1fus p99=%.1fus max=%.1fus", name,
+                histogram.getCount(), histogram.getMean() / 1000.0, histogram.getPercentile(50) / 1000.0,
+                histogram.getPercentile(99) / 1000.0, histogram.getMax() / 1000.0);
+    }
+
+    private static void appendCounter(StringBuilder out, String name, String help, long value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" counter\n");
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void appendSummary(StringBuilder out, String name, String help, LatencyHistogram histogram) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" summary\n");
+        for (double quantile : new double[]{0.5, 0.9, 0.99}) {
+            out.append(name).append("{quantile=\"").append(quantile).append("\"} ")
+                    .append(histogram.getPercentile(quantile * 100) / 1e9).append('\n');
+        }
+        out.append(name).append("_sum ").append(histogram.getMean() * histogram.getCount() / 1e9).append('\n');
+        out.append(name).append("_count ").append(histogram.getCount()).append('\n');
+    }
+}
@@ -0,0 +1,129 @@
+package me.kermx.seedBags;
+
+import com.sun.net.httpserver.HttpServer;
+import org.bukkit.plugin.Plugin;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+
+/**
+ * Publishes {@link SeedBagStats} outside the game: a local Prometheus text
+ * endpoint and a periodic file dump. Both run off the main thread and can be
+ * started and stopped at runtime.
+ */
+public class SeedBagStatsExporter {
+    private final Plugin plugin;
+    private final SeedBagStats stats;
+    private final SeedBagScheduler scheduler;
+    private HttpServer httpServer;
+    private ExecutorService httpExecutor;
+    private SeedBagScheduler.Task dumpTask;
+
+    /**
+     * Constructor for SeedBagStatsExporter.
+     *
+     * @param plugin    The main plugin instance.
+     * @param stats     The statistics to export.
+     * @param scheduler The scheduler used for the periodic dump.
+     */
+    public SeedBagStatsExporter(Plugin plugin, SeedBagStats stats, SeedBagScheduler scheduler) {
+        this.plugin = plugin;
+        this.stats = stats;
+        this.scheduler = scheduler;
+    }
+
+    public boolean isHttpRunning() {
+        return httpServer != null;
+    }
+
+    public boolean isFileDumpRunning() {
+        return dumpTask != null;
+    }
+
+    /**
+     * Serve the statistics at /metrics in the Prometheus text format.
+     *
+     * @param host The address to bind; keep this on loopback unless the port is firewalled.
+     * @param port The port to listen on.
+     * @throws IOException If the port cannot be bound.
+     */
+    public void startHttp(String host, int port) throws IOException {
+        if (httpServer != null) {
+            return;
+        }
+        HttpServer server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        server.createContext("/metrics", exchange -> {
+            byte[] body = stats.toPrometheus().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        httpExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "SeedBags-Metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(httpExecutor);
+        server.start();
+        httpServer = server;
+        plugin.getLogger().info("Serving seed bag metrics on http://" + host + ":" + port + "/metrics");
+    }
+
+    public void stopHttp() {
+        if (httpServer != null) {
+            httpServer.stop(0);
+            httpServer = null;
+            httpExecutor.shutdown();
+            httpExecutor = null;
+        }
+    }
+
+    /**
+     * Periodically write the statistics to stats.txt in the plugin folder.
+     *
+     * @param intervalSeconds Seconds between dumps.
+     */
+    public void startFileDump(long intervalSeconds) {
+        if (dumpTask != null) {
+            return;
+        }
+        long intervalTicks = Math.max(1L, intervalSeconds) * 20L;
+        dumpTask = scheduler.runAsyncTimer(this::dump, intervalTicks, intervalTicks);
+    }
+
+    public void stopFileDump() {
+        if (dumpTask != null) {
+            dumpTask.cancel();
+            dumpTask = null;
+        }
+    }
+
+    public void stopAll() {
+        stopHttp();
+        stopFileDump();
+    }
+
+    /**
+     * Write the current statistics to stats.txt, replacing the previous dump atomically.
+     */
+    public void dump() {
+        Path file = plugin.getDataFolder().toPath().resolve("stats.txt");
+        Path tempFile = file.resolveSibling("stats.txt.tmp");
+        try {
+            Files.write(tempFile, stats.toLines(), StandardCharsets.UTF_8);
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not write seed bag stats", e);
+        }
+    }
+}
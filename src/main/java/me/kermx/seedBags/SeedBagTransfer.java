@@ -0,0 +1,280 @@
+package me.kermx.seedBags;
+
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Moves seeds between a player's inventory and their seed bags in bulk.
+ * Each transfer reads the inventory once, works out every move in memory and then
+ * writes each touched bag exactly once, however many stacks or seed types went
+ * into it. Pending pickups are flushed first so bag counts are current.
+ */
+public class SeedBagTransfer {
+    // Storage slots 0-35 and the off hand; armour is never touched
+    private static final int STORAGE_SLOTS = 36;
+    private static final int OFF_HAND_SLOT = 40;
+
+    private final SeedBagIndex bagIndex;
+    private final SeedBagAccumulator accumulator;
+
+    /**
+     * Constructor for SeedBagTransfer.
+     *
+     * @param bagIndex    The per-player seed bag slot index.
+     * @param accumulator The pickup accumulator to flush before a transfer, or null if pickups are not coalesced.
+     */
+    public SeedBagTransfer(SeedBagIndex bagIndex, SeedBagAccumulator accumulator) {
+        this.bagIndex = bagIndex;
+        this.accumulator = accumulator;
+    }
+
+    /**
+     * Move every loose stack of registered seeds in the player's inventory into
+     * matching seed bags, up to each bag's capacity.
+     *
+     * @param player The player whose seeds to deposit.
+     * @return The number of seeds moved and seeds left over because the bags are full.
+     */
+    public Result deposit(Player player) {
+        if (accumulator != null) {
+            accumulator.flush(player);
+        }
+        PlayerInventory inventory = player.getInventory();
+        SeedRegistry registry = SeedRegistry.get();
+
+        // One pass: group loose seed slots by seed type
+        Map<Material, int[]> looseSlots = new EnumMap<>(Material.class);
+        Map<Material, Integer> looseCounts = new EnumMap<>(Material.class);
+        ItemStack[] contents = inventory.getContents();
+        for (int slot = 0; slot < contents.length; slot++) {
+            ItemStack item = contents[slot];
+            if (item == null || (slot >= STORAGE_SLOTS && slot != OFF_HAND_SLOT)
+                    || !registry.isSeed(item.getType()) || item.hasItemMeta()) {
+                continue;
+            }
+            int[] slots = looseSlots.get(item.getType());
+            slots = slots == null ? new int[]{slot} : append(slots, slot);
+            looseSlots.put(item.getType(), slots);
+            looseCounts.merge(item.getType(), item.getAmount(), Integer::sum);
+        }
+        if (looseSlots.isEmpty() || !bagIndex.hasAnyBag(player)) {
+            return new Result(0, looseCounts.values().stream().mapToInt(Integer::intValue).sum());
+        }
+
+        Map<Integer, BagWrite> writes = new HashMap<>();
+        int moved = 0;
+        int leftover = 0;
+        for (Map.Entry<Material, Integer> entry : looseCounts.entrySet()) {
+            Material seedType = entry.getKey();
+            int remaining = fill(player, inventory, writes, seedType, entry.getValue());
+            int deposited = entry.getValue() - remaining;
+            takeLoose(inventory, looseSlots.get(seedType), deposited);
+            moved += deposited;
+            leftover += remaining;
+        }
+        writeBags(player, inventory, writes);
+        return new Result(moved, leftover);
+    }
+
+    /**
+     * Put seeds that are not in the inventory, such as harvested drops, into the
+     * player's matching bags, writing each touched bag once.
+     *
+     * @param player The player whose bags take the seeds.
+     * @param seeds  The number of seeds of each type.
+     * @return The seeds of each type that did not fit; types that all fit are left out.
+     */
+    public Map<Material, Integer> store(Player player, Map<Material, Integer> seeds) {
+        Map<Material, Integer> leftovers = new EnumMap<>(Material.class);
+        if (!bagIndex.hasAnyBag(player)) {
+            leftovers.putAll(seeds);
+            return leftovers;
+        }
+        if (accumulator != null) {
+            accumulator.flush(player);
+        }
+        PlayerInventory inventory = player.getInventory();
+        Map<Integer, BagWrite> writes = new HashMap<>();
+        for (Map.Entry<Material, Integer> entry : seeds.entrySet()) {
+            int remaining = fill(player, inventory, writes, entry.getKey(), entry.getValue());
+            if (remaining > 0) {
+                leftovers.put(entry.getKey(), remaining);
+            }
+        }
+        writeBags(player, inventory, writes);
+        return leftovers;
+    }
+
+    /**
+     * Move up to the requested number of seeds out of the player's bags of the given
+     * type into free inventory space.
+     *
+     * @param player   The player whose bags to withdraw from.
+     * @param seedType The seed type to withdraw.
+     * @param amount   The number of seeds requested.
+     * @return The number of seeds moved and requested seeds that could not be moved.
+     */
+    public Result withdraw(Player player, Material seedType, int amount) {
+        if (accumulator != null) {
+            accumulator.flush(player);
+        }
+        PlayerInventory inventory = player.getInventory();
+
+        // One pass: how many seeds of this type fit in the storage slots
+        int space = 0;
+        ItemStack[] storage = inventory.getStorageContents();
+        int maxStackSize = seedType.getMaxStackSize();
+        for (ItemStack item : storage) {
+            if (item == null || item.getType().isAir()) {
+                space += maxStackSize;
+            } else if (item.getType() == seedType && !item.hasItemMeta()) {
+                space += Math.max(0, maxStackSize - item.getAmount());
+            }
+        }
+
+        int wanted = Math.min(amount, space);
+        Map<Integer, BagWrite> writes = new HashMap<>();
+        int taken = 0;
+        for (int bagSlot : bagIndex.getBagSlots(player, seedType)) {
+            if (taken >= wanted) {
+                break;
+            }
+            BagWrite write = getBagWrite(player, writes, inventory, bagSlot, seedType);
+            int count = write.counts.get(seedType);
+            int seedsToTake = Math.min(count, wanted - taken);
+            if (seedsToTake > 0) {
+                write.counts.set(seedType, count - seedsToTake);
+                write.updates.set(seedType, count - seedsToTake);
+                taken += seedsToTake;
+            }
+        }
+        writeBags(player, inventory, writes);
+        if (taken > 0) {
+            Map<Integer, ItemStack> remaining = inventory.addItem(new ItemStack(seedType, taken));
+            for (ItemStack rem : remaining.values()) {
+                player.getWorld().dropItemNaturally(player.getLocation(), rem);
+            }
+        }
+        return new Result(taken, amount - taken);
+    }
+
+    /**
+     * Add seeds to the pending writes of the player's bags of their type, up to each bag's capacity.
+     *
+     * @return The number of seeds that did not fit.
+     */
+    private int fill(Player player, PlayerInventory inventory, Map<Integer, BagWrite> writes, Material seedType, int amount) {
+        int capacity = SeedRegistry.get().getCapacity(seedType);
+        int remaining = amount;
+        for (int bagSlot : bagIndex.getBagSlots(player, seedType)) {
+            if (remaining <= 0) {
+                break;
+            }
+            BagWrite write = getBagWrite(player, writes, inventory, bagSlot, seedType);
+            int count = write.counts.get(seedType);
+            int seedsToAdd = Math.min(remaining, capacity - count);
+            if (seedsToAdd > 0) {
+                write.counts.set(seedType, count + seedsToAdd);
+                write.updates.set(seedType, count + seedsToAdd);
+                remaining -= seedsToAdd;
+            }
+        }
+        return remaining;
+    }
+
+    private static BagWrite getBagWrite(Player player, Map<Integer, BagWrite> writes, PlayerInventory inventory, int slot,
+                                        Material seedType) {
+        BagWrite write = writes.get(slot);
+        if (write == null) {
+            ItemStack bag = inventory.getItem(slot);
+            SeedCounts counts = SeedBagUtil.getSeedCounts(bag);
+            if (counts == null) {
+                counts = new SeedCounts();
+                counts.set(seedType, SeedBagUtil.getSeedCount(player, bag, seedType));
+                write = new BagWrite(bag, false, counts);
+            } else {
+                write = new BagWrite(bag, true, counts);
+            }
+            writes.put(slot, write);
+        }
+        return write;
+    }
+
+    private static void writeBags(Player player, PlayerInventory inventory, Map<Integer, BagWrite> writes) {
+        for (Map.Entry<Integer, BagWrite> entry : writes.entrySet()) {
+            BagWrite write = entry.getValue();
+            if (write.updates.size() == 0) {
+                continue;
+            }
+            if (write.universal) {
+                SeedBagUtil.setSeedCounts(player, entry.getKey(), write.bag, write.updates);
+            } else {
+                // As a delta against the count read, so bank bags sharing a balance add up
+                Material seedType = write.updates.getSeedType(0);
+                SeedBagUtil.addSeedCount(player, entry.getKey(), write.bag, seedType,
+                        write.updates.getCount(0) - write.read);
+            }
+        }
+    }
+
+    /**
+     * Remove deposited seeds from the loose stacks, emptying the last slots first.
+     */
+    private static void takeLoose(PlayerInventory inventory, int[] slots, int amount) {
+        for (int i = slots.length - 1; i >= 0 && amount > 0; i--) {
+            ItemStack item = inventory.getItem(slots[i]);
+            if (item == null) {
+                continue;
+            }
+            int taken = Math.min(amount, item.getAmount());
+            amount -= taken;
+            if (taken == item.getAmount()) {
+                inventory.setItem(slots[i], null);
+            } else {
+                item.setAmount(item.getAmount() - taken);
+                inventory.setItem(slots[i], item);
+            }
+        }
+    }
+
+    private static int[] append(int[] slots, int slot) {
+        int[] grown = Arrays.copyOf(slots, slots.length + 1);
+        grown[slots.length] = slot;
+        return grown;
+    }
+
+    /**
+     * The outcome of a transfer.
+     *
+     * @param moved    The number of seeds moved.
+     * @param leftover The number of seeds that could not be moved.
+     */
+    public record Result(int moved, int leftover) {
+    }
+
+    /**
+     * The counts of one bag as read at the start of a transfer, and the counts to write back.
+     */
+    private static final class BagWrite {
+        private final ItemStack bag;
+        private final boolean universal;
+        private final SeedCounts counts;
+        private final SeedCounts updates = new SeedCounts();
+        // The count of a single bag as read
+        private final int read;
+
+        private BagWrite(ItemStack bag, boolean universal, SeedCounts counts) {
+            this.bag = bag;
+            this.universal = universal;
+            this.counts = counts;
+            this.read = universal ? 0 : counts.getCount(0);
+        }
+    }
+}
@@ -1,50 +1,555 @@
 package me.kermx.seedBags;
 
-import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.minimessage.MiniMessage;
 import org.bukkit.Material;
+import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.persistence.PersistentDataContainer;
 import org.bukkit.persistence.PersistentDataType;
 import org.bukkit.plugin.Plugin;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.UUID;
+import java.util.function.IntUnaryOperator;
 
 public class SeedBagUtil {
 
-    private static final MiniMessage MINI_MESSAGE = MiniMessage.miniMessage();
+    private static SeedBagRenderer renderer =
+            new SeedBagRenderer(SeedBagRenderer.RefreshPolicy.ALWAYS, SeedBagRenderer.CountFormat.PLAIN, "Plants crops in a 5x5 area.");
+
+    private static SeedLedger ledger;
+    private static SeedBank bank;
+    private static SeedBagStats stats = new SeedBagStats(false);
+
+    public static void setRenderer(SeedBagRenderer seedBagRenderer) {
+        renderer = seedBagRenderer;
+    }
+
+    public static void setStats(SeedBagStats seedBagStats) {
+        stats = seedBagStats;
+    }
+
+    /**
+     * Switch seed count storage between the bag's own PDC (null) and the server-side ledger.
+     */
+    public static void setLedger(SeedLedger seedLedger) {
+        ledger = seedLedger;
+    }
+
+    /**
+     * Switch single bags to showing their owner's seed bank balance (non-null) or back
+     * to their own count (null).
+     */
+    public static void setBank(SeedBank seedBank) {
+        bank = seedBank;
+    }
 
     public static void updateSeedBagMeta(ItemStack seedBag) {
         if (seedBag == null) {
             return;
         }
+        long start = stats.isEnabled() ? System.nanoTime() : 0L;
         ItemMeta meta = seedBag.getItemMeta();
         if (meta == null) {
             return;
         }
 
+        render(meta);
+        seedBag.setItemMeta(meta);
+        if (start != 0L) {
+            stats.recordMetaWrite(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Render a bag's name and lore into its meta from the counts stored in it.
+     */
+    private static void render(ItemMeta meta) {
         PersistentDataContainer data = meta.getPersistentDataContainer();
         String seedType = data.get(SeedBags.SEED_TYPE_KEY, PersistentDataType.STRING);
-        int seedCount = data.getOrDefault(SeedBags.SEED_COUNT_KEY, PersistentDataType.INTEGER, 0);
+        byte[] packedCounts = data.get(SeedBags.SEED_COUNTS_KEY, PersistentDataType.BYTE_ARRAY);
+        if (packedCounts != null) {
+            renderer.renderUniversal(meta, seedType == null ? null : Material.getMaterial(seedType), SeedCounts.decode(packedCounts));
+        } else {
+            renderer.render(meta, seedType == null ? null : Material.getMaterial(seedType), readSeedCount(null, data));
+        }
+    }
+
+    /**
+     * Get the seed count of a bag; for a universal bag, the count of its active seed.
+     */
+    public static int getSeedCount(ItemStack seedBag) {
+        ItemMeta meta = seedBag.getItemMeta();
+        if (meta == null) {
+            return 0;
+        }
+        PersistentDataContainer data = meta.getPersistentDataContainer();
+        byte[] packedCounts = data.get(SeedBags.SEED_COUNTS_KEY, PersistentDataType.BYTE_ARRAY);
+        if (packedCounts != null) {
+            String seedType = data.get(SeedBags.SEED_TYPE_KEY, PersistentDataType.STRING);
+            return seedType == null ? 0 : SeedCounts.decode(packedCounts).get(Material.getMaterial(seedType));
+        }
+        return readSeedCount(null, data);
+    }
+
+    /**
+     * Get the count of the given seed type in a bag holding it, single or universal.
+     */
+    public static int getSeedCount(ItemStack seedBag, Material seedType) {
+        return getSeedCount(null, seedBag, seedType);
+    }
+
+    /**
+     * Get the count of the given seed type in a bag in the player's inventory. In bank
+     * mode a single bag shows the balance of the player holding it, never that of a
+     * previous owner.
+     */
+    public static int getSeedCount(Player player, ItemStack seedBag, Material seedType) {
+        ItemMeta meta = seedBag.getItemMeta();
+        if (meta == null) {
+            return 0;
+        }
+        PersistentDataContainer data = meta.getPersistentDataContainer();
+        byte[] packedCounts = data.get(SeedBags.SEED_COUNTS_KEY, PersistentDataType.BYTE_ARRAY);
+        if (packedCounts != null) {
+            return SeedCounts.decode(packedCounts).get(seedType);
+        }
+        return readSeedCount(player == null ? null : player.getUniqueId(), data);
+    }
+
+    /**
+     * Get every seed count of a universal bag with a single decode.
+     *
+     * @return The counts, or null if the item is not a universal bag.
+     */
+    public static SeedCounts getSeedCounts(ItemStack seedBag) {
+        ItemMeta meta = seedBag == null ? null : seedBag.getItemMeta();
+        if (meta == null) {
+            return null;
+        }
+        byte[] packedCounts = meta.getPersistentDataContainer().get(SeedBags.SEED_COUNTS_KEY, PersistentDataType.BYTE_ARRAY);
+        return packedCounts == null ? null : SeedCounts.decode(packedCounts);
+    }
 
-        if (seedType == null) {
-            seedType = "Unknown Seed";
+    /**
+     * Check whether a bag is a view of a seed bank balance, and whose.
+     *
+     * @return The bag's owner, or null if the bag keeps its own count or bank mode is off.
+     */
+    public static UUID getBankOwner(ItemStack seedBag) {
+        return bank == null ? null : getBankOwner(getBagMeta(seedBag));
+    }
+
+    /**
+     * Same as {@link #getBankOwner(ItemStack)}, on meta already fetched for the bag.
+     */
+    static UUID getBankOwner(ItemMeta meta) {
+        if (bank == null || meta == null) {
+            return null;
+        }
+        String owner = meta.getPersistentDataContainer().get(SeedBags.BANK_OWNER_KEY, PersistentDataType.STRING);
+        return owner == null ? null : UUID.fromString(owner);
+    }
+
+    /**
+     * In bank mode, make a single bag in a player's inventory a view of that player's
+     * balance: a bag still keeping its own count adds it to their balance, and a bag
+     * owned by someone else is handed over without any seeds moving.
+     *
+     * @return True if the bag was changed and must be written back to its slot.
+     */
+    public static boolean claimBankBag(Player player, ItemStack seedBag) {
+        if (bank == null || seedBag == null || seedBag.getType() != Material.PAPER) {
+            return false;
+        }
+        ItemMeta meta = seedBag.getItemMeta();
+        if (meta == null) {
+            return false;
+        }
+        PersistentDataContainer data = meta.getPersistentDataContainer();
+        Material seedType = Material.getMaterial(data.getOrDefault(SeedBags.SEED_TYPE_KEY, PersistentDataType.STRING, ""));
+        if (seedType == null || data.has(SeedBags.SEED_COUNTS_KEY, PersistentDataType.BYTE_ARRAY)) {
+            return false;
+        }
+        UUID holder = player.getUniqueId();
+        if (holder.toString().equals(data.get(SeedBags.BANK_OWNER_KEY, PersistentDataType.STRING))) {
+            return false;
+        }
+        bindOwner(holder, data, seedType, readSeedCount(null, data));
+        renderer.render(meta, seedType, bank.get(holder, seedType));
+        seedBag.setItemMeta(meta);
+        return true;
+    }
+
+    /**
+     * Make the holder the owner of a single bag. A bag that kept its own count adds it to
+     * the holder's balance; a bag of another owner changes hands without seeds moving,
+     * as balances belong to players, not to bags.
+     *
+     * @param ownCount The count the bag brings into the balance, ignored if it already had an owner.
+     */
+    private static void bindOwner(UUID holder, PersistentDataContainer data, Material seedType, int ownCount) {
+        if (!data.has(SeedBags.BANK_OWNER_KEY, PersistentDataType.STRING)) {
+            bank.add(holder, seedType, ownCount);
+            data.remove(SeedBags.SEED_COUNT_KEY);
+            data.remove(SeedBags.BAG_ID_KEY);
+        }
+        data.set(SeedBags.BANK_OWNER_KEY, PersistentDataType.STRING, holder.toString());
+    }
+
+    /**
+     * Read a bag's seed count from the seed bank if the bag has an owner, from the
+     * ledger if it carries an id, otherwise from the count stored on the item itself.
+     * A bank bag held by a player shows that player's balance, so a bag passed to
+     * someone else never draws on its previous owner's seeds.
+     *
+     * @param holder The player holding the bag, or null if it is not in a player's inventory.
+     */
+    private static int readSeedCount(UUID holder, PersistentDataContainer data) {
+        if (bank != null) {
+            String owner = data.get(SeedBags.BANK_OWNER_KEY, PersistentDataType.STRING);
+            Material seedType = Material.getMaterial(data.getOrDefault(SeedBags.SEED_TYPE_KEY, PersistentDataType.STRING, ""));
+            if (owner != null && seedType != null) {
+                return bank.get(holder != null ? holder : UUID.fromString(owner), seedType);
+            }
+        }
+        if (ledger != null) {
+            String bagId = data.get(SeedBags.BAG_ID_KEY, PersistentDataType.STRING);
+            if (bagId != null) {
+                return ledger.get(UUID.fromString(bagId));
+            }
+        }
+        return data.getOrDefault(SeedBags.SEED_COUNT_KEY, PersistentDataType.INTEGER, 0);
+    }
+
+    /**
+     * Store a new seed count on a bag in a visible slot, refreshing its display
+     * in the same meta round-trip when the refresh policy asks for it.
+     */
+    public static void setSeedCount(ItemStack seedBag, int seedCount) {
+        setSeedCount(seedBag, seedCount, true);
+    }
+
+    /**
+     * Store a new seed count on a bag in the player's inventory. If the refresh
+     * policy skips bags outside the visible slots, the bag is remembered so its
+     * display is refreshed on the player's next inventory interaction.
+     */
+    public static void setSeedCount(Player player, int slot, ItemStack seedBag, int seedCount) {
+        if (!setSeedCount(player.getUniqueId(), seedBag, oldCount -> seedCount, renderer.isVisibleSlot(slot))) {
+            renderer.markStale(player, slot);
+        }
+    }
+
+    /**
+     * Store a new count of the given seed type on a single or universal bag in the
+     * player's inventory.
+     */
+    public static void setSeedCount(Player player, int slot, ItemStack seedBag, Material seedType, int seedCount) {
+        ItemMeta meta = seedBag.getItemMeta();
+        boolean visible = renderer.isVisibleSlot(slot);
+        boolean rendered;
+        if (isUniversal(meta)) {
+            SeedCounts updates = new SeedCounts();
+            updates.set(seedType, seedCount);
+            rendered = setUniversalSeedCounts(seedBag, meta, updates, false, visible);
         } else {
-            seedType = normalizeMaterialName(seedType);
+            rendered = setSeedCount(player.getUniqueId(), seedBag, meta, oldCount -> seedCount, visible);
         }
+        if (!rendered) {
+            renderer.markStale(player, slot);
+        }
+    }
 
-        String displayName = "<white><italic:false>Seed Bag - " + seedType + " (" + seedCount + ")";
-        meta.displayName(MINI_MESSAGE.deserialize(displayName));
+    /**
+     * Store a new count of the given seed type on a single or universal bag outside a
+     * player's inventory, such as a dropped bag.
+     */
+    public static void setSeedCount(ItemStack seedBag, Material seedType, int seedCount) {
+        ItemMeta meta = seedBag.getItemMeta();
+        if (isUniversal(meta)) {
+            SeedCounts updates = new SeedCounts();
+            updates.set(seedType, seedCount);
+            setUniversalSeedCounts(seedBag, meta, updates, false, true);
+        } else {
+            setSeedCount(null, seedBag, meta, oldCount -> seedCount, true);
+        }
+    }
+
+    /**
+     * Change the count of the given seed type on a single or universal bag in the
+     * player's inventory by a delta, against the count as it is now. In bank mode
+     * the delta goes to the balance as it is, so changes made through several bags
+     * showing the same balance add up instead of overwriting each other.
+     *
+     * @param delta The change, negative to take seeds out; the count stops at zero.
+     */
+    public static void addSeedCount(Player player, int slot, ItemStack seedBag, Material seedType, int delta) {
+        addSeedCount(player, slot, seedBag, seedBag.getItemMeta(), seedType, delta);
+    }
+
+    /**
+     * Same as {@link #addSeedCount(Player, int, ItemStack, Material, int)}, on meta the
+     * caller already fetched from the bag to check it; the bag is written from it.
+     */
+    static void addSeedCount(Player player, int slot, ItemStack seedBag, ItemMeta meta, Material seedType, int delta) {
+        boolean visible = renderer.isVisibleSlot(slot);
+        boolean rendered;
+        if (isUniversal(meta)) {
+            SeedCounts deltas = new SeedCounts();
+            deltas.set(seedType, delta);
+            rendered = setUniversalSeedCounts(seedBag, meta, deltas, true, visible);
+        } else {
+            rendered = setSeedCount(player.getUniqueId(), seedBag, meta, oldCount -> Math.max(0, oldCount + delta),
+                    visible);
+        }
+        if (!rendered) {
+            renderer.markStale(player, slot);
+        }
+    }
+
+    /**
+     * Change the count of the given seed type on a single or universal bag outside a
+     * player's inventory, such as a dropped bag, by a delta.
+     *
+     * @param delta The change, negative to take seeds out; the count stops at zero.
+     */
+    public static void addSeedCount(ItemStack seedBag, Material seedType, int delta) {
+        ItemMeta meta = seedBag.getItemMeta();
+        if (isUniversal(meta)) {
+            SeedCounts deltas = new SeedCounts();
+            deltas.set(seedType, delta);
+            setUniversalSeedCounts(seedBag, meta, deltas, true, true);
+        } else {
+            setSeedCount(null, seedBag, meta, oldCount -> Math.max(0, oldCount + delta), true);
+        }
+    }
+
+    /**
+     * Store new counts for several seed types on a universal bag in the player's
+     * inventory, with a single decode and a single meta write.
+     *
+     * @param updates The new counts; seed types not listed keep their count.
+     */
+    public static void setSeedCounts(Player player, int slot, ItemStack seedBag, SeedCounts updates) {
+        if (!setUniversalSeedCounts(seedBag, seedBag.getItemMeta(), updates, false, renderer.isVisibleSlot(slot))) {
+            renderer.markStale(player, slot);
+        }
+    }
+
+    /**
+     * Change the counts of several seed types on a universal bag in the player's
+     * inventory by a delta each, against the counts as they are now, with a single
+     * decode and a single meta write.
+     *
+     * @param deltas The changes, negative to take seeds out; counts stop at zero.
+     */
+    public static void addSeedCounts(Player player, int slot, ItemStack seedBag, SeedCounts deltas) {
+        addSeedCounts(player, slot, seedBag, seedBag.getItemMeta(), deltas);
+    }
 
-        List<Component> lore = new ArrayList<>();
-        lore.add(MINI_MESSAGE.deserialize("<gray><italic:false>Plants crops in a 5x5 area."));
-        lore.add(Component.text(" "));
-        lore.add(MINI_MESSAGE.deserialize("<gray><italic:false>" + seedCount + "/128,000 "));
-        meta.lore(lore);
+    /**
+     * Same as {@link #addSeedCounts(Player, int, ItemStack, SeedCounts)}, on meta the
+     * caller already fetched from the bag to check it; the bag is written from it.
+     */
+    static void addSeedCounts(Player player, int slot, ItemStack seedBag, ItemMeta meta, SeedCounts deltas) {
+        if (!setUniversalSeedCounts(seedBag, meta, deltas, true, renderer.isVisibleSlot(slot))) {
+            renderer.markStale(player, slot);
+        }
+    }
+
+    /**
+     * Store new counts for several seed types on a universal bag outside a player's
+     * inventory, such as in a container, with a single meta write.
+     *
+     * @param updates The new counts; seed types not listed keep their count.
+     */
+    public static void setSeedCounts(ItemStack seedBag, SeedCounts updates) {
+        setUniversalSeedCounts(seedBag, seedBag.getItemMeta(), updates, false, true);
+    }
 
+    /**
+     * Change the counts of several seed types on a universal bag outside a player's
+     * inventory, such as a dropped bag, by a delta each.
+     *
+     * @param deltas The changes, negative to take seeds out; counts stop at zero.
+     */
+    public static void addSeedCounts(ItemStack seedBag, SeedCounts deltas) {
+        setUniversalSeedCounts(seedBag, seedBag.getItemMeta(), deltas, true, true);
+    }
+
+    /**
+     * Choose the seed type a universal bag plants.
+     */
+    public static void setActiveSeed(ItemStack seedBag, Material seedType) {
+        long start = stats.isEnabled() ? System.nanoTime() : 0L;
+        ItemMeta meta = seedBag.getItemMeta();
+        if (meta == null) {
+            return;
+        }
+        // The new active seed is rendered into the same meta, so the bag is written once
+        meta.getPersistentDataContainer().set(SeedBags.SEED_TYPE_KEY, PersistentDataType.STRING, seedType.toString());
+        render(meta);
         seedBag.setItemMeta(meta);
+        if (start != 0L) {
+            stats.recordMetaWrite(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Store a new seed count on the bag, refreshing its display in the same meta
+     * round-trip when the refresh policy asks for it. In ledger mode only memory
+     * is updated, and the item is not written at all unless its display changes.
+     *
+     * @return False if the display was left stale because the bag is not visible.
+     */
+    public static boolean setSeedCount(ItemStack seedBag, int seedCount, boolean visible) {
+        return setSeedCount(null, seedBag, oldCount -> seedCount, visible);
+    }
+
+    /**
+     * Store a new seed count on the bag, worked out from the count read right before
+     * the write. In bank mode the change goes to the balance the bag shows; a bag held
+     * by a player who does not own it yet becomes theirs first, see {@link #bindOwner}.
+     *
+     * @param holder The player holding the bag, or null if it is not in a player's inventory.
+     * @param update Maps the current count to the new one.
+     */
+    private static boolean setSeedCount(UUID holder, ItemStack seedBag, IntUnaryOperator update, boolean visible) {
+        return setSeedCount(holder, seedBag, seedBag.getItemMeta(), update, visible);
+    }
+
+    /**
+     * Same as {@link #setSeedCount(UUID, ItemStack, IntUnaryOperator, boolean)}, writing
+     * the bag from meta already fetched from it.
+     */
+    private static boolean setSeedCount(UUID holder, ItemStack seedBag, ItemMeta meta, IntUnaryOperator update,
+                                        boolean visible) {
+        long start = stats.isEnabled() ? System.nanoTime() : 0L;
+        if (meta == null) {
+            return true;
+        }
+        PersistentDataContainer data = meta.getPersistentDataContainer();
+        if (data.has(SeedBags.SEED_COUNTS_KEY, PersistentDataType.BYTE_ARRAY)) {
+            // A universal bag without a seed type given: update its active seed
+            Material activeSeed = Material.getMaterial(data.getOrDefault(SeedBags.SEED_TYPE_KEY, PersistentDataType.STRING, ""));
+            if (activeSeed == null) {
+                return true;
+            }
+            SeedCounts updates = new SeedCounts();
+            updates.set(activeSeed, update.applyAsInt(SeedCounts.decode(
+                    data.get(SeedBags.SEED_COUNTS_KEY, PersistentDataType.BYTE_ARRAY)).get(activeSeed)));
+            return setUniversalSeedCounts(seedBag, meta, updates, false, visible);
+        }
+        String owner = bank == null ? null : data.get(SeedBags.BANK_OWNER_KEY, PersistentDataType.STRING);
+        Material bankSeedType = bank == null ? null
+                : Material.getMaterial(data.getOrDefault(SeedBags.SEED_TYPE_KEY, PersistentDataType.STRING, ""));
+        boolean banked = bankSeedType != null && (owner != null || holder != null);
+        // A bag that just became a view of a balance shows a different count, not a changed one
+        boolean rebound = banked && (owner == null || (holder != null && !holder.toString().equals(owner)));
+        int oldCount;
+        int seedCount;
+        if (banked && owner == null) {
+            // The count was read from the bag itself, so the bag brings its updated count along
+            oldCount = readSeedCount(null, data);
+            bindOwner(holder, data, bankSeedType, update.applyAsInt(oldCount));
+            seedCount = bank.get(holder, bankSeedType);
+        } else if (banked) {
+            if (rebound) {
+                bindOwner(holder, data, bankSeedType, 0);
+            }
+            UUID account = holder != null ? holder : UUID.fromString(owner);
+            oldCount = bank.get(account, bankSeedType);
+            bank.add(account, bankSeedType, (long) update.applyAsInt(oldCount) - oldCount);
+            seedCount = bank.get(account, bankSeedType);
+        } else {
+            oldCount = readSeedCount(null, data);
+            seedCount = update.applyAsInt(oldCount);
+        }
+        boolean rendered = rebound || renderer.shouldRender(oldCount, seedCount, visible);
+        boolean metaChanged = rendered;
+        if (banked) {
+            // The count lives in the bank
+        } else if (ledger != null) {
+            String bagId = data.get(SeedBags.BAG_ID_KEY, PersistentDataType.STRING);
+            if (bagId == null) {
+                // Migrate a bag that still stores its count on the item
+                bagId = UUID.randomUUID().toString();
+                data.set(SeedBags.BAG_ID_KEY, PersistentDataType.STRING, bagId);
+                data.remove(SeedBags.SEED_COUNT_KEY);
+                metaChanged = true;
+            }
+            ledger.set(UUID.fromString(bagId), seedCount);
+        } else {
+            data.set(SeedBags.SEED_COUNT_KEY, PersistentDataType.INTEGER, seedCount);
+            metaChanged = true;
+        }
+        if (rendered) {
+            String seedType = data.get(SeedBags.SEED_TYPE_KEY, PersistentDataType.STRING);
+            renderer.render(meta, seedType == null ? null : Material.getMaterial(seedType), seedCount);
+        }
+        if (metaChanged) {
+            seedBag.setItemMeta(meta);
+            if (start != 0L) {
+                stats.recordMetaWrite(System.nanoTime() - start);
+            }
+        }
+        return rendered || visible;
+    }
+
+    /**
+     * Merge new counts into a universal bag's meta, fetched once by the caller, and
+     * write it once.
+     *
+     * @param delta Whether the updates are changes to the counts decoded here rather than new counts.
+     * @return False if the display was left stale because the bag is not visible.
+     */
+    private static boolean setUniversalSeedCounts(ItemStack seedBag, ItemMeta meta, SeedCounts updates, boolean delta,
+                                                  boolean visible) {
+        long start = stats.isEnabled() ? System.nanoTime() : 0L;
+        if (meta == null) {
+            return true;
+        }
+        PersistentDataContainer data = meta.getPersistentDataContainer();
+        byte[] packedCounts = data.get(SeedBags.SEED_COUNTS_KEY, PersistentDataType.BYTE_ARRAY);
+        SeedCounts oldCounts = SeedCounts.decode(packedCounts);
+        SeedCounts newCounts = oldCounts.copy();
+        for (int i = 0; i < updates.size(); i++) {
+            Material seedType = updates.getSeedType(i);
+            newCounts.set(seedType, delta ? Math.max(0, oldCounts.get(seedType) + updates.getCount(i)) : updates.getCount(i));
+        }
+        data.set(SeedBags.SEED_COUNTS_KEY, PersistentDataType.BYTE_ARRAY, newCounts.encode());
+        boolean rendered = renderer.shouldRender(oldCounts, newCounts, visible);
+        if (rendered) {
+            String seedType = data.get(SeedBags.SEED_TYPE_KEY, PersistentDataType.STRING);
+            renderer.renderUniversal(meta, seedType == null ? null : Material.getMaterial(seedType), newCounts);
+        }
+        seedBag.setItemMeta(meta);
+        if (start != 0L) {
+            stats.recordMetaWrite(System.nanoTime() - start);
+        }
+        return rendered || visible;
+    }
+
+    /**
+     * Check whether the item is a universal bag, holding counts for every seed type.
+     */
+    public static boolean isUniversal(ItemStack item) {
+        return isUniversal(getBagMeta(item));
+    }
+
+    static boolean isUniversal(ItemMeta meta) {
+        return meta != null && meta.getPersistentDataContainer().has(SeedBags.SEED_COUNTS_KEY, PersistentDataType.BYTE_ARRAY);
+    }
+
+    /**
+     * Check whether the item is a bag that can hold the given seed type: a single
+     * bag of that type, or a universal bag if the seed type is registered.
+     */
+    public static boolean holdsSeed(ItemStack item, Material seedType) {
+        if (isUniversal(item)) {
+            return SeedRegistry.get().isSeed(seedType);
+        }
+        return getSeedType(item) == seedType;
     }
 
     public static boolean isSeedBag(ItemStack item, Plugin plugin, Material seedType) {
@@ -62,6 +567,28 @@ public class SeedBagUtil {
         return seedType == null || storedSeedType.equals(seedType.toString());
     }
 
+    public static Material getSeedType(ItemStack item) {
+        return getSeedType(getBagMeta(item));
+    }
+
+    static Material getSeedType(ItemMeta meta) {
+        if (meta == null) {
+            return null;
+        }
+        String storedSeedType = meta.getPersistentDataContainer().get(SeedBags.SEED_TYPE_KEY, PersistentDataType.STRING);
+        return storedSeedType == null ? null : Material.getMaterial(storedSeedType);
+    }
+
+    /**
+     * Fetch the meta of an item that may be a seed bag, so several checks and a write
+     * can share one copy of it instead of each cloning the meta again.
+     *
+     * @return The meta, or null if the item cannot be a seed bag.
+     */
+    static ItemMeta getBagMeta(ItemStack item) {
+        return item == null || item.getType() != Material.PAPER ? null : item.getItemMeta();
+    }
+
     public static String normalizeMaterialName(String materialName) {
         // Replace underscores with spaces and capitalize each word
         String[] words = materialName.toLowerCase().split("_");
@@ -1,11 +1,16 @@
 package me.kermx.seedBags;
 
-import dev.rosewood.rosestacker.api.RoseStackerAPI;
-import org.bukkit.Bukkit;
 import org.bukkit.NamespacedKey;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.Objects;
+import java.util.logging.Level;
 
 /**
  * The main class for the SeedBags plugin.
@@ -13,11 +18,26 @@ import java.util.Objects;
  * and registers the event listener.
  */
 public final class SeedBags extends JavaPlugin {
-    private RoseStackerAPI rsAPI;
+    private SeedBagScheduler scheduler;
+    private SeedBagIndex seedBagIndex;
+    private SeedBagAccumulator seedBagAccumulator;
+    private PlantingScheduler plantingScheduler;
+    private SeedLedger seedLedger;
+    private SeedBank seedBank;
+    private SeedBagStats seedBagStats;
+    private SeedBagStatsExporter statsExporter;
+    private SeedBagRenderer renderer;
+    private VacuumSweeper vacuumSweeper;
+    private ContainerBagFeeder containerBagFeeder;
+    private SeedBagRecorder recorder;
+    private PlayerDataScanner playerDataScanner;
 
     private static SeedBags instance;
     public static NamespacedKey SEED_TYPE_KEY;
     public static NamespacedKey SEED_COUNT_KEY;
+    public static NamespacedKey BAG_ID_KEY;
+    public static NamespacedKey SEED_COUNTS_KEY;
+    public static NamespacedKey BANK_OWNER_KEY;
 
     public static final int MAX_SEEDS = 128000;
 
@@ -31,18 +51,203 @@ public final class SeedBags extends JavaPlugin {
         instance = this;
         SEED_TYPE_KEY = new NamespacedKey(this, "seed_type");
         SEED_COUNT_KEY = new NamespacedKey(this, "seed_count");
+        BAG_ID_KEY = new NamespacedKey(this, "bag_id");
+        SEED_COUNTS_KEY = new NamespacedKey(this, "seed_counts");
+        BANK_OWNER_KEY = new NamespacedKey(this, "bank_owner");
 
+        saveDefaultConfig();
+
+        reloadSeedRegistry();
+
+        // Route work to the owning region thread on Folia, or the main thread elsewhere
+        this.scheduler = SeedBagScheduler.create(this);
+
+        // Keep seed counts in the server-side ledger instead of on the items
+        if (getConfig().getString("storage.mode", "item").equalsIgnoreCase("ledger")) {
+            this.seedLedger = new SeedLedger(getLogger(), getDataFolder().toPath().resolve("ledger"),
+                    getConfig().getLong("storage.compact-bytes", 4L * 1024 * 1024));
+            try {
+                seedLedger.load();
+            } catch (IOException e) {
+                getLogger().log(Level.SEVERE, "Could not load the seed ledger, disabling SeedBags", e);
+                this.seedLedger = null;
+                getServer().getPluginManager().disablePlugin(this);
+                return;
+            }
+            SeedBagUtil.setLedger(seedLedger);
+            long flushInterval = Math.max(1L, getConfig().getLong("storage.flush-interval-ticks", 20L));
+            scheduler.runGlobalTimer(seedLedger::flush, flushInterval, flushInterval);
+        }
+
+        this.seedBagIndex = new SeedBagIndex(this, getConfig().getBoolean("debug.verify-index", false));
+        getServer().getPluginManager().registerEvents(seedBagIndex, this);
+
+        // Share seed balances with every server connected to the same bank backend
+        if (getConfig().getString("storage.mode", "item").equalsIgnoreCase("bank")) {
+            String serverId = getConfig().getString("bank.server-id", "");
+            if (serverId.isEmpty()) {
+                serverId = "server-" + getServer().getPort();
+            }
+            this.seedBank = new SeedBank(getLogger(), scheduler, seedBagIndex,
+                    SeedBank.createBackend(getConfig().getConfigurationSection("bank"), getDataFolder().toPath()), serverId);
+            getServer().getPluginManager().registerEvents(seedBank, this);
+            SeedBagUtil.setBank(seedBank);
+            long syncInterval = Math.max(1L, getConfig().getLong("bank.sync-interval-ticks", 20L));
+            scheduler.runGlobalTimer(seedBank::flush, syncInterval, syncInterval);
+            getLogger().info("Seed bank using " + seedBank.getBackendName());
+        }
+
+        this.seedBagStats = new SeedBagStats(getConfig().getBoolean("stats.enabled", false));
+        SeedBagUtil.setStats(seedBagStats);
+        this.statsExporter = new SeedBagStatsExporter(this, seedBagStats, scheduler);
+        if (getConfig().getBoolean("stats.http.enabled", false)) {
+            try {
+                statsExporter.startHttp(getConfig().getString("stats.http.host", "127.0.0.1"), getConfig().getInt("stats.http.port", 9465));
+            } catch (IOException e) {
+                getLogger().log(Level.WARNING, "Could not start the seed bag metrics endpoint", e);
+            }
+        }
+        if (getConfig().getBoolean("stats.file.enabled", false)) {
+            statsExporter.startFileDump(getConfig().getLong("stats.file.interval-seconds", 60L));
+        }
+
+        // Coalesce pickups into one bag write per tick unless disabled; replanting always batches its bag writes
+        boolean coalescePickups = getConfig().getBoolean("pickup.coalesce", true);
+        boolean replant = getConfig().getBoolean("replant.enabled", false);
+        if (coalescePickups || replant) {
+            this.seedBagAccumulator = new SeedBagAccumulator(this, scheduler);
+            getServer().getPluginManager().registerEvents(seedBagAccumulator, this);
+        }
+
+        this.plantingScheduler = new PlantingScheduler(this, scheduler, seedBagIndex, seedBagAccumulator, seedBagStats,
+                getConfig().getConfigurationSection("planting"));
+        getServer().getPluginManager().registerEvents(plantingScheduler, this);
+
+        this.renderer = SeedBagRenderer.fromConfig(getConfig().getConfigurationSection("render"), plantingScheduler.getAreaDescription());
+        SeedBagUtil.setRenderer(renderer);
+        // Registered after the accumulator so flushed bags are refreshed by the same event
+        getServer().getPluginManager().registerEvents(renderer, this);
 
         // Set the executor for the /getseedbag command
-        Objects.requireNonNull(getCommand("getseedbag")).setExecutor(new SeedBagCommandExecutor(this));
+        Objects.requireNonNull(getCommand("getseedbag")).setExecutor(new SeedBagCommandExecutor(this, seedBagIndex));
+
+        SeedBagTransfer transfer = new SeedBagTransfer(seedBagIndex, seedBagAccumulator);
+
+        // Pick the item stacker adapter once; pickups call it on every seed drop
+        ItemStackerAdapter stacker = ItemStackerAdapter.create(this, getConfig().getString("pickup.stacker", "auto"));
+        seedBagStats.setStackerName(stacker.getName());
+        getLogger().info("Using the " + stacker.getName() + " item stacker adapter.");
 
-        // Check if RoseStacker plugin is enabled and get its API instance
-        if (Bukkit.getPluginManager().isPluginEnabled("RoseStacker")) {
-            this.rsAPI = RoseStackerAPI.getInstance();
+        // Registered before the seed bag listener so recordings show the bags as it finds them
+        this.recorder = new SeedBagRecorder(getLogger(), scheduler, seedBagIndex, stacker, plantingScheduler,
+                getDataFolder().toPath().resolve("recordings"), getConfig().getLong("recorder.max-buffered-bytes", 16L * 1024 * 1024));
+        getServer().getPluginManager().registerEvents(recorder, this);
+        if (getConfig().getBoolean("recorder.start-on-enable", false)) {
+            getLogger().info("Recording seed bag traffic to " + recorder.start());
         }
 
+        this.playerDataScanner = new PlayerDataScanner(this, scheduler, renderer, getDataFolder().toPath().resolve("scans"),
+                getConfig().getInt("scan.parallelism", 0), getConfig().getInt("universal-bag.model-data", 905));
+        getServer().getPluginManager().registerEvents(playerDataScanner, this);
+
+        // Set the executor for the /seedbags command
+        Objects.requireNonNull(getCommand("seedbags")).setExecutor(new SeedBagAdminCommandExecutor(this, seedBagStats, statsExporter,
+                transfer, recorder, playerDataScanner));
+
         // Register the event listener for seed bags
-        getServer().getPluginManager().registerEvents(new SeedBagListener(this, this.rsAPI), this);
+        AreaHarvester harvester = getConfig().getBoolean("harvest.enabled", false)
+                ? new AreaHarvester(this, scheduler, plantingScheduler, transfer, seedBagStats, getConfig().getConfigurationSection("harvest"))
+                : null;
+        SeedBagListener seedBagListener = new SeedBagListener(this, stacker, seedBagIndex,
+                coalescePickups ? seedBagAccumulator : null, plantingScheduler, transfer, harvester, seedBagStats);
+        getServer().getPluginManager().registerEvents(seedBagListener, this);
+
+        if (getConfig().getBoolean("vacuum.enabled", false)) {
+            this.vacuumSweeper = new VacuumSweeper(scheduler, seedBagListener, seedBagIndex, seedBagStats,
+                    getConfig().getConfigurationSection("vacuum"));
+            vacuumSweeper.start();
+        }
+
+        getServer().getPluginManager().registerEvents(new UniversalBagListener(), this);
+
+        if (getConfig().getBoolean("containers.enabled", false)) {
+            this.containerBagFeeder = new ContainerBagFeeder(scheduler, seedBagStats, getConfig().getConfigurationSection("containers"));
+            getServer().getPluginManager().registerEvents(containerBagFeeder, this);
+            containerBagFeeder.start();
+        }
+
+        if (replant) {
+            getServer().getPluginManager().registerEvents(new AutoReplantListener(scheduler, plantingScheduler, seedBagIndex,
+                    seedBagAccumulator, seedBagStats, getConfig().getConfigurationSection("replant")), this);
+        }
+    }
+
+    /**
+     * Called when the plugin is disabled.
+     * Stops running planting jobs, writes any seeds still pending in the
+     * pickup accumulator to their bags and closes the seed ledger and seed bank.
+     */
+    @Override
+    public void onDisable() {
+        if (statsExporter != null) {
+            statsExporter.stopAll();
+        }
+        if (recorder != null) {
+            recorder.close();
+        }
+        if (playerDataScanner != null) {
+            playerDataScanner.close();
+        }
+        if (vacuumSweeper != null) {
+            vacuumSweeper.stop();
+        }
+        if (containerBagFeeder != null) {
+            containerBagFeeder.stop();
+        }
+        if (plantingScheduler != null) {
+            plantingScheduler.cancelAll();
+        }
+        if (seedBagAccumulator != null) {
+            seedBagAccumulator.flushAll();
+        }
+        if (seedLedger != null) {
+            seedLedger.close();
+            SeedBagUtil.setLedger(null);
+        }
+        if (seedBank != null) {
+            seedBank.close();
+            SeedBagUtil.setBank(null);
+        }
+    }
+
+    /**
+     * Reload the config and swap in a seed registry built from its "seeds" section.
+     * Falls back to the bundled seed types if the section is missing or empty.
+     */
+    public void reloadSeedRegistry() {
+        reloadConfig();
+        ConfigurationSection seeds = getConfig().getConfigurationSection("seeds");
+        if (seeds == null || seeds.getKeys(false).isEmpty()) {
+            InputStream defaults = getResource("config.yml");
+            if (defaults != null) {
+                seeds = YamlConfiguration.loadConfiguration(new InputStreamReader(defaults, StandardCharsets.UTF_8))
+                        .getConfigurationSection("seeds");
+            }
+        }
+        SeedRegistry registry = SeedRegistry.fromConfig(seeds, getLogger());
+        SeedRegistry.set(registry);
+        if (renderer != null) {
+            renderer.reset();
+        }
+        getLogger().info("Loaded " + registry.getDefinitions().size() + " seed types.");
+    }
+
+    public SeedBagScheduler getSeedBagScheduler() {
+        return scheduler;
+    }
+
+    public SeedBagIndex getSeedBagIndex() {
+        return seedBagIndex;
     }
 
     public static SeedBags getInstance() {
@@ -0,0 +1,360 @@
+package me.kermx.seedBags;
+
+import io.papermc.paper.event.player.PlayerInventorySlotChangeEvent;
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Per-player seed balances shared by every server connected to the same backend.
+ * Bags in bank storage mode carry their owner instead of a count and show the owner's
+ * balance of their seed type, so a player's seeds follow them between servers without
+ * any item data being rewritten.
+ * Changes are applied to optimistic local counters right away and collected as
+ * deltas; a single writer thread hands each player's deltas to the backend in
+ * numbered batches and takes the backend's balances back in the same call. A batch
+ * that fails stays in flight and is resent with the same number, so the backend applies
+ * it exactly once, while newer changes keep collecting behind it. Because only deltas
+ * are exchanged, changes made while the backend was unreachable merge with other
+ * servers' changes without conflicts.
+ * Two servers spending the same seeds while cut off from each other can leave a
+ * balance below zero; bags show such a balance as empty until deposits cover it.
+ */
+public class SeedBank implements Listener {
+    private static final long IDLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final Logger logger;
+    private final SeedBagScheduler scheduler;
+    private final SeedBagIndex bagIndex;
+    private final SeedBankBackend backend;
+    private final String serverId;
+    private final Map<UUID, Account> accounts = new ConcurrentHashMap<>();
+    // Batch numbers stay above those of earlier runs of this server
+    private final AtomicLong nextSequence = new AtomicLong(System.currentTimeMillis() * 1000L);
+    private final AtomicBoolean syncQueued = new AtomicBoolean();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "SeedBags-Bank");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Only touched by the writer thread
+    private boolean backendDown;
+
+    /**
+     * Constructor for SeedBank.
+     *
+     * @param logger    The plugin logger.
+     * @param scheduler The scheduler that routes player work to the player's thread.
+     * @param bagIndex  The per-player seed bag slot index, invalidated when bags are claimed.
+     * @param backend   The shared storage.
+     * @param serverId  The id of this server, unique among the servers sharing the backend.
+     */
+    public SeedBank(Logger logger, SeedBagScheduler scheduler, SeedBagIndex bagIndex, SeedBankBackend backend,
+                    String serverId) {
+        this.logger = logger;
+        this.scheduler = scheduler;
+        this.bagIndex = bagIndex;
+        this.backend = backend;
+        this.serverId = serverId.replaceAll("[^A-Za-z0-9_-]", "_");
+    }
+
+    /**
+     * Create the backend configured in the "bank" section.
+     *
+     * @param config     The "bank" configuration section, may be null.
+     * @param dataFolder The plugin's data folder, which relative file paths resolve against.
+     * @return The file backend unless the redis backend is configured.
+     */
+    public static SeedBankBackend createBackend(ConfigurationSection config, Path dataFolder) {
+        String type = config == null ? "file" : config.getString("backend", "file");
+        if ("redis".equalsIgnoreCase(type)) {
+            return new RedisSeedBankBackend(config.getString("redis.host", "127.0.0.1"), config.getInt("redis.port", 6379),
+                    config.getString("redis.password", ""), config.getInt("redis.database", 0),
+                    config.getString("redis.key-prefix", "seedbags:bank:"), config.getInt("redis.timeout-millis", 2000));
+        }
+        String directory = config == null ? "bank" : config.getString("file.directory", "bank");
+        return new FileSeedBankBackend(dataFolder.resolve(directory));
+    }
+
+    public String getBackendName() {
+        return backend.getName();
+    }
+
+    /**
+     * Get a player's balance of a seed type as this server sees it.
+     *
+     * @param owner    The player owning the balance.
+     * @param seedType The seed type.
+     * @return The balance, including changes not yet synced; never below zero.
+     */
+    public int get(UUID owner, Material seedType) {
+        long balance = getAccount(owner).get(seedType);
+        return (int) Math.max(0L, Math.min(Integer.MAX_VALUE, balance));
+    }
+
+    /**
+     * Change a player's balance of a seed type. Only memory is touched; the change is
+     * sent to the backend by the next {@link #flush()}.
+     *
+     * @param owner    The player owning the balance.
+     * @param seedType The seed type.
+     * @param delta    The change, negative to take seeds out.
+     */
+    public void add(UUID owner, Material seedType, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        // An account retired by the writer in the meantime is replaced by a fresh one
+        while (!getAccount(owner).add(seedType, delta)) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Queue a sync of every account with the writer thread, unless one is still queued.
+     */
+    public void flush() {
+        if (syncQueued.compareAndSet(false, true)) {
+            writer.execute(() -> {
+                syncQueued.set(false);
+                syncAll();
+            });
+        }
+    }
+
+    /**
+     * Send every pending change and wait for the writer thread to finish.
+     */
+    public void close() {
+        writer.execute(() -> {
+            syncAll();
+            backend.close();
+        });
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(30, TimeUnit.SECONDS)) {
+                logger.severe("Timed out waiting for the seed bank to be synced.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        // Fetch the balances before the first bag is looked at
+        Account account = getAccount(event.getPlayer().getUniqueId());
+        account.online = true;
+        claimBags(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onInventorySlotChange(PlayerInventorySlotChangeEvent event) {
+        // A bag that arrived by pickup, click or another plugin is claimed once the change is done
+        Player player = event.getPlayer();
+        int slot = event.getSlot();
+        if (event.getNewItemStack().getType() == Material.PAPER && isForeignBag(player, event.getNewItemStack())) {
+            scheduler.runForEntityNextTick(player, () -> claimBag(player, slot));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        Account account = accounts.get(event.getPlayer().getUniqueId());
+        if (account != null) {
+            account.online = false;
+        }
+    }
+
+    /**
+     * Claim every single bag in the player's inventory for their balance.
+     * This is the only place bags are rebound outside of bag writes; lookups never do it.
+     * Must be called on the thread that owns the player.
+     */
+    private void claimBags(Player player) {
+        PlayerInventory inventory = player.getInventory();
+        ItemStack[] contents = inventory.getContents();
+        boolean claimed = false;
+        for (int slot = 0; slot < contents.length; slot++) {
+            if (SeedBagUtil.claimBankBag(player, contents[slot])) {
+                inventory.setItem(slot, contents[slot]);
+                claimed = true;
+            }
+        }
+        if (claimed) {
+            bagIndex.invalidate(player);
+        }
+    }
+
+    private void claimBag(Player player, int slot) {
+        ItemStack seedBag = player.getInventory().getItem(slot);
+        if (SeedBagUtil.claimBankBag(player, seedBag)) {
+            player.getInventory().setItem(slot, seedBag);
+            bagIndex.invalidate(player);
+        }
+    }
+
+    private static boolean isForeignBag(Player player, ItemStack item) {
+        ItemMeta meta = SeedBagUtil.getBagMeta(item);
+        UUID owner = SeedBagUtil.getBankOwner(meta);
+        if (owner != null) {
+            return !owner.equals(player.getUniqueId());
+        }
+        return !SeedBagUtil.isUniversal(meta) && SeedBagUtil.getSeedType(meta) != null;
+    }
+
+    private Account getAccount(UUID owner) {
+        Account account = accounts.get(owner);
+        if (account == null) {
+            Account created = new Account();
+            account = accounts.putIfAbsent(owner, created);
+            if (account == null) {
+                account = created;
+                if (!writer.isShutdown()) {
+                    writer.execute(() -> sync(owner, created));
+                }
+            }
+        }
+        return account;
+    }
+
+    /**
+     * Sync every account; accounts of offline players, such as owners of bags in
+     * containers, are dropped once nothing of theirs is pending and they have not been
+     * used for a while. Balances are refreshed even without changes, so other servers'
+     * changes show up.
+     */
+    private void syncAll() {
+        long idleSince = System.nanoTime() - IDLE_NANOS;
+        for (Map.Entry<UUID, Account> entry : accounts.entrySet()) {
+            Account account = entry.getValue();
+            if (sync(entry.getKey(), account) && !account.online && account.lastUsed < idleSince && account.retireIfSettled()) {
+                accounts.remove(entry.getKey(), account);
+            }
+        }
+    }
+
+    /**
+     * Send one account's pending changes, or resend its failed batch, and take the backend's balances.
+     *
+     * @return False if the backend could not be reached.
+     */
+    private boolean sync(UUID owner, Account account) {
+        Batch batch = account.beginBatch(nextSequence);
+        try {
+            Map<String, Long> balances = backend.apply(owner, serverId, batch.sequence, batch.deltas);
+            account.completeBatch(balances);
+            if (backendDown) {
+                backendDown = false;
+                logger.info("Seed bank backend " + backend.getName() + " is reachable again.");
+            }
+            return true;
+        } catch (IOException | RuntimeException e) {
+            if (!backendDown) {
+                backendDown = true;
+                logger.log(Level.WARNING, "Seed bank backend " + backend.getName()
+                        + " is unreachable; changes are kept and sent once it is back", e);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * A numbered batch of deltas, by material name.
+     */
+    private record Batch(long sequence, Map<String, Long> deltas) {
+    }
+
+    /**
+     * One player's balances: the last balances the backend returned, the batch sent
+     * to it and not yet acknowledged, and the changes made since.
+     */
+    private static final class Account {
+        private final Map<Material, Long> confirmed = new EnumMap<>(Material.class);
+        private final Map<Material, Long> inFlight = new EnumMap<>(Material.class);
+        private final Map<Material, Long> pending = new EnumMap<>(Material.class);
+        private long inFlightSequence = -1L;
+        private boolean retired;
+        private volatile boolean online;
+        private volatile long lastUsed = System.nanoTime();
+
+        private synchronized long get(Material seedType) {
+            lastUsed = System.nanoTime();
+            return confirmed.getOrDefault(seedType, 0L) + inFlight.getOrDefault(seedType, 0L)
+                    + pending.getOrDefault(seedType, 0L);
+        }
+
+        /**
+         * @return False if the account was retired and the change must go to a fresh one.
+         */
+        private synchronized boolean add(Material seedType, long delta) {
+            if (retired) {
+                return false;
+            }
+            lastUsed = System.nanoTime();
+            pending.merge(seedType, delta, Long::sum);
+            return true;
+        }
+
+        /**
+         * Move the pending changes into flight, unless an unacknowledged batch must be resent first.
+         */
+        private synchronized Batch beginBatch(AtomicLong nextSequence) {
+            if (inFlightSequence < 0 && !pending.isEmpty()) {
+                inFlight.putAll(pending);
+                pending.clear();
+                inFlightSequence = nextSequence.getAndIncrement();
+            }
+            Map<String, Long> deltas = new HashMap<>();
+            for (Map.Entry<Material, Long> delta : inFlight.entrySet()) {
+                if (delta.getValue() != 0L) {
+                    deltas.put(delta.getKey().name(), delta.getValue());
+                }
+            }
+            return new Batch(Math.max(0L, inFlightSequence), deltas);
+        }
+
+        /**
+         * Take the backend's balances, which include the acknowledged batch.
+         */
+        private synchronized void completeBatch(Map<String, Long> balances) {
+            inFlight.clear();
+            inFlightSequence = -1L;
+            confirmed.clear();
+            for (Map.Entry<String, Long> balance : balances.entrySet()) {
+                Material seedType = Material.getMaterial(balance.getKey());
+                if (seedType != null) {
+                    confirmed.put(seedType, balance.getValue());
+                }
+            }
+        }
+
+        private synchronized boolean retireIfSettled() {
+            retired = pending.isEmpty() && inFlight.isEmpty();
+            return retired;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package me.kermx.seedBags;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Shared storage behind the network seed bank. Balances only ever change by deltas,
+ * which commute, so servers that queued changes while the backend was unreachable
+ * merge them without conflicts once it is back.
+ * Each server numbers its batches per player. A backend applies a batch only if its
+ * sequence number is above the last one it applied for that server and player, so a
+ * batch resent after a lost reply is never counted twice.
+ * Calls come from a single writer thread and may block.
+ */
+public interface SeedBankBackend {
+
+    /**
+     * @return The name of the backend, shown in the log.
+     */
+    String getName();
+
+    /**
+     * Apply a batch of balance changes at most once and read the player's balances.
+     *
+     * @param owner    The player whose balances to change.
+     * @param serverId The id of the server sending the batch.
+     * @param sequence The batch number, increasing per server and player.
+     * @param deltas   The change of each seed type, by material name; may be empty to only read.
+     * @return Every balance of the player after the batch, by material name.
+     * @throws IOException If the backend cannot be reached; the batch may or may not have been applied.
+     */
+    Map<String, Long> apply(UUID owner, String serverId, long sequence, Map<String, Long> deltas) throws IOException;
+
+    /**
+     * Release the backend's connections or files.
+     */
+    void close();
+}
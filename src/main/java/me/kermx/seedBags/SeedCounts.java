@@ -0,0 +1,125 @@
+package me.kermx.seedBags;
+
+import org.bukkit.Material;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The per-seed counts of a universal seed bag, packed into a single byte array
+ * on the bag. Entries are keyed by material name rather than ordinal so bags
+ * survive server upgrades and seed registry changes, and a bag usually holds only
+ * a handful of seed types, so lookups scan two small parallel arrays.
+ * Layout: a version byte, then per seed type a name length byte, the ASCII name
+ * and a big-endian int count. Empty seed types are not written.
+ */
+public final class SeedCounts {
+    static final byte VERSION = 1;
+
+    private Material[] seedTypes;
+    private int[] counts;
+    private int size;
+
+    public SeedCounts() {
+        this.seedTypes = new Material[8];
+        this.counts = new int[8];
+    }
+
+    /**
+     * Decode the packed counts of a bag.
+     *
+     * @param packed The packed value, may be null for an empty bag.
+     * @return The decoded counts; unknown materials are dropped.
+     */
+    public static SeedCounts decode(byte[] packed) {
+        SeedCounts seedCounts = new SeedCounts();
+        if (packed == null || packed.length == 0 || packed[0] != VERSION) {
+            return seedCounts;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(packed, 1, packed.length - 1);
+        while (buffer.remaining() > 0) {
+            int nameLength = buffer.get() & 0xFF;
+            if (buffer.remaining() < nameLength + 4) {
+                break;
+            }
+            String name = new String(packed, buffer.position(), nameLength, StandardCharsets.US_ASCII);
+            buffer.position(buffer.position() + nameLength);
+            int count = buffer.getInt();
+            Material seedType = Material.getMaterial(name);
+            if (seedType != null) {
+                seedCounts.set(seedType, count);
+            }
+        }
+        return seedCounts;
+    }
+
+    /**
+     * @return The packed value to store on the bag.
+     */
+    public byte[] encode() {
+        int length = 1;
+        byte[][] names = new byte[size][];
+        for (int i = 0; i < size; i++) {
+            if (counts[i] > 0) {
+                names[i] = seedTypes[i].name().getBytes(StandardCharsets.US_ASCII);
+                length += 1 + names[i].length + 4;
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        buffer.put(VERSION);
+        for (int i = 0; i < size; i++) {
+            if (names[i] != null) {
+                buffer.put((byte) names[i].length).put(names[i]).putInt(counts[i]);
+            }
+        }
+        return buffer.array();
+    }
+
+    public SeedCounts copy() {
+        SeedCounts copy = new SeedCounts();
+        copy.seedTypes = Arrays.copyOf(seedTypes, seedTypes.length);
+        copy.counts = Arrays.copyOf(counts, counts.length);
+        copy.size = size;
+        return copy;
+    }
+
+    public int get(Material seedType) {
+        int index = indexOf(seedType);
+        return index < 0 ? 0 : counts[index];
+    }
+
+    public void set(Material seedType, int count) {
+        int index = indexOf(seedType);
+        if (index < 0) {
+            if (size == seedTypes.length) {
+                seedTypes = Arrays.copyOf(seedTypes, size * 2);
+                counts = Arrays.copyOf(counts, size * 2);
+            }
+            index = size++;
+            seedTypes[index] = seedType;
+        }
+        counts[index] = count;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Material getSeedType(int index) {
+        return seedTypes[index];
+    }
+
+    public int getCount(int index) {
+        return counts[index];
+    }
+
+    private int indexOf(Material seedType) {
+        for (int i = 0; i < size; i++) {
+            if (seedTypes[i] == seedType) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
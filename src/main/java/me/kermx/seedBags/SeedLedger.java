@@ -0,0 +1,291 @@
+package me.kermx.seedBags;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Server-side store of seed counts for bags that only carry a bag id.
+ * Counts live in a primitive in-memory map that server threads read and write under
+ * the ledger's monitor, so region threads on Folia can share it. Changes are
+ * collected and handed in batches to a single writer thread, which appends them to a
+ * journal and periodically compacts the journal into a snapshot. On startup the
+ * snapshot is loaded and the journal replayed, so a crash loses at most the last
+ * unflushed batch.
+ */
+public class SeedLedger {
+    private static final int RECORD_SIZE = 20;
+
+    private final Logger logger;
+    private final Path snapshotFile;
+    private final Path journalFile;
+    private final long compactBytes;
+    private final CountMap counts = new CountMap();
+    private CountMap dirty = new CountMap();
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "SeedBags-Ledger");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Only touched by the writer thread after load
+    private final CountMap persisted = new CountMap();
+    private FileChannel journal;
+
+    /**
+     * Constructor for SeedLedger.
+     *
+     * @param logger       The plugin logger.
+     * @param directory    The directory holding the snapshot and journal files.
+     * @param compactBytes The journal size after which it is compacted into the snapshot.
+     */
+    public SeedLedger(Logger logger, Path directory, long compactBytes) {
+        this.logger = logger;
+        this.snapshotFile = directory.resolve("ledger.dat");
+        this.journalFile = directory.resolve("ledger.journal");
+        this.compactBytes = compactBytes;
+    }
+
+    /**
+     * Load the snapshot, replay the journal on top of it and compact both into
+     * a fresh snapshot. Must be called before the ledger is used.
+     *
+     * @throws IOException If the files cannot be read or written.
+     */
+    public void load() throws IOException {
+        Files.createDirectories(snapshotFile.getParent());
+        int loaded = read(snapshotFile, persisted);
+        int replayed = read(journalFile, persisted);
+        persisted.forEach(counts::put);
+
+        journal = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        compact();
+        logger.info("Loaded " + counts.size() + " seed bags from the ledger (" + loaded + " snapshot records, "
+                + replayed + " journal records).");
+    }
+
+    /**
+     * Get the seed count of a bag.
+     *
+     * @param bagId The id of the bag.
+     * @return The stored count, or 0 for an unknown bag.
+     */
+    public synchronized int get(UUID bagId) {
+        return counts.get(bagId.getMostSignificantBits(), bagId.getLeastSignificantBits());
+    }
+
+    /**
+     * Set the seed count of a bag. Only memory is touched; the change is
+     * persisted by the next {@link #flush()}.
+     *
+     * @param bagId The id of the bag.
+     * @param count The new seed count.
+     */
+    public synchronized void set(UUID bagId, int count) {
+        long msb = bagId.getMostSignificantBits();
+        long lsb = bagId.getLeastSignificantBits();
+        counts.put(msb, lsb, count);
+        dirty.put(msb, lsb, count);
+    }
+
+    /**
+     * Hand every change since the last flush to the writer thread.
+     */
+    public synchronized void flush() {
+        if (dirty.size() == 0) {
+            return;
+        }
+        CountMap batch = dirty;
+        dirty = new CountMap();
+        writer.execute(() -> append(batch));
+    }
+
+    /**
+     * Flush outstanding changes and wait for the writer thread to finish.
+     */
+    public void close() {
+        flush();
+        writer.execute(() -> {
+            try {
+                compact();
+                journal.close();
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Could not compact the seed ledger", e);
+            }
+        });
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(30, TimeUnit.SECONDS)) {
+                logger.severe("Timed out waiting for the seed ledger to be written.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void append(CountMap batch) {
+        ByteBuffer buffer = ByteBuffer.allocate(batch.size() * RECORD_SIZE);
+        batch.forEach((msb, lsb, count) -> {
+            buffer.putLong(msb).putLong(lsb).putInt(count);
+            persisted.put(msb, lsb, count);
+        });
+        buffer.flip();
+        try {
+            journal.position(journal.size());
+            while (buffer.hasRemaining()) {
+                journal.write(buffer);
+            }
+            journal.force(false);
+            if (journal.size() >= compactBytes) {
+                compact();
+            }
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Could not write " + batch.size() + " seed ledger records", e);
+        }
+    }
+
+    /**
+     * Write every persisted count to a new snapshot, swap it in atomically and
+     * truncate the journal.
+     */
+    private void compact() throws IOException {
+        Path tempFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(persisted.size() * RECORD_SIZE);
+            persisted.forEach((msb, lsb, count) -> buffer.putLong(msb).putLong(lsb).putInt(count));
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        journal.truncate(0);
+        journal.force(true);
+    }
+
+    /**
+     * Read every complete record of a snapshot or journal file into the map.
+     * A torn record at the end of the file, left by a crash mid-write, is ignored.
+     *
+     * @return The number of records read.
+     */
+    private static int read(Path file, CountMap target) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        int records = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1024 * RECORD_SIZE);
+            while (true) {
+                int read = channel.read(buffer);
+                buffer.flip();
+                while (buffer.remaining() >= RECORD_SIZE) {
+                    target.put(buffer.getLong(), buffer.getLong(), buffer.getInt());
+                    records++;
+                }
+                buffer.compact();
+                if (read < 0) {
+                    break;
+                }
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Receives one entry of a {@link CountMap}.
+     */
+    @FunctionalInterface
+    private interface EntryConsumer {
+        void accept(long msb, long lsb, int count);
+    }
+
+    /**
+     * Open-addressing map from a bag id, split into its two longs, to a seed count.
+     * Avoids boxing both the keys and the values.
+     */
+    private static final class CountMap {
+        private long[] msbs = new long[64];
+        private long[] lsbs = new long[64];
+        private int[] values = new int[64];
+        private boolean[] used = new boolean[64];
+        private int size;
+
+        private int size() {
+            return size;
+        }
+
+        private int get(long msb, long lsb) {
+            int mask = used.length - 1;
+            for (int i = index(msb, lsb, mask); used[i]; i = (i + 1) & mask) {
+                if (msbs[i] == msb && lsbs[i] == lsb) {
+                    return values[i];
+                }
+            }
+            return 0;
+        }
+
+        private void put(long msb, long lsb, int value) {
+            if ((size + 1) * 4 > used.length * 3) {
+                grow();
+            }
+            int mask = used.length - 1;
+            int i = index(msb, lsb, mask);
+            while (used[i]) {
+                if (msbs[i] == msb && lsbs[i] == lsb) {
+                    values[i] = value;
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            used[i] = true;
+            msbs[i] = msb;
+            lsbs[i] = lsb;
+            values[i] = value;
+            size++;
+        }
+
+        private void forEach(EntryConsumer consumer) {
+            for (int i = 0; i < used.length; i++) {
+                if (used[i]) {
+                    consumer.accept(msbs[i], lsbs[i], values[i]);
+                }
+            }
+        }
+
+        private void grow() {
+            long[] oldMsbs = msbs;
+            long[] oldLsbs = lsbs;
+            int[] oldValues = values;
+            boolean[] oldUsed = used;
+            int capacity = used.length * 2;
+            msbs = new long[capacity];
+            lsbs = new long[capacity];
+            values = new int[capacity];
+            used = new boolean[capacity];
+            size = 0;
+            for (int i = 0; i < oldUsed.length; i++) {
+                if (oldUsed[i]) {
+                    put(oldMsbs[i], oldLsbs[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int index(long msb, long lsb, int mask) {
+            long hash = (msb ^ lsb) * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+}
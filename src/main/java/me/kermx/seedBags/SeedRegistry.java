@@ -0,0 +1,192 @@
+package me.kermx.seedBags;
+
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Everything the plugin knows about each seed type: the crop it plants, the soils it
+ * grows on, the bag's model data and capacity, the command names and the display name.
+ * A registry is immutable and indexed by material ordinal, so every lookup is a single
+ * array read. Reloading builds a new registry and swaps it in atomically; callers read
+ * {@link #get()} once per operation and work against that snapshot.
+ */
+public final class SeedRegistry {
+    private static volatile SeedRegistry current = new SeedRegistry(List.of());
+
+    private final List<SeedDefinition> definitions;
+    private final SeedDefinition[] bySeed = new SeedDefinition[Material.values().length];
+    private final SeedDefinition[] byCrop = new SeedDefinition[Material.values().length];
+    private final boolean[] soils = new boolean[Material.values().length];
+    private final Map<String, SeedDefinition> byName = new HashMap<>();
+
+    private SeedRegistry(List<SeedDefinition> definitions) {
+        this.definitions = Collections.unmodifiableList(definitions);
+        for (SeedDefinition definition : definitions) {
+            bySeed[definition.seedType().ordinal()] = definition;
+            byCrop[definition.crop().ordinal()] = definition;
+            for (Material soil : definition.soils()) {
+                soils[soil.ordinal()] = true;
+            }
+            for (String synonym : definition.synonyms()) {
+                byName.put(synonym, definition);
+            }
+        }
+    }
+
+    /**
+     * @return The registry currently in use.
+     */
+    public static SeedRegistry get() {
+        return current;
+    }
+
+    /**
+     * Swap in a new registry. Operations already holding the old one finish against it.
+     *
+     * @param registry The registry to use from now on.
+     */
+    public static void set(SeedRegistry registry) {
+        current = registry;
+    }
+
+    /**
+     * Build a registry from the "seeds" section of the plugin configuration.
+     * Invalid entries are logged and skipped.
+     *
+     * @param config The seeds configuration section, may be null.
+     * @param logger The logger for invalid entries.
+     * @return The new registry.
+     */
+    public static SeedRegistry fromConfig(ConfigurationSection config, Logger logger) {
+        List<SeedDefinition> definitions = new ArrayList<>();
+        if (config == null) {
+            return new SeedRegistry(definitions);
+        }
+        for (String key : config.getKeys(false)) {
+            ConfigurationSection section = config.getConfigurationSection(key);
+            Material seedType = Material.matchMaterial(key);
+            if (section == null || seedType == null || !seedType.isItem()) {
+                logger.warning("Skipping unknown seed type '" + key + "' in the seeds configuration.");
+                continue;
+            }
+            Material crop = Material.matchMaterial(section.getString("crop", ""));
+            if (crop == null || !crop.isBlock()) {
+                logger.warning("Skipping seed type '" + key + "': unknown crop block '" + section.getString("crop") + "'.");
+                continue;
+            }
+            Set<Material> soilTypes = EnumSet.noneOf(Material.class);
+            for (String soilName : section.getStringList("soil")) {
+                Material soil = Material.matchMaterial(soilName);
+                if (soil == null || !soil.isBlock()) {
+                    logger.warning("Ignoring unknown soil '" + soilName + "' of seed type '" + key + "'.");
+                } else {
+                    soilTypes.add(soil);
+                }
+            }
+            if (soilTypes.isEmpty()) {
+                logger.warning("Skipping seed type '" + key + "': no valid soil.");
+                continue;
+            }
+            List<String> synonyms = new ArrayList<>();
+            for (String synonym : section.getStringList("synonyms")) {
+                synonyms.add(synonym.toLowerCase(Locale.ROOT));
+            }
+            if (synonyms.isEmpty()) {
+                synonyms.add(seedType.name().toLowerCase(Locale.ROOT));
+            }
+            int capacity = Math.max(1, section.getInt("capacity", SeedBags.MAX_SEEDS));
+            String displayName = section.getString("display-name", SeedBagUtil.normalizeMaterialName(seedType.name()));
+            definitions.add(new SeedDefinition(seedType, crop, Collections.unmodifiableSet(soilTypes),
+                    section.getInt("model-data", 0), capacity, List.copyOf(synonyms), displayName));
+        }
+        return new SeedRegistry(definitions);
+    }
+
+    /**
+     * @return Every registered seed type, in configuration order.
+     */
+    public List<SeedDefinition> getDefinitions() {
+        return definitions;
+    }
+
+    /**
+     * @param seedType The seed material.
+     * @return The definition of the seed type, or null if it cannot go in a bag.
+     */
+    public SeedDefinition getBySeed(Material seedType) {
+        return seedType == null ? null : bySeed[seedType.ordinal()];
+    }
+
+    /**
+     * @param crop The crop block.
+     * @return The definition of the seed that plants this crop, or null.
+     */
+    public SeedDefinition getByCrop(Material crop) {
+        return byCrop[crop.ordinal()];
+    }
+
+    /**
+     * @param name A command name of the seed type, in lower case.
+     * @return The definition of the seed type, or null.
+     */
+    public SeedDefinition getByName(String name) {
+        return byName.get(name);
+    }
+
+    /**
+     * @return Every command name of every seed type.
+     */
+    public Set<String> getNames() {
+        return byName.keySet();
+    }
+
+    public boolean isSeed(Material material) {
+        return bySeed[material.ordinal()] != null;
+    }
+
+    /**
+     * @param material The block type to check.
+     * @return True if some registered seed grows on the block.
+     */
+    public boolean isSoil(Material material) {
+        return soils[material.ordinal()];
+    }
+
+    /**
+     * @param seedType The seed material.
+     * @return The bag capacity for the seed type; {@link SeedBags#MAX_SEEDS} for unregistered seeds.
+     */
+    public int getCapacity(Material seedType) {
+        SeedDefinition definition = getBySeed(seedType);
+        return definition == null ? SeedBags.MAX_SEEDS : definition.capacity();
+    }
+
+    /**
+     * A single seed type.
+     *
+     * @param seedType    The seed item.
+     * @param crop        The crop block it plants.
+     * @param soils       The blocks it can be planted on.
+     * @param modelData   The custom model data of its bag.
+     * @param capacity    The maximum number of seeds its bag holds.
+     * @param synonyms    The names accepted by /getseedbag, in lower case.
+     * @param displayName The name shown on its bag.
+     */
+    public record SeedDefinition(Material seedType, Material crop, Set<Material> soils, int modelData, int capacity,
+                                 List<String> synonyms, String displayName) {
+
+        public boolean canPlantOn(Material soil) {
+            return soils.contains(soil);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package me.kermx.seedBags;
+
+import net.kyori.adventure.text.Component;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerItemHeldEvent;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.List;
+
+/**
+ * Lets players choose the seed type a universal bag plants: scroll while sneaking,
+ * or sneak and left-click the air to step to the next seed type.
+ */
+public class UniversalBagListener implements Listener {
+
+    /**
+     * Cycle the active seed when a sneaking player scrolls away from a universal bag.
+     *
+     * @param event The PlayerItemHeldEvent.
+     */
+    @EventHandler(ignoreCancelled = true)
+    public void onItemHeld(PlayerItemHeldEvent event) {
+        Player player = event.getPlayer();
+        if (!player.isSneaking()) {
+            return;
+        }
+        ItemStack seedBag = player.getInventory().getItem(event.getPreviousSlot());
+        if (!SeedBagUtil.isUniversal(seedBag)) {
+            return;
+        }
+        int delta = event.getNewSlot() - event.getPreviousSlot();
+        // Scrolling past either end of the hotbar wraps around
+        if (delta > 4) {
+            delta -= 9;
+        } else if (delta < -4) {
+            delta += 9;
+        }
+        event.setCancelled(true);
+        cycle(player, seedBag, delta > 0 ? 1 : -1);
+    }
+
+    /**
+     * Step to the next seed when a sneaking player left-clicks the air with a universal bag.
+     *
+     * @param event The PlayerInteractEvent.
+     */
+    @EventHandler
+    public void onPlayerInteract(PlayerInteractEvent event) {
+        if (event.getAction() != Action.LEFT_CLICK_AIR || event.getHand() != EquipmentSlot.HAND || !event.getPlayer().isSneaking()) {
+            return;
+        }
+        ItemStack seedBag = event.getItem();
+        if (!SeedBagUtil.isUniversal(seedBag)) {
+            return;
+        }
+        cycle(event.getPlayer(), seedBag, 1);
+    }
+
+    private void cycle(Player player, ItemStack seedBag, int step) {
+        List<SeedRegistry.SeedDefinition> definitions = SeedRegistry.get().getDefinitions();
+        if (definitions.isEmpty()) {
+            return;
+        }
+        Material activeSeed = SeedBagUtil.getSeedType(seedBag);
+        int index = 0;
+        for (int i = 0; i < definitions.size(); i++) {
+            if (definitions.get(i).seedType() == activeSeed) {
+                index = Math.floorMod(i + step, definitions.size());
+                break;
+            }
+        }
+        SeedRegistry.SeedDefinition next = definitions.get(index);
+        SeedBagUtil.setActiveSeed(seedBag, next.seedType());
+        player.sendActionBar(Component.text("Planting " + next.displayName() + " ("
+                + SeedBagUtil.getSeedCount(seedBag, next.seedType()) + ")"));
+    }
+}
@@ -0,0 +1,230 @@
+package me.kermx.seedBags;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.GameMode;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Item;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayDeque;
+import java.util.UUID;
+
+/**
+ * Pulls seed item entities lying near players into their seed bags, so seeds just
+ * outside pickup range do not pile up. Only players with a seed bag in the hotbar
+ * or off hand are swept.
+ * Every sweep pass visits each online player once. Sweeps read the entities of the
+ * loaded chunks around their player and share a fixed server-wide number of entity
+ * reads per tick; a sweep that runs out of its share stops where it is and resumes
+ * on a later tick, so a crowded farm costs the same per tick as an empty one.
+ * The queue of sweeps is only touched by the global tick; each sweep runs on the
+ * thread that owns its player and is handed back to the global tick when it returns.
+ * A new pass only starts once every sweep of the last one is back.
+ */
+public class VacuumSweeper {
+    private static final int MIN_SHARE = 16;
+
+    private final SeedBagScheduler scheduler;
+    private final SeedBagListener listener;
+    private final SeedBagIndex bagIndex;
+    private final SeedBagStats stats;
+    private final double radius;
+    private final int intervalTicks;
+    private final int entitiesPerTick;
+    private final ArrayDeque<Sweep> sweeps = new ArrayDeque<>();
+    private SeedBagScheduler.Task task;
+    // Sweeps handed to a player's thread and not yet back; only touched by the global tick
+    private int outstanding;
+    private long tick;
+    private long nextPass;
+
+    /**
+     * Constructor for VacuumSweeper.
+     *
+     * @param scheduler The scheduler used for the sweep tick and per-player sweeps.
+     * @param listener  The seed bag listener that absorbs seed items.
+     * @param bagIndex  The per-player seed bag slot index.
+     * @param stats     The hot path statistics.
+     * @param config    The "vacuum" configuration section, may be null.
+     */
+    public VacuumSweeper(SeedBagScheduler scheduler, SeedBagListener listener, SeedBagIndex bagIndex,
+                         SeedBagStats stats, ConfigurationSection config) {
+        this.scheduler = scheduler;
+        this.listener = listener;
+        this.bagIndex = bagIndex;
+        this.stats = stats;
+        this.radius = config == null ? 6.0 : Math.max(1.0, Math.min(32.0, config.getDouble("radius", 6.0)));
+        this.intervalTicks = config == null ? 10 : Math.max(1, config.getInt("interval-ticks", 10));
+        this.entitiesPerTick = config == null ? 512 : Math.max(MIN_SHARE, config.getInt("entities-per-tick", 512));
+    }
+
+    public void start() {
+        if (task == null) {
+            task = scheduler.runGlobalTimer(this::tick, 1L, 1L);
+        }
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * Start a new pass when the last one is done and due, then hand out this tick's
+     * entity budget to waiting sweeps in fair shares.
+     */
+    private void tick() {
+        tick++;
+        if (sweeps.isEmpty() && outstanding == 0 && tick >= nextPass) {
+            for (Player player : Bukkit.getOnlinePlayers()) {
+                sweeps.add(new Sweep(player.getUniqueId()));
+            }
+            nextPass = tick + intervalTicks;
+        }
+        int budget = entitiesPerTick;
+        while (budget > 0 && !sweeps.isEmpty()) {
+            int share = Math.min(budget, Math.max(MIN_SHARE, budget / sweeps.size()));
+            budget -= share;
+            Sweep sweep = sweeps.poll();
+            Player player = Bukkit.getPlayer(sweep.playerId);
+            if (player != null) {
+                outstanding++;
+                scheduler.runForEntity(player, () -> sweep(player, sweep, share), () -> returned(null));
+            }
+        }
+    }
+
+    /**
+     * Scan the next chunks of a sweep until its share of entity reads is used up.
+     */
+    private void sweep(Player player, Sweep sweep, int share) {
+        if (sweep.chunks == null) {
+            if (!player.isValid() || player.getGameMode() == GameMode.SPECTATOR
+                    || !player.hasPermission("seedbags.vacuum") || !bagIndex.hasHotbarBag(player)) {
+                returned(null);
+                return;
+            }
+            sweep.start(player.getLocation(), radius);
+        }
+        World world = player.getWorld();
+        if (world != sweep.world) {
+            returned(null);
+            return;
+        }
+        double radiusSquared = radius * radius;
+        int scanned = 0;
+        int absorbed = 0;
+        while (sweep.chunkIndex < sweep.chunks.length) {
+            long chunkKey = sweep.chunks[sweep.chunkIndex];
+            int chunkX = (int) chunkKey;
+            int chunkZ = (int) (chunkKey >> 32);
+            if (!world.isChunkLoaded(chunkX, chunkZ) || !scheduler.isOwnedByCurrentThread(world, chunkX, chunkZ)) {
+                sweep.nextChunk();
+                continue;
+            }
+            Chunk chunk = world.getChunkAt(chunkX, chunkZ);
+            Entity[] entities = chunk.getEntities();
+            Location center = player.getLocation();
+            while (sweep.entityIndex < entities.length && scanned < share) {
+                Entity entity = entities[sweep.entityIndex++];
+                scanned++;
+                if (entity instanceof Item item && isVacuumable(item, player)
+                        && item.getLocation().distanceSquared(center) <= radiusSquared) {
+                    absorbed += listener.absorbItem(player, item);
+                }
+            }
+            if (sweep.entityIndex < entities.length) {
+                break;
+            }
+            sweep.nextChunk();
+        }
+        stats.recordVacuum(scanned, absorbed);
+        // Out of budget; continue with the rest of this player's chunks after the other sweeps
+        returned(sweep.chunkIndex < sweep.chunks.length ? sweep : null);
+    }
+
+    /**
+     * Hand a sweep back to the global tick.
+     *
+     * @param unfinished The sweep to queue again, or null if it is done.
+     */
+    private void returned(Sweep unfinished) {
+        if (scheduler.isRegionThreaded()) {
+            scheduler.runGlobal(() -> settle(unfinished));
+        } else {
+            // Sweeps run inline on the main thread, inside the global tick
+            settle(unfinished);
+        }
+    }
+
+    private void settle(Sweep unfinished) {
+        outstanding--;
+        if (unfinished != null) {
+            sweeps.addLast(unfinished);
+        }
+    }
+
+    private static boolean isVacuumable(Item item, Player player) {
+        if (!item.isValid() || item.getPickupDelay() > 0 || !SeedRegistry.get().isSeed(item.getItemStack().getType())) {
+            return false;
+        }
+        // Items dropped for someone else stay theirs, as with a normal pickup
+        UUID owner = item.getOwner();
+        return owner == null || owner.equals(player.getUniqueId());
+    }
+
+    /**
+     * The progress of one player's sweep in the current pass. The chunks are fixed
+     * when the sweep starts; the cursor survives between ticks.
+     */
+    private static final class Sweep {
+        private final UUID playerId;
+        private World world;
+        private long[] chunks;
+        private int chunkIndex;
+        private int entityIndex;
+
+        private Sweep(UUID playerId) {
+            this.playerId = playerId;
+        }
+
+        /**
+         * Collect the chunks touched by the sweep radius, packed as x in the low and z
+         * in the high 32 bits, starting with the chunk the player stands in.
+         */
+        private void start(Location center, double radius) {
+            this.world = center.getWorld();
+            int centerX = center.getBlockX() >> 4;
+            int centerZ = center.getBlockZ() >> 4;
+            int minX = (int) Math.floor(center.getX() - radius) >> 4;
+            int maxX = (int) Math.floor(center.getX() + radius) >> 4;
+            int minZ = (int) Math.floor(center.getZ() - radius) >> 4;
+            int maxZ = (int) Math.floor(center.getZ() + radius) >> 4;
+            chunks = new long[(maxX - minX + 1) * (maxZ - minZ + 1)];
+            int count = 0;
+            chunks[count++] = pack(centerX, centerZ);
+            for (int x = minX; x <= maxX; x++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    if (x != centerX || z != centerZ) {
+                        chunks[count++] = pack(x, z);
+                    }
+                }
+            }
+        }
+
+        private void nextChunk() {
+            chunkIndex++;
+            entityIndex = 0;
+        }
+
+        private static long pack(int chunkX, int chunkZ) {
+            return (chunkX & 0xFFFFFFFFL) | ((long) chunkZ << 32);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package me.kermx.seedBags;
+
+import org.bukkit.entity.Item;
+
+/**
+ * {@link ItemStackerAdapter} for plain item entities, including drops merged by the
+ * server itself: every entity holds exactly the items of its stack.
+ */
+public final class VanillaItemStackerAdapter implements ItemStackerAdapter {
+
+    @Override
+    public String getName() {
+        return "vanilla";
+    }
+
+    @Override
+    public int getAmount(Item item) {
+        return item.getItemStack().getAmount();
+    }
+
+    @Override
+    public void remove(Item item) {
+        item.remove();
+    }
+}
@@ -0,0 +1,303 @@
+package me.kermx.seedBags;
+
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Writes a player data fixture holding a single bag, a universal bag, a bag inside a
+ * shulker box, a bag counted in the ledger and a bag in the pre-1.20.5 item format,
+ * patches it through {@link PlayerDataScanner#rewrite} and reads it back with
+ * {@link NbtBagReader}.
+ */
+class PlayerDataRewriteTest {
+    private static final String NAMESPACE = "seedbags";
+
+    private Path file;
+
+    @BeforeAll
+    static void createKeys() {
+        SeedBags.SEED_TYPE_KEY = new NamespacedKey(NAMESPACE, "seed_type");
+        SeedBags.SEED_COUNT_KEY = new NamespacedKey(NAMESPACE, "seed_count");
+        SeedBags.BAG_ID_KEY = new NamespacedKey(NAMESPACE, "bag_id");
+        SeedBags.SEED_COUNTS_KEY = new NamespacedKey(NAMESPACE, "seed_counts");
+        SeedBags.BANK_OWNER_KEY = new NamespacedKey(NAMESPACE, "bank_owner");
+    }
+
+    @BeforeEach
+    void createFile() throws IOException {
+        file = Files.createTempFile("seedbags-player", ".dat");
+    }
+
+    @AfterEach
+    void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(file.resolveSibling(file.getFileName() + ".seedbags.tmp"));
+    }
+
+    @Test
+    void findsEveryBag() throws IOException {
+        byte[] universal = counts(Material.CARROT, 20, Material.POTATO, 30);
+        List<NbtBagReader.Bag> bags = read(fixture(500, universal, 1002, 77));
+
+        assertEquals(5, bags.size());
+
+        NbtBagReader.Bag single = bags.get(0);
+        assertEquals("Inventory", single.section);
+        assertEquals("WHEAT_SEEDS", single.seedType);
+        assertTrue(single.hasCount);
+        assertEquals(500, single.count);
+        assertEquals(1001, single.modelData);
+        assertTrue(single.nameStart >= 0);
+        assertTrue(single.loreStart >= 0);
+        assertTrue(single.loreIsText);
+        assertFalse(single.isUniversal());
+
+        NbtBagReader.Bag universalBag = bags.get(1);
+        assertTrue(universalBag.isUniversal());
+        assertArrayEquals(universal, universalBag.counts);
+        assertEquals(2000, universalBag.modelData);
+
+        NbtBagReader.Bag nested = bags.get(2);
+        assertEquals("Inventory", nested.section);
+        assertEquals("CARROT", nested.seedType);
+        assertEquals(40, nested.count);
+        assertEquals(1002, nested.modelData);
+
+        NbtBagReader.Bag ledger = bags.get(3);
+        assertTrue(ledger.countedElsewhere);
+        assertFalse(ledger.hasCount);
+        assertEquals(-1L, ledger.countStart);
+
+        NbtBagReader.Bag legacy = bags.get(4);
+        assertEquals("EnderItems", legacy.section);
+        assertEquals("POTATO", legacy.seedType);
+        assertEquals(77, legacy.count);
+        assertEquals(1003, legacy.modelData);
+        assertTrue(legacy.nameStart >= 0);
+    }
+
+    @Test
+    void rewritesOnlyPatchedValues() throws IOException {
+        byte[] universal = counts(Material.CARROT, 20);
+        write(file, fixture(500, universal, 1002, 77));
+        List<NbtBagReader.Bag> bags = read(decompress(file));
+
+        // The universal counts grow, moving every later value in the stream
+        byte[] grown = counts(Material.CARROT, 20, Material.BEETROOT_SEEDS, 15, Material.NETHER_WART, 9);
+        List<PlayerDataScanner.Patch> patches = new ArrayList<>();
+        patches.add(PlayerDataScanner.intPatch(bags.get(4).countStart, 50));
+        patches.add(PlayerDataScanner.intPatch(bags.get(2).modelDataStart, 7));
+        patches.add(PlayerDataScanner.byteArrayPatch(bags.get(1).countsStart, bags.get(1).countsEnd, grown));
+        patches.add(PlayerDataScanner.intPatch(bags.get(0).countStart, 64));
+        PlayerDataScanner.rewrite(file, patches);
+
+        byte[] rewritten = decompress(file);
+        assertArrayEquals(fixture(64, grown, 7, 50), rewritten);
+        assertFalse(Files.exists(file.resolveSibling(file.getFileName() + ".seedbags.tmp")));
+
+        List<NbtBagReader.Bag> reread = read(rewritten);
+        assertEquals(5, reread.size());
+        assertEquals(64, reread.get(0).count);
+        assertArrayEquals(grown, reread.get(1).counts);
+        assertEquals(9, SeedCounts.decode(reread.get(1).counts).get(Material.NETHER_WART));
+        assertEquals(7, reread.get(2).modelData);
+        assertEquals(40, reread.get(2).count);
+        assertEquals(50, reread.get(4).count);
+        assertEquals(1003, reread.get(4).modelData);
+    }
+
+    @Test
+    void leavesFileUnchangedWithoutPatches() throws IOException {
+        byte[] fixture = fixture(500, counts(Material.CARROT, 1), 1002, 77);
+        write(file, fixture);
+
+        PlayerDataScanner.rewrite(file, new ArrayList<>());
+
+        assertArrayEquals(fixture, decompress(file));
+    }
+
+    private static byte[] counts(Object... entries) {
+        SeedCounts counts = new SeedCounts();
+        for (int i = 0; i < entries.length; i += 2) {
+            counts.set((Material) entries[i], (Integer) entries[i + 1]);
+        }
+        return counts.encode();
+    }
+
+    private static List<NbtBagReader.Bag> read(byte[] uncompressed) throws IOException {
+        List<NbtBagReader.Bag> bags = new ArrayList<>();
+        new NbtBagReader(new ByteArrayInputStream(uncompressed), bags::add).read();
+        return bags;
+    }
+
+    private static void write(Path file, byte[] uncompressed) throws IOException {
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write(uncompressed);
+        }
+    }
+
+    private static byte[] decompress(Path file) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            return in.readAllBytes();
+        }
+    }
+
+    /**
+     * Build an uncompressed player data file with the given values for the fields
+     * the test patches. Everything else is fixed.
+     */
+    private static byte[] fixture(int singleCount, byte[] universalCounts, int nestedModelData, int legacyCount)
+            throws IOException {
+        Nbt nbt = new Nbt();
+        nbt.compound("");
+        nbt.intTag("DataVersion", 3955);
+
+        nbt.list("Inventory", NbtBagReader.TAG_COMPOUND, 5);
+        // A single bag
+        nbt.byteTag("Slot", 0).string("id", "minecraft:wheat_seeds").intTag("count", 1);
+        nbt.compound("components");
+        nbt.intTag("minecraft:custom_model_data", 1001);
+        nbt.string("minecraft:custom_name", "{\"text\":\"Wheat Seed Bag\"}");
+        nbt.list("minecraft:lore", NbtBagReader.TAG_STRING, 1).value("{\"text\":\"500 seeds\"}");
+        nbt.compound("minecraft:custom_data").compound("PublicBukkitValues");
+        nbt.string(key("seed_type"), "WHEAT_SEEDS").intTag(key("seed_count"), singleCount);
+        nbt.end().end().end().end();
+        // A universal bag
+        nbt.byteTag("Slot", 1).string("id", "minecraft:bundle").intTag("count", 1);
+        nbt.compound("components");
+        nbt.intTag("minecraft:custom_model_data", 2000);
+        nbt.compound("minecraft:custom_data").compound("PublicBukkitValues");
+        nbt.byteArray(key("seed_counts"), universalCounts);
+        nbt.end().end().end().end();
+        // A shulker box holding a bag and a plain item
+        nbt.byteTag("Slot", 2).string("id", "minecraft:shulker_box").intTag("count", 1);
+        nbt.compound("components");
+        nbt.list("minecraft:container", NbtBagReader.TAG_COMPOUND, 2);
+        nbt.intTag("slot", 0).compound("item");
+        nbt.string("id", "minecraft:carrot").intTag("count", 1);
+        nbt.compound("components");
+        nbt.intTag("minecraft:custom_model_data", nestedModelData);
+        nbt.compound("minecraft:custom_data").compound("PublicBukkitValues");
+        nbt.string(key("seed_type"), "CARROT").intTag(key("seed_count"), 40);
+        nbt.end().end().end().end().end();
+        nbt.intTag("slot", 1).compound("item").string("id", "minecraft:stone").intTag("count", 64).end().end();
+        nbt.end().end();
+        // A bag whose count lives in the ledger
+        nbt.byteTag("Slot", 3).string("id", "minecraft:wheat_seeds").intTag("count", 1);
+        nbt.compound("components").compound("minecraft:custom_data").compound("PublicBukkitValues");
+        nbt.string(key("seed_type"), "WHEAT_SEEDS").string(key("bag_id"), "0b8e4c1a-7d2f-4e5b-9a61-3c0d8f2e4b17");
+        nbt.end().end().end().end();
+        // A plain item
+        nbt.byteTag("Slot", 4).string("id", "minecraft:diamond_hoe").intTag("count", 1);
+        nbt.compound("components").intTag("minecraft:damage", 12).end().end();
+
+        nbt.list("EnderItems", NbtBagReader.TAG_COMPOUND, 1);
+        // A bag in the pre-1.20.5 item format
+        nbt.byteTag("Slot", 0).string("id", "minecraft:potato").byteTag("Count", 1);
+        nbt.compound("tag");
+        nbt.intTag("CustomModelData", 1003);
+        nbt.compound("display").string("Name", "{\"text\":\"Potato Seed Bag\"}").end();
+        nbt.compound("PublicBukkitValues");
+        nbt.string(key("seed_type"), "POTATO").intTag(key("seed_count"), legacyCount);
+        nbt.end().end().end();
+
+        nbt.intTag("XpLevel", 30);
+        nbt.end();
+        return nbt.toByteArray();
+    }
+
+    private static String key(String key) {
+        return NAMESPACE + ":" + key;
+    }
+
+    /**
+     * Writes NBT tags in stream order. List headers are written up front, so their
+     * elements follow as bare payloads.
+     */
+    private static final class Nbt {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+
+        private Nbt compound(String name) throws IOException {
+            header(NbtBagReader.TAG_COMPOUND, name);
+            return this;
+        }
+
+        private Nbt end() throws IOException {
+            out.writeByte(NbtBagReader.TAG_END);
+            return this;
+        }
+
+        private Nbt byteTag(String name, int value) throws IOException {
+            header(NbtBagReader.TAG_BYTE, name);
+            out.writeByte(value);
+            return this;
+        }
+
+        private Nbt intTag(String name, int value) throws IOException {
+            header(NbtBagReader.TAG_INT, name);
+            out.writeInt(value);
+            return this;
+        }
+
+        private Nbt string(String name, String value) throws IOException {
+            header(NbtBagReader.TAG_STRING, name);
+            out.writeUTF(value);
+            return this;
+        }
+
+        private Nbt byteArray(String name, byte[] value) throws IOException {
+            header(NbtBagReader.TAG_BYTE_ARRAY, name);
+            out.writeInt(value.length);
+            out.write(value);
+            return this;
+        }
+
+        private Nbt list(String name, byte elementType, int length) throws IOException {
+            header(NbtBagReader.TAG_LIST, name);
+            out.writeByte(elementType);
+            out.writeInt(length);
+            return this;
+        }
+
+        /**
+         * Write a string list element.
+         */
+        private Nbt value(String value) throws IOException {
+            out.writeUTF(value);
+            return this;
+        }
+
+        private void header(byte type, String name) throws IOException {
+            out.writeByte(type);
+            out.writeUTF(name);
+        }
+
+        private byte[] toByteArray() throws IOException {
+            out.flush();
+            return bytes.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package me.kermx.seedBags;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs the Redis backend against a local stand-in that speaks the Redis protocol
+ * and applies the seed bank script's semantics in Java. Set SEEDBAGS_TEST_REDIS to
+ * host:port to also run the script itself on a real Redis.
+ */
+class RedisSeedBankBackendTest {
+    private static final UUID OWNER = UUID.fromString("5f0c6b3e-34a8-4f6e-9d0c-2a4f1e6b7c11");
+
+    private RedisStandIn standIn;
+    private RedisSeedBankBackend backend;
+
+    @BeforeEach
+    void start() throws IOException {
+        standIn = new RedisStandIn();
+        backend = new RedisSeedBankBackend("127.0.0.1", standIn.getPort(), "secret", 3, "test:", 2000);
+    }
+
+    @AfterEach
+    void stop() throws IOException {
+        backend.close();
+        standIn.close();
+    }
+
+    @Test
+    void appliesDeltasAndReturnsBalances() throws IOException {
+        Map<String, Long> balances = backend.apply(OWNER, "lobby", 1L, Map.of("WHEAT_SEEDS", 64L, "CARROT", 10L));
+        assertEquals(Map.of("WHEAT_SEEDS", 64L, "CARROT", 10L), balances);
+
+        balances = backend.apply(OWNER, "lobby", 2L, Map.of("WHEAT_SEEDS", -14L));
+        assertEquals(Map.of("WHEAT_SEEDS", 50L, "CARROT", 10L), balances);
+    }
+
+    @Test
+    void appliesResentBatchOnce() throws IOException {
+        backend.apply(OWNER, "lobby", 7L, Map.of("WHEAT_SEEDS", 20L));
+        Map<String, Long> balances = backend.apply(OWNER, "lobby", 7L, Map.of("WHEAT_SEEDS", 20L));
+        assertEquals(20L, balances.get("WHEAT_SEEDS"));
+    }
+
+    @Test
+    void numbersBatchesPerServer() throws IOException {
+        backend.apply(OWNER, "lobby", 9L, Map.of("WHEAT_SEEDS", 5L));
+        Map<String, Long> balances = backend.apply(OWNER, "farm", 1L, Map.of("WHEAT_SEEDS", 3L));
+        assertEquals(8L, balances.get("WHEAT_SEEDS"));
+    }
+
+    @Test
+    void readsWithoutDeltas() throws IOException {
+        backend.apply(OWNER, "lobby", 1L, Map.of("POTATO", 12L));
+        Map<String, Long> balances = backend.apply(OWNER, "farm", 0L, Map.of());
+        assertEquals(Map.of("POTATO", 12L), balances);
+    }
+
+    @Test
+    void leavesOutBookkeepingAndForeignFields() throws IOException {
+        standIn.hash("test:" + OWNER).put("note", "not a number");
+        Map<String, Long> balances = backend.apply(OWNER, "lobby", 1L, Map.of("BEETROOT_SEEDS", 1L));
+        assertEquals(Map.of("BEETROOT_SEEDS", 1L), balances);
+        assertTrue(standIn.hash("test:" + OWNER).keySet().stream().anyMatch(field -> field.startsWith("~seq:")));
+    }
+
+    @Test
+    void authenticatesAndSelectsOncePerConnection() throws IOException {
+        backend.apply(OWNER, "lobby", 1L, Map.of("WHEAT_SEEDS", 1L));
+        backend.apply(OWNER, "lobby", 2L, Map.of("WHEAT_SEEDS", 1L));
+        List<String> commands = standIn.getCommands();
+        assertEquals(List.of("AUTH", "SELECT", "EVAL", "EVAL"), commands);
+        assertEquals(List.of("AUTH", "secret"), standIn.getArguments(0));
+        assertEquals(List.of("SELECT", "3"), standIn.getArguments(1));
+    }
+
+    @Test
+    void sendsMultiByteArgumentsByByteLength() throws IOException {
+        Map<String, Long> balances = backend.apply(OWNER, "lobby", 1L, Map.of("SAMEN_\u00e4\u00f6\u00fc", 2L));
+        assertEquals(Map.of("SAMEN_\u00e4\u00f6\u00fc", 2L), balances);
+    }
+
+    @Test
+    void reconnectsAfterAnError() throws IOException {
+        standIn.failNext("ERR busy");
+        IOException error = assertThrows(IOException.class, () -> backend.apply(OWNER, "lobby", 1L, Map.of("WHEAT_SEEDS", 4L)));
+        assertTrue(error.getMessage().contains("ERR busy"));
+        assertFalse(standIn.hash("test:" + OWNER).containsKey("WHEAT_SEEDS"));
+
+        Map<String, Long> balances = backend.apply(OWNER, "lobby", 1L, Map.of("WHEAT_SEEDS", 4L));
+        assertEquals(4L, balances.get("WHEAT_SEEDS"));
+        assertEquals(2, standIn.getConnections());
+    }
+
+    @Test
+    void runsTheScriptOnRealRedis() throws IOException {
+        String address = System.getenv("SEEDBAGS_TEST_REDIS");
+        assumeTrue(address != null && !address.isEmpty(), "SEEDBAGS_TEST_REDIS is not set");
+        String[] hostAndPort = address.split(":");
+        String prefix = "seedbags-test:" + UUID.randomUUID() + ":";
+        RedisSeedBankBackend redis = new RedisSeedBankBackend(hostAndPort[0], Integer.parseInt(hostAndPort[1]), "", 0, prefix, 2000);
+        try {
+            assertEquals(Map.of("WHEAT_SEEDS", 30L), redis.apply(OWNER, "lobby", 1L, Map.of("WHEAT_SEEDS", 30L)));
+            assertEquals(Map.of("WHEAT_SEEDS", 30L), redis.apply(OWNER, "lobby", 1L, Map.of("WHEAT_SEEDS", 30L)));
+            assertEquals(Map.of("WHEAT_SEEDS", 20L, "CARROT", 5L),
+                    redis.apply(OWNER, "farm", 1L, Map.of("WHEAT_SEEDS", -10L, "CARROT", 5L)));
+            assertEquals(Map.of("WHEAT_SEEDS", 20L, "CARROT", 5L), redis.apply(OWNER, "lobby", 0L, Map.of()));
+        } finally {
+            redis.close();
+        }
+    }
+
+    /**
+     * A single-threaded server speaking the Redis protocol, with just enough commands for
+     * the backend: AUTH, SELECT and an EVAL that applies the seed bank script's logic to
+     * in-memory hashes. Connections are served one at a time.
+     */
+    private static final class RedisStandIn implements AutoCloseable {
+        private final ServerSocket server = new ServerSocket(0);
+        private final Map<String, Map<String, String>> hashes = new ConcurrentHashMap<>();
+        private final List<List<String>> received = new CopyOnWriteArrayList<>();
+        private final Thread thread = new Thread(this::serve, "RedisStandIn");
+        private volatile String nextError;
+        private volatile int connections;
+
+        private RedisStandIn() throws IOException {
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private int getPort() {
+            return server.getLocalPort();
+        }
+
+        private Map<String, String> hash(String key) {
+            return hashes.computeIfAbsent(key, k -> Collections.synchronizedMap(new LinkedHashMap<>()));
+        }
+
+        private void failNext(String error) {
+            nextError = error;
+        }
+
+        private int getConnections() {
+            return connections;
+        }
+
+        private List<String> getCommands() {
+            List<String> commands = new ArrayList<>();
+            for (List<String> command : received) {
+                commands.add(command.get(0));
+            }
+            return commands;
+        }
+
+        private List<String> getArguments(int index) {
+            return received.get(index);
+        }
+
+        private void serve() {
+            while (!server.isClosed()) {
+                try (Socket socket = server.accept()) {
+                    connections++;
+                    InputStream in = new BufferedInputStream(socket.getInputStream());
+                    OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+                    List<String> command;
+                    while ((command = readCommand(in)) != null) {
+                        received.add(command);
+                        String error = nextError;
+                        if (error != null) {
+                            nextError = null;
+                            out.write(("-" + error + "\r\n").getBytes(StandardCharsets.UTF_8));
+                        } else {
+                            reply(command, out);
+                        }
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    // Closed by the test or the client
+                }
+            }
+        }
+
+        private void reply(List<String> command, OutputStream out) throws IOException {
+            switch (command.get(0)) {
+                case "AUTH", "SELECT" -> out.write("+OK\r\n".getBytes(StandardCharsets.US_ASCII));
+                case "EVAL" -> writeArray(out, eval(command));
+                default -> out.write(("-ERR unknown command '" + command.get(0) + "'\r\n").getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        /**
+         * The seed bank script: apply the deltas if the batch number is above the last
+         * one stored for the server, then return the whole hash.
+         */
+        private List<String> eval(List<String> command) {
+            int keyCount = Integer.parseInt(command.get(2));
+            Map<String, String> hash = hash(command.get(3));
+            List<String> argv = command.subList(3 + keyCount, command.size());
+            synchronized (hash) {
+                long last = Long.parseLong(hash.getOrDefault(argv.get(0), "0"));
+                if (argv.size() > 2 && Long.parseLong(argv.get(1)) > last) {
+                    for (int i = 2; i + 1 < argv.size(); i += 2) {
+                        long value = Long.parseLong(hash.getOrDefault(argv.get(i), "0")) + Long.parseLong(argv.get(i + 1));
+                        hash.put(argv.get(i), Long.toString(value));
+                    }
+                    hash.put(argv.get(0), argv.get(1));
+                }
+                List<String> fields = new ArrayList<>();
+                for (Map.Entry<String, String> entry : hash.entrySet()) {
+                    fields.add(entry.getKey());
+                    fields.add(entry.getValue());
+                }
+                return fields;
+            }
+        }
+
+        private static void writeArray(OutputStream out, List<String> elements) throws IOException {
+            out.write(("*" + elements.size() + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            for (String element : elements) {
+                byte[] bytes = element.getBytes(StandardCharsets.UTF_8);
+                out.write(("$" + bytes.length + "\r\n").getBytes(StandardCharsets.US_ASCII));
+                out.write(bytes);
+                out.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+            }
+        }
+
+        /**
+         * Read one command sent as an array of bulk strings.
+         *
+         * @return The command and its arguments, or null at the end of the stream.
+         */
+        private static List<String> readCommand(InputStream in) throws IOException {
+            int type = in.read();
+            if (type < 0) {
+                return null;
+            }
+            if (type != '*') {
+                throw new IOException("Expected an array, got " + (char) type);
+            }
+            int count = Integer.parseInt(readLine(in));
+            List<String> command = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                if (in.read() != '$') {
+                    throw new IOException("Expected a bulk string");
+                }
+                int length = Integer.parseInt(readLine(in));
+                byte[] bytes = in.readNBytes(length);
+                in.readNBytes(2);
+                command.add(new String(bytes, StandardCharsets.UTF_8));
+            }
+            return command;
+        }
+
+        private static String readLine(InputStream in) throws IOException {
+            StringBuilder line = new StringBuilder();
+            int c;
+            while ((c = in.read()) != '\r') {
+                if (c < 0) {
+                    throw new IOException("Connection closed");
+                }
+                line.append((char) c);
+            }
+            in.read();
+            return line.toString();
+        }
+
+        @Override
+        public void close() throws IOException {
+            server.close();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package me.kermx.seedBags;
+
+import org.bukkit.Material;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SeedCountsTest {
+
+    @Test
+    void roundTripsCounts() {
+        SeedCounts counts = new SeedCounts();
+        counts.set(Material.WHEAT_SEEDS, 640);
+        counts.set(Material.CARROT, 12);
+        counts.set(Material.NETHER_WART, Integer.MAX_VALUE);
+
+        SeedCounts decoded = SeedCounts.decode(counts.encode());
+        assertEquals(3, decoded.size());
+        assertEquals(640, decoded.get(Material.WHEAT_SEEDS));
+        assertEquals(12, decoded.get(Material.CARROT));
+        assertEquals(Integer.MAX_VALUE, decoded.get(Material.NETHER_WART));
+        assertEquals(0, decoded.get(Material.POTATO));
+    }
+
+    @Test
+    void keepsEntryOrder() {
+        SeedCounts counts = new SeedCounts();
+        counts.set(Material.POTATO, 1);
+        counts.set(Material.BEETROOT_SEEDS, 2);
+
+        SeedCounts decoded = SeedCounts.decode(counts.encode());
+        assertEquals(Material.POTATO, decoded.getSeedType(0));
+        assertEquals(1, decoded.getCount(0));
+        assertEquals(Material.BEETROOT_SEEDS, decoded.getSeedType(1));
+        assertEquals(2, decoded.getCount(1));
+    }
+
+    @Test
+    void encodesKnownLayout() {
+        SeedCounts counts = new SeedCounts();
+        counts.set(Material.CARROT, 300);
+
+        byte[] expected = ByteBuffer.allocate(1 + 1 + 6 + 4)
+                .put(SeedCounts.VERSION)
+                .put((byte) 6).put("CARROT".getBytes(StandardCharsets.US_ASCII))
+                .putInt(300)
+                .array();
+        assertArrayEquals(expected, counts.encode());
+    }
+
+    @Test
+    void leavesOutEmptySeedTypes() {
+        SeedCounts counts = new SeedCounts();
+        counts.set(Material.WHEAT_SEEDS, 5);
+        counts.set(Material.CARROT, 0);
+
+        SeedCounts decoded = SeedCounts.decode(counts.encode());
+        assertEquals(1, decoded.size());
+        assertEquals(5, decoded.get(Material.WHEAT_SEEDS));
+    }
+
+    @Test
+    void growsPastInitialCapacity() {
+        Material[] seedTypes = {Material.WHEAT_SEEDS, Material.BEETROOT_SEEDS, Material.MELON_SEEDS,
+                Material.PUMPKIN_SEEDS, Material.CARROT, Material.POTATO, Material.NETHER_WART,
+                Material.TORCHFLOWER_SEEDS, Material.PITCHER_POD, Material.COCOA_BEANS};
+        SeedCounts counts = new SeedCounts();
+        for (int i = 0; i < seedTypes.length; i++) {
+            counts.set(seedTypes[i], i + 1);
+        }
+
+        SeedCounts decoded = SeedCounts.decode(counts.encode());
+        assertEquals(seedTypes.length, decoded.size());
+        for (int i = 0; i < seedTypes.length; i++) {
+            assertEquals(i + 1, decoded.get(seedTypes[i]));
+        }
+    }
+
+    @Test
+    void copyIsIndependent() {
+        SeedCounts counts = new SeedCounts();
+        counts.set(Material.WHEAT_SEEDS, 10);
+
+        SeedCounts copy = counts.copy();
+        copy.set(Material.WHEAT_SEEDS, 4);
+        copy.set(Material.CARROT, 2);
+
+        assertEquals(10, counts.get(Material.WHEAT_SEEDS));
+        assertEquals(0, counts.get(Material.CARROT));
+        assertEquals(1, counts.size());
+        assertEquals(4, copy.get(Material.WHEAT_SEEDS));
+    }
+
+    @Test
+    void decodesMissingOrForeignValuesAsEmpty() {
+        assertEquals(0, SeedCounts.decode(null).size());
+        assertEquals(0, SeedCounts.decode(new byte[0]).size());
+        assertEquals(0, SeedCounts.decode(new byte[]{(byte) (SeedCounts.VERSION + 1), 1, 'X', 0, 0, 0, 1}).size());
+    }
+
+    @Test
+    void dropsUnknownMaterials() {
+        byte[] packed = ByteBuffer.allocate(1 + 1 + 9 + 4 + 1 + 6 + 4)
+                .put(SeedCounts.VERSION)
+                .put((byte) 9).put("NOT_SEEDS".getBytes(StandardCharsets.US_ASCII)).putInt(8)
+                .put((byte) 6).put("POTATO".getBytes(StandardCharsets.US_ASCII)).putInt(3)
+                .array();
+
+        SeedCounts decoded = SeedCounts.decode(packed);
+        assertEquals(1, decoded.size());
+        assertEquals(3, decoded.get(Material.POTATO));
+    }
+
+    @Test
+    void stopsAtTruncatedEntry() {
+        SeedCounts counts = new SeedCounts();
+        counts.set(Material.WHEAT_SEEDS, 7);
+        counts.set(Material.CARROT, 9);
+        byte[] packed = counts.encode();
+        byte[] truncated = new byte[packed.length - 2];
+        System.arraycopy(packed, 0, truncated, 0, truncated.length);
+
+        SeedCounts decoded = SeedCounts.decode(truncated);
+        assertEquals(1, decoded.size());
+        assertEquals(7, decoded.get(Material.WHEAT_SEEDS));
+    }
+}
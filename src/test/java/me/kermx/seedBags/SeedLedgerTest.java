@@ -0,0 +1,147 @@
+package me.kermx.seedBags;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Loads ledgers from hand-written snapshot and journal files, as a crash would leave
+ * them, and checks that counts survive a close and reload.
+ */
+class SeedLedgerTest {
+    private static final UUID FIRST = UUID.fromString("0b8e4c1a-7d2f-4e5b-9a61-3c0d8f2e4b17");
+    private static final UUID SECOND = UUID.fromString("c41d2e9f-5a3b-4c87-8e10-6f9b2a7d3e58");
+    private static final UUID THIRD = UUID.fromString("7e3a9b20-1c4d-4f6e-a852-9d0b3c6e1f24");
+    private static final Logger LOGGER = Logger.getLogger("SeedLedgerTest");
+
+    private Path directory;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("seedbags-ledger");
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    void replaysJournalOverSnapshot() throws IOException {
+        Files.write(directory.resolve("ledger.dat"), records(record(FIRST, 10), record(SECOND, 20)));
+        Files.write(directory.resolve("ledger.journal"), records(record(SECOND, 25), record(THIRD, 5), record(SECOND, 30)));
+
+        SeedLedger ledger = load();
+        try {
+            assertEquals(10, ledger.get(FIRST));
+            assertEquals(30, ledger.get(SECOND));
+            assertEquals(5, ledger.get(THIRD));
+        } finally {
+            ledger.close();
+        }
+    }
+
+    @Test
+    void ignoresTornRecordAtEndOfJournal() throws IOException {
+        byte[] torn = new byte[11];
+        System.arraycopy(record(FIRST, 99), 0, torn, 0, torn.length);
+        Files.write(directory.resolve("ledger.journal"), records(record(FIRST, 40), torn));
+
+        SeedLedger ledger = load();
+        try {
+            assertEquals(40, ledger.get(FIRST));
+        } finally {
+            ledger.close();
+        }
+    }
+
+    @Test
+    void compactsJournalIntoSnapshotOnLoad() throws IOException {
+        Files.write(directory.resolve("ledger.journal"), records(record(FIRST, 12)));
+
+        load().close();
+
+        assertEquals(0L, Files.size(directory.resolve("ledger.journal")));
+        assertEquals(20L, Files.size(directory.resolve("ledger.dat")));
+        assertFalse(Files.exists(directory.resolve("ledger.dat.tmp")));
+    }
+
+    @Test
+    void keepsCountsAcrossCloseAndReload() throws IOException {
+        SeedLedger ledger = load();
+        ledger.set(FIRST, 7);
+        ledger.set(SECOND, 64);
+        ledger.flush();
+        ledger.set(FIRST, 3);
+        ledger.close();
+
+        SeedLedger reloaded = load();
+        try {
+            assertEquals(3, reloaded.get(FIRST));
+            assertEquals(64, reloaded.get(SECOND));
+            assertEquals(0, reloaded.get(THIRD));
+        } finally {
+            reloaded.close();
+        }
+    }
+
+    @Test
+    void keepsManyBagsAcrossReload() throws IOException {
+        SeedLedger ledger = load();
+        for (int i = 0; i < 1000; i++) {
+            ledger.set(new UUID(i, -i), i);
+        }
+        ledger.close();
+
+        SeedLedger reloaded = load();
+        try {
+            for (int i = 0; i < 1000; i++) {
+                assertEquals(i, reloaded.get(new UUID(i, -i)));
+            }
+        } finally {
+            reloaded.close();
+        }
+    }
+
+    private SeedLedger load() throws IOException {
+        SeedLedger ledger = new SeedLedger(LOGGER, directory, 1024 * 1024);
+        ledger.load();
+        return ledger;
+    }
+
+    private static byte[] record(UUID bagId, int count) {
+        return ByteBuffer.allocate(20)
+                .putLong(bagId.getMostSignificantBits())
+                .putLong(bagId.getLeastSignificantBits())
+                .putInt(count)
+                .array();
+    }
+
+    private static byte[] records(byte[]... records) {
+        int length = 0;
+        for (byte[] record : records) {
+            length += record.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        for (byte[] record : records) {
+            buffer.put(record);
+        }
+        return buffer.array();
+    }
+}